@@ -0,0 +1,29 @@
+package com.example.go.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always attached, so every result
+ * has ops/sec next to allocation rate (gc.alloc.rate.norm is bytes per op).
+ * Takes the usual JMH command line, e.g.
+ *
+ *   java -jar target/go-1.0-SNAPSHOT-benchmarks.jar RulesBenchmark -p size=19 -rf json
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cli).addProfiler(GCProfiler.class);
+        if (cli.getIncludes().isEmpty()) {
+            builder.include("com\\.example\\.go\\.bench\\..*");
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.go.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.go.engine.BitBoard;
+import com.example.go.engine.GoPosition;
+
+/** The bitboard backend next to the array engine on the operations it is meant for. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitBoardBenchmark {
+    @Param({"9", "19"})
+    int size;
+
+    private GoPosition middleGame;
+    private GoPosition middleGameCopy;
+    private BitBoard middleGameBits;
+    private BitBoard middleGameBitsCopy;
+    private GoPosition endgame;
+    private BitBoard endgameBits;
+
+    @Setup
+    public void setUp() {
+        int[] game = Fixtures.randomGame(size, Fixtures.SEED);
+        middleGame = Fixtures.replay(size, game, game.length / 2);
+        middleGameCopy = new GoPosition(size, size);
+        middleGameBits = BitBoard.of(middleGame);
+        middleGameBitsCopy = new BitBoard(size, size);
+        endgame = Fixtures.endgame(size, Fixtures.SEED + 1);
+        endgameBits = BitBoard.of(endgame);
+    }
+
+    @Benchmark
+    public GoPosition copyPosition() {
+        middleGameCopy.copyFrom(middleGame);
+        return middleGameCopy;
+    }
+
+    @Benchmark
+    public BitBoard copyBitBoard() {
+        middleGameBitsCopy.copyFrom(middleGameBits);
+        return middleGameBitsCopy;
+    }
+
+    @Benchmark
+    public int scoreBitBoard() {
+        endgameBits.calculateJapaneseScoring();
+        return endgameBits.getBlackScore() - endgameBits.getWhiteScore();
+    }
+
+    @Benchmark
+    public int scorePosition() {
+        endgame.calculateJapaneseScoring();
+        return endgame.getBlackScore() - endgame.getWhiteScore();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.go.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.go.Board;
+import com.example.go.Move;
+import com.example.go.engine.GoPosition;
+
+/**
+ * The same random games driven through the Swing {@link Board} view, to
+ * show what the panel adds on top of the engine. Needs java.awt.headless.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BoardBenchmark {
+    @Param({"9", "13", "19"})
+    int size;
+
+    private int[] cols;
+    private int[] rows;
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        int[] game = Fixtures.randomGame(size, Fixtures.SEED);
+        GoPosition coords = new GoPosition(size, size);
+        cols = new int[game.length];
+        rows = new int[game.length];
+        for (int i = 0; i < game.length; i++) {
+            // Passes are replayed as -1 and skipped below
+            cols[i] = game[i] == GoPosition.PASS ? -1 : coords.col(game[i]);
+            rows[i] = game[i] == GoPosition.PASS ? -1 : coords.row(game[i]);
+        }
+        board = new Board(size, size);
+    }
+
+    @Benchmark
+    public int makeMoveRandomGame() {
+        board.resetGameState();
+        for (int i = 0; i < cols.length; i++) {
+            if (cols[i] < 0) {
+                board.pass();
+            } else {
+                board.makeMove(new Move(board, cols[i], rows[i]));
+            }
+        }
+        return board.getClickCount();
+    }
+
+    @Benchmark
+    public int calculateJapaneseScoring() {
+        board.calculateJapaneseScoring();
+        return board.getBlackScore();
+    }
+}
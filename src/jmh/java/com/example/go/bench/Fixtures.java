@@ -0,0 +1,94 @@
+package com.example.go.bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Reproducible positions for the benchmarks. Everything is derived from a
+ * fixed seed, so two runs (or two commits) measure exactly the same games.
+ */
+final class Fixtures {
+    static final long SEED = 20240611L;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Moves of a random game played to two passes. Moves are uniformly random
+     * among legal points that do not fill one of the mover's own eyes.
+     */
+    static int[] randomGame(int size, long seed) {
+        GoPosition position = new GoPosition(size, size);
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] candidates = new int[position.getPointCount()];
+        int[] moves = new int[size * size * 4];
+        int count = 0;
+        int passes = 0;
+
+        while (passes < 2 && count < moves.length) {
+            int n = 0;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int p = position.point(col, row);
+                    if (position.isLegal(p) && !isOwnEye(position, p)) {
+                        candidates[n++] = p;
+                    }
+                }
+            }
+            int move = n == 0 ? GoPosition.PASS : candidates[random.nextInt(n)];
+            position.play(move);
+            passes = move == GoPosition.PASS ? passes + 1 : 0;
+            moves[count++] = move;
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /** Replays {@code moves} onto a fresh position. */
+    static GoPosition replay(int size, int[] moves, int count) {
+        GoPosition position = new GoPosition(size, size);
+        for (int i = 0; i < count; i++) {
+            position.play(moves[i]);
+        }
+        return position;
+    }
+
+    /**
+     * Black fills the top half of the board except the corner, White walls it
+     * off underneath. White to play at (0,0) captures the whole black group.
+     */
+    static GoPosition bigGroupInAtari(int size) {
+        GoPosition position = new GoPosition(size, size);
+        int wall = size / 2;
+        for (int row = 0; row < wall; row++) {
+            for (int col = 0; col < size; col++) {
+                if (col != 0 || row != 0) {
+                    position.setStone(col, row, GoPosition.BLACK);
+                }
+            }
+        }
+        for (int col = 0; col < size; col++) {
+            position.setStone(col, wall, GoPosition.WHITE);
+        }
+        position.setToMove(GoPosition.WHITE);
+        return position;
+    }
+
+    /** Final position of a random game, with every point settled. */
+    static GoPosition endgame(int size, long seed) {
+        int[] moves = randomGame(size, seed);
+        return replay(size, moves, moves.length);
+    }
+
+    private static boolean isOwnEye(GoPosition position, int p) {
+        byte me = position.getToMove();
+        int stride = position.getStride();
+        int[] offsets = {-1, 1, -stride, stride};
+        for (int d : offsets) {
+            byte c = position.get(p + d);
+            if (c != me && c != GoPosition.BORDER) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.go.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.engine.Playout;
+
+/** Random playouts from an empty board; the score is playouts per second. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayoutBenchmark {
+    @Param({"9", "13", "19"})
+    int size;
+
+    private GoPosition start;
+    private Playout playout;
+
+    @Setup
+    public void setUp() {
+        start = new GoPosition(size, size);
+        playout = new Playout(Fixtures.SEED);
+    }
+
+    @Benchmark
+    public int playoutFromEmptyBoard() {
+        return playout.run(start);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.go.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.go.engine.GoPosition;
+
+/** Hot paths of the headless rules engine on 9x9, 13x13 and 19x19. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RulesBenchmark {
+    @Param({"9", "13", "19"})
+    int size;
+
+    private int[] game;
+    private GoPosition replay;
+    private GoPosition trackedReplay;
+    private GoPosition middleGame;
+    private GoPosition bigGroup;
+    private int bigGroupCapture;
+    private GoPosition endgame;
+
+    @Setup
+    public void setUp() {
+        game = Fixtures.randomGame(size, Fixtures.SEED);
+        replay = new GoPosition(size, size);
+        trackedReplay = new GoPosition(size, size);
+        trackedReplay.setTerritoryTracking(true);
+        middleGame = Fixtures.replay(size, game, game.length / 2);
+        bigGroup = Fixtures.bigGroupInAtari(size);
+        bigGroupCapture = bigGroup.point(0, 0);
+        endgame = Fixtures.endgame(size, Fixtures.SEED + 1);
+    }
+
+    /**
+     * One full random game through play(): the legality checks and the move,
+     * without makeMove's exceptions, game events and JFR events (see
+     * BoardBenchmark for the whole path from the Swing board).
+     */
+    @Benchmark
+    public int playRandomGame() {
+        replay.reset();
+        for (int move : game) {
+            replay.play(move);
+        }
+        return replay.getMoveCount();
+    }
+
+    /** The same game with territory tracking on; the difference is its per-move cost. */
+    @Benchmark
+    public int playRandomGameTracked() {
+        trackedReplay.reset();
+        for (int move : game) {
+            trackedReplay.play(move);
+        }
+        return trackedReplay.getBlackTerritory();
+    }
+
+    /** Suicide check for every point of a middle-game position. */
+    @Benchmark
+    public void wouldBeSuicide(Blackhole bh) {
+        byte color = middleGame.getToMove();
+        int end = middleGame.getPointCount();
+        for (int p = 0; p < end; p++) {
+            if (middleGame.get(p) == GoPosition.EMPTY) {
+                bh.consume(middleGame.wouldBeSuicide(p, color));
+            }
+        }
+    }
+
+    /** Liberty check for every stone of a middle-game position. */
+    @Benchmark
+    public void hasNoLiberties(Blackhole bh) {
+        int end = middleGame.getPointCount();
+        for (int p = 0; p < end; p++) {
+            byte c = middleGame.get(p);
+            if (c == GoPosition.BLACK || c == GoPosition.WHITE) {
+                bh.consume(middleGame.hasNoLiberties(p));
+            }
+        }
+    }
+
+    /** Capturing half the board in one move, then taking it back. */
+    @Benchmark
+    public int captureBigGroup() {
+        bigGroup.play(bigGroupCapture);
+        int captured = bigGroup.getLastCaptureCount();
+        bigGroup.undo();
+        return captured;
+    }
+
+    @Benchmark
+    public int calculateJapaneseScoring() {
+        endgame.calculateJapaneseScoring();
+        return endgame.getBlackScore() - endgame.getWhiteScore();
+    }
+}
@@ -2,24 +2,21 @@ package com.example.go;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
-import java.util.*;
-import java.util.Queue;
+import java.util.ArrayList;
 import com.example.go.Piece;
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.engine.PositionListener;
 import com.example.go.exception.InvalidMoveException;
+import com.example.go.search.Ownership;
+import com.example.go.search.OwnershipEstimator;
 
 
 
 public class Board extends JPanel {
-    // Game state
-    // private boolean[][] tileStates;
-    private Piece[][] pieceArray;
-    private boolean isBlackTurn;
-    private int whiteScore;
-    private int blackScore;
+    // Game state lives in the headless engine; this panel only draws it
+    private final GoPosition position;
     private int clickCount;
-    private int passCount;
-    private int capturedByBlack = 0;
-    private int capturedByWhite = 0;
     
     // Display
     private int tileSize;
@@ -27,6 +24,26 @@ public class Board extends JPanel {
     private int stoneDiameter;
     private final int cols;
     private final int rows;
+    // Grid and stone images, rebuilt only when the tile size or screen scale changes
+    private final BoardRenderer renderer;
+    private Dimension laidOutFor;
+    // Intersections changed since the last repaint, as a bounding box merged across moves
+    private final Object dirtyLock = new Object();
+    private int dirtyMinCol;
+    private int dirtyMaxCol = -1;
+    private int dirtyMinRow;
+    private int dirtyMaxRow;
+    private boolean dirtyAll;
+    private boolean repaintQueued;
+    // What paintComponent draws; with a controller attached it is published from the game thread
+    private volatile GameSnapshot shown;
+    private volatile GameController controller;
+    // Dead stone estimation at the end of the game; off unless an estimator is set
+    private OwnershipEstimator ownershipEstimator;
+    private long ownershipMillis;
+    private volatile Ownership ownership;
+    // Colour that resigned this game, or EMPTY
+    private byte resigned = GoPosition.EMPTY;
     private static final int minTileSize = 20;
     private static final int maxTileSize = 100;
     private static final int STONE_RATIO = 80; // Percentage of tile size
@@ -40,11 +57,11 @@ public class Board extends JPanel {
 public Board(int cols, int rows) {
     this.cols = cols;
     this.rows = rows;
-    
-    this.isBlackTurn = true;
-    // Initialize arrays FIRST
-    // this.tileStates = new boolean[cols][rows];
-    this.pieceArray = new Piece[cols][rows];
+    this.position = new GoPosition(cols, rows);
+    this.renderer = new BoardRenderer(cols, rows);
+    position.setPositionListener(new Repainter());
+    // Keeps the score current after every move, so scoring never rescans the board
+    position.setTerritoryTracking(true);
     
     // Initialize game state
     resetGameState();
@@ -59,6 +76,12 @@ private void calculateSizes() {
     // Get available drawing area
     Dimension size = getParent() != null ? getParent().getSize() : 
                     new Dimension(800, 800); // Default fallback
+    if (size.equals(laidOutFor)) {
+        return;
+    }
+    laidOutFor = size;
+    // The tile size may change, so whatever is being painted now, all of it moves
+    repaint();
 
     // Calculate based on grid lines (cols-1 spaces between cols lines)
     int widthTile = size.width / Math.max(1, cols-1);
@@ -80,68 +103,22 @@ private void calculateSizes() {
 }
 
     public  void resetGameState() {
-        this.isBlackTurn = true;
-        this.whiteScore = 0;
-        this.blackScore = 0;
-
-        capturedByBlack = 0;
-        capturedByWhite = 0;
-
+        position.reset();
+        ownership = null;
+        resigned = GoPosition.EMPTY;
         this.clickCount = 0;
-        
-        this.passCount = 0;
-        for (int i = 0; i < cols; i++) {
-            // Arrays.fill(tileStates[i], false);
-            Arrays.fill(pieceArray[i], null);
-        }
-        
-
-        
-
-        
     }
 
 @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
         calculateSizes();
-        drawGrid((Graphics2D)g);
-        drawStones((Graphics2D)g);
-    }
-
-
-    private void drawGrid(Graphics2D g2d) {
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(1.5f));
-        
-        // Draw vertical lines
-        for (int col = 0; col < cols; col++) {
-            int x = col * tileSize;
-            g2d.drawLine(x, 0, x, (rows-1) * tileSize);
-        }
-        
-        // Draw horizontal lines
-        for (int row = 0; row < rows; row++) {
-            int y = row * tileSize;
-            g2d.drawLine(0, y, (cols-1) * tileSize, y);
-        }
-        
-        // Draw star points for standard boards
-        if (cols == 19 && rows == 19) {
-            drawStarPoints(g2d, new int[]{3, 9, 15});
-        }
-    }
-
-        private void drawStarPoints(Graphics2D g2d, int[] points) {
-        g2d.setColor(Color.BLACK);
-        int starSize = tileSize/5;
-        for (int col : points) {
-            for (int row : points) {
-                int x = col * tileSize - starSize/2;
-                int y = row * tileSize - starSize/2;
-                g2d.fillOval(x, y, starSize, starSize);
-            }
+        GameSnapshot snapshot = shown;
+        if (snapshot == null) {
+            snapshot = snapshot();
+            shown = snapshot;
         }
+        renderer.paint((Graphics2D) g, snapshot, tileSize, stoneSize, getBackground());
     }
 
         public Point getVertexPosition(int col, int row) {
@@ -152,338 +129,210 @@ private void calculateSizes() {
         return stoneDiameter;
     }
 
-private void drawStones(Graphics2D g2d) {
-    for (int col = 0; col < cols; col++) {
-        for (int row = 0; row < rows; row++) {
-            if (pieceArray[col][row] != null) {
-                // Calculate stone position centered on intersection
-                int x = col * tileSize - stoneSize/2;
-                int y = row * tileSize - stoneSize/2;
-                
-                g2d.setColor(pieceArray[col][row].color);
-                g2d.fillOval(x, y, stoneSize, stoneSize);
-                
-                // Draw stone border for better visibility
-                g2d.setColor(Color.BLACK);
-                g2d.setStroke(new BasicStroke(1.5f));
-                g2d.drawOval(x, y, stoneSize, stoneSize);
+    public void pass() {
+        GameEvents.passed(position, position.getToMove());
+        position.pass();
+        clearOwnership();
+        // Two passes in a row end the game
+        if (position.getPassCount() == 2) {
+            // The estimate spends its whole budget, which would freeze the window on the Swing thread
+            if (ownershipEstimator != null && controller != null) {
+                ownership = ownershipEstimator.estimate(position, 0, ownershipMillis);
+                GameEvents.score(position, ownership.getDeadStones());
+                markAllDirty();
+            } else {
+                calculateJapaneseScoring();
             }
         }
-    }
-}
-
-    // ... (keep all other existing methods exactly as they were)
-    // Only changed the constructor, resetGameState(), drawGrid(), and drawStones()
-
-    
-    private int getCapturedStones(boolean forBlack) {
-        int capturedStones = 0;
-        for (int col = 0; col < cols; col++) {
-            for (int row = 0; row < rows; row++) {
-                if ( pieceArray[col][row] != null) {
-                    if (pieceArray[col][row].isWhite == forBlack) {
-                        capturedStones++;
-                    }
-                }
-            }
+        clickCount++;
+    }
+
+    /**
+     * Has the game end (two passes) estimate which stones are dead with
+     * {@code estimator}, spending at most {@code budgetMillis}, and score
+     * them as prisoners. Only a game run by a {@link GameController} does
+     * so; passes made on the Swing thread score every stone as alive rather
+     * than block it. The board does not close the estimator; null turns
+     * estimation off again.
+     */
+    public void setDeadStoneEstimation(OwnershipEstimator estimator, long budgetMillis) {
+        if (estimator != null && budgetMillis <= 0) {
+            throw new IllegalArgumentException("Need a time budget for dead stone estimation");
         }
-        return capturedStones;
+        this.ownershipEstimator = estimator;
+        this.ownershipMillis = budgetMillis;
     }
 
-
-    private TerritoryResult determineTerritoryOwner(int col, int row, boolean[][] visited) {
-        if (!isValidPosition(col, row) || pieceArray[col][row] != null || visited[col][row]) return null;
-
-        Set<Color> borderingColors = new HashSet<>();
-        Queue<int[]> queue = new LinkedList<>();
-        queue.add(new int[]{col, row});
-        visited[col][row] = true;
-
-        boolean touchesEdge = false;
-        int regionSize = 0;
-
-        while (!queue.isEmpty()) {
-            int[] cur = queue.poll();
-            regionSize++;
-
-            for (int[] dir : directions) {
-                int nc = cur[0] + dir[0];
-                int nr = cur[1] + dir[1];
-
-                if (!isValidPosition(nc, nr)) {
-                    // CRITICAL: don't return early — finish flood fill so visited[][] is consistent
-                    touchesEdge = true;
-                    continue;
-                }
-
-                Piece neighbor = pieceArray[nc][nr];
-                if (neighbor != null) {
-                    borderingColors.add(neighbor.color);
-                } else if (!visited[nc][nr]) {
-                    visited[nc][nr] = true;
-                    queue.add(new int[]{nc, nr});
-                }
-            }
-        }
-
-        // Decide after exploring the entire empty region
-        if (touchesEdge) return null;
-        if (borderingColors.size() != 1) return null;
-
-        return new TerritoryResult(borderingColors.iterator().next(), regionSize);
+    public boolean isDeadStoneEstimation() {
+        return ownershipEstimator != null;
     }
 
- 
-
-
-
-    private static class TerritoryResult {
-        final Color owner;
-        final int size;
-
-        TerritoryResult(Color owner, int size) {
-            this.owner = owner;
-            this.size = size;
-        }
+    /** Ownership estimated when the game last ended by two passes, or null. */
+    public Ownership getOwnership() {
+        return ownership;
     }
-private void updateNeighborLiberties(int col, int row) {
-    // Check all 4 neighbors
-    for (int[] dir : directions) {
-        int newCol = col + dir[0];
-        int newRow = row + dir[1];
-        if (isValidPosition(newCol, newRow)) {
-            Piece neighbor = pieceArray[newCol][newRow];
-            if (neighbor != null) {
-                // Check entire group's liberties, not just this stone
-                if (hasNoLiberties(neighbor)) {
-                    removeGroup(neighbor);
-                }
-            }
-        }
-    }
-}
 
- 
-    public void pass() {
-    	System.out.print("Clicked Pass");
-        passCount++;
-        System.out.println("pass count: " + passCount);
-        if (passCount == 2) {
-            calculateJapaneseScoring();
-            System.out.println("end of game");
+    /** Drops an estimate once play goes on, so its dead stones stop being shown. */
+    private void clearOwnership() {
+        if (ownership != null) {
+            ownership = null;
+            markAllDirty();
         }
-        incrementClicks();
-        System.out.printf("Black Score: %d White Score %d\n", blackScore, whiteScore);
     }
     
     public void resign() {
-    	System.out.print("Clicked Resign");
+        GameEvents.resigned(position, position.getToMove());
+        resigned = position.getToMove();
         calculateJapaneseScoring();
-        System.out.println("end of game");
-        System.out.printf("Black Score: %d White Score %d\n", blackScore, whiteScore);
-
     }
     
     
     public boolean wouldBeSuicide(int col, int row, boolean placingBlack) {
-        if (getPiece(col, row) != null) return true; // occupied is "illegal", treat as suicide-ish
-
-        Color myColor = placingBlack ? Color.BLACK : Color.WHITE;
-        boolean iAmWhite = !placingBlack;
+        return position.wouldBeSuicide(position.point(col, row),
+                placingBlack ? GoPosition.BLACK : GoPosition.WHITE);
+    }
 
-        Piece placed = new Piece(this, col, row, myColor, iAmWhite);
-        pieceArray[col][row] = placed;
 
-        java.util.List<Piece> removed = new java.util.ArrayList<>();
+public void makeMove(Move move) throws InvalidMoveException {
+    position.makeMove(move.newCol, move.newRow);
+    clearOwnership();
+    clickCount++;
+}
 
-        for (Piece opp : getOpponentNeighbors(placed)) {
-            if (hasNoLiberties(opp)) {
-                java.util.Set<Piece> group = new java.util.HashSet<>();
-                findGroup(opp, group);
-                for (Piece p : group) {
-                    pieceArray[p.col][p.row] = null;
-                    removed.add(p);
+/**
+ * Repaints what the engine reports as changed. Moves only grow the dirty
+ * box; one repaint per event-queue pass then covers every move made since
+ * the last, so a game replayed at speed does not queue a paint per stone.
+ * Without a controller the repaint is queued straight away and the state
+ * is copied on the Swing thread, which is then the one making moves; with
+ * one it waits for the controller to publish the snapshot of the move.
+ */
+private final class Repainter implements PositionListener {
+    @Override
+    public void pointsChanged(GoPosition changed, int[] points, int count) {
+        synchronized (dirtyLock) {
+            for (int i = 0; i < count; i++) {
+                int col = changed.col(points[i]);
+                int row = changed.row(points[i]);
+                if (dirtyMaxCol < 0) {
+                    dirtyMinCol = dirtyMaxCol = col;
+                    dirtyMinRow = dirtyMaxRow = row;
+                } else {
+                    dirtyMinCol = Math.min(dirtyMinCol, col);
+                    dirtyMaxCol = Math.max(dirtyMaxCol, col);
+                    dirtyMinRow = Math.min(dirtyMinRow, row);
+                    dirtyMaxRow = Math.max(dirtyMaxRow, row);
                 }
             }
         }
-
-        // 3) Now check if the placed stone's group has liberties
-        boolean suicide = hasNoLiberties(placed);
-
-        // 4) Restore board (undo simulation)
-        pieceArray[col][row] = null;
-        for (Piece p : removed) {
-            pieceArray[p.col][p.row] = p;
+        if (controller == null) {
+            queueRepaint();
         }
-
-        return suicide;
     }
 
-
-public void makeMove(Move move) throws InvalidMoveException {
-    // Validate move first
-    if (getPiece(move.newCol, move.newRow)!=null) {
-        throw new InvalidMoveException("Intersection already occupied");
-    }
-    
-    if (wouldBeSuicide(move.newCol, move.newRow, isBlackTurn)) {
-        throw new InvalidMoveException("Suicide move not allowed");
+    @Override
+    public void positionReset(GoPosition changed) {
+        synchronized (dirtyLock) {
+            dirtyAll = true;
+        }
+        if (controller == null) {
+            queueRepaint();
+        }
     }
-    
-//    // Check ko rule (optional)
-//    if (isKoViolation(move.newCol, move.newRow)) {
-//        throw new InvalidMoveException("Ko rule violation");
-//    }
-
-    // Execute valid move
-    Color pieceColor = isBlackTurn ? Color.BLACK : Color.WHITE;
-    Piece newPiece = new Piece(this, move.newCol, move.newRow, pieceColor, !isBlackTurn);
-    
-    pieceArray[move.newCol][move.newRow] = newPiece;
-    // tileStates[move.newCol][move.newRow] = true;
-
-    newPiece.updateLiberties();
-    captureOpponentStones(newPiece);
-    
-    // // Handle potential suicide after capture
-    // if (hasNoLiberties(newPiece) && !capturedOpponentPieces) {
-    //     removeGroup(newPiece);
-    //     throw new InvalidMoveException("Suicide move occurred");
-    // }
-
-    updateNeighborLiberties(move.newCol, move.newRow);
-    isBlackTurn = !isBlackTurn;
-    clickCount++;
-    repaint();
 }
 
-    public void captureOpponentStones(Piece placedPiece) {
-        getOpponentNeighbors(placedPiece).stream()
-            .filter(opponent -> !opponent.checkedForCapture) // Prevent re-processing
-            .filter(this::hasNoLiberties)
-            .forEach(this::removeGroup);
-    }
-    
-    private boolean hasNoLiberties(Piece piece) {
-        Set<Piece> group = new HashSet<>();
-        findGroup(piece, group);
-        return group.stream().noneMatch(this::hasEmptyAdjacent);
+/** Copies the position, the dead stones of the last estimate and any resignation; on the thread that owns the position. */
+GameSnapshot snapshot() {
+    Ownership estimate = ownership;
+    if (estimate == null && resigned == GoPosition.EMPTY) {
+        return GameSnapshot.of(position);
     }
+    return GameSnapshot.of(position, estimate == null ? new int[0] : estimate.getDeadStones(), resigned);
+}
 
-    private void findGroup(Piece piece, Set<Piece> group) {
-        if (group.contains(piece)) return;
-        group.add(piece);
-        getSameColorNeighbors(piece).forEach(neighbor -> findGroup(neighbor, group));
-    }
-
-
-    // private boolean hasNoLibertiesRecursive(Piece piece, Set<Piece> group) {
-    //     if (group.contains(piece)) {
-    //         return true;
-    //     }
-    //     if (hasEmptyAdjacent(piece)) {
-    //         return false;
-    //     }
-    //     group.add(piece);
-        
-
-
-    //     ArrayList<Piece> sameColorNeighbors = getSameColorNeighbors(piece);
-    //     for (Piece neighbor : sameColorNeighbors) {
-    //         if (!hasNoLibertiesRecursive(neighbor, group)) {
-    //             return false;
-    //         }
-    //     }
+/** The colour that resigned, or {@code EMPTY} while the game is on. */
+public byte getResigned() {
+    return resigned;
+}
 
-    //     return true;
-    // }
-    
-    private boolean hasEmptyAdjacent(Piece piece) {
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        for (int[] dir : directions) {
-            int newCol = piece.col + dir[0];
-            int newRow = piece.row + dir[1];
-            if (isValidPosition(newCol, newRow) && pieceArray[newCol][newRow] == null) {
-                return true;
-            }
-        }
-        return false;
+/** Has the next repaint cover the whole board, for changes no move reports. */
+private void markAllDirty() {
+    synchronized (dirtyLock) {
+        dirtyAll = true;
     }
+}
 
-    private void removeGroup(Piece piece) {
-        Set<Piece> group = new HashSet<>();
-        findGroup(piece, group);
-        group.forEach(p -> p.checkedForCapture = true); // Mark as processed
+/** Makes {@code snapshot} the state to draw and repaints what changed; from any thread. */
+void show(GameSnapshot snapshot) {
+    shown = snapshot;
+    queueRepaint();
+}
 
-        System.out.println("Capturing group of size " + group.size() + " at (" + 
-                       piece.col + "," + piece.row + ")");
+/** Hands the position to {@code controller}'s game thread, or back to the Swing thread with null. */
+void attach(GameController controller) {
+    this.controller = controller;
+}
 
-        for (Piece p : group) {
-            pieceArray[p.col][p.row] = null;
-            if (p.isWhite) {
-                capturedByBlack++;
-            } else {
-                capturedByWhite++;
-            }
+/** The controller running this board's game, or null when moves are made on the Swing thread. */
+public GameController getController() {
+    return controller;
 }
-        group.forEach(p -> updateNeighborLiberties(p.col, p.row));
-    }
 
-    private void removeGroupRecursive(Piece piece, Set<Piece> group) {
-        if (group.contains(piece)) {
+private void queueRepaint() {
+    synchronized (dirtyLock) {
+        if (repaintQueued) {
             return;
         }
-        group.add(piece);
+        repaintQueued = true;
+    }
+    SwingUtilities.invokeLater(this::repaintDirty);
+}
 
-        ArrayList<Piece> sameColorNeighbors = getSameColorNeighbors(piece);
-        for (Piece neighbor : sameColorNeighbors) {
-            removeGroupRecursive(neighbor, group);
-        }
+private void repaintDirty() {
+    if (controller == null) {
+        shown = snapshot();
     }
-    
-    private void updateLiberties() {
-        for (int i = 0; i < cols; i++) {
-            for (int j = 0; j < rows; j++) {
-                if (pieceArray[i][j] != null) {
-                    pieceArray[i][j].liberties = calculateLiberties(pieceArray[i][j]);
-                }
-            }
-        }
+    boolean all;
+    synchronized (dirtyLock) {
+        all = dirtyAll;
+        dirtyAll = false;
     }
-    
-    private int calculateLiberties(Piece piece) {
-        int libertyCount = 0;
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        for (int[] dir : directions) {
-            int newCol = piece.col + dir[0];
-            int newRow = piece.row + dir[1];
-            if (isValidPosition(newCol, newRow) && pieceArray[newCol][newRow] == null) {
-                libertyCount++;
-            }
+    Rectangle dirty = takeDirtyRegion();
+    if (all) {
+        repaint();
+    } else if (dirty != null) {
+        repaint(dirty);
+    }
+}
+
+/** Area covering every intersection changed since the last call, or null; clears it. */
+Rectangle takeDirtyRegion() {
+    synchronized (dirtyLock) {
+        repaintQueued = false;
+        if (dirtyMaxCol < 0) {
+            return null;
         }
-        return libertyCount;
+        Rectangle dirty = BoardRenderer.stoneBounds(dirtyMinCol, dirtyMinRow, tileSize, stoneSize);
+        dirty.add(BoardRenderer.stoneBounds(dirtyMaxCol, dirtyMaxRow, tileSize, stoneSize));
+        dirtyMaxCol = -1;
+        return dirty;
+    }
+}
+
+    public void captureOpponentStones(Piece placedPiece) {
+        position.captureOpponentStones(position.point(placedPiece.col, placedPiece.row));
     }
     
     public boolean isValidPosition(int col, int row) {
-        return col >= 0 && col < cols && row >= 0 && row < rows;
+        return position.isValidPosition(col, row);
     }
     
-    // Fixed getOpponentNeighbors method
     public ArrayList<Piece> getOpponentNeighbors(Piece piece) {
         ArrayList<Piece> opponents = new ArrayList<>();
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        
         for (int[] dir : directions) {
-            int newCol = piece.col + dir[0];
-            int newRow = piece.row + dir[1];
-            
-            // Changed bounds check to use cols/rows instead of cols+1/rows+1
-            if (newCol >= 0 && newCol < cols && 
-                newRow >= 0 && newRow < rows && 
-                pieceArray[newCol][newRow] != null &&
-                pieceArray[newCol][newRow].isWhite != piece.isWhite) {
-                
-                opponents.add(pieceArray[newCol][newRow]);
+            Piece neighbor = getNeighbor(piece, dir);
+            if (neighbor != null && neighbor.isWhite != piece.isWhite) {
+                opponents.add(neighbor);
             }
         }
         return opponents;
@@ -491,138 +340,38 @@ public void makeMove(Move move) throws InvalidMoveException {
 
     public ArrayList<Piece> getSameColorNeighbors(Piece piece) {
         ArrayList<Piece> sameColor = new ArrayList<>();
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
         for (int[] dir : directions) {
-            int newCol = piece.col + dir[0];
-            int newRow = piece.row + dir[1];
-            if (isValidPosition(newCol, newRow) && pieceArray[newCol][newRow] != null &&
-                pieceArray[newCol][newRow].isWhite == piece.isWhite) {
-                sameColor.add(pieceArray[newCol][newRow]);
+            Piece neighbor = getNeighbor(piece, dir);
+            if (neighbor != null && neighbor.isWhite == piece.isWhite) {
+                sameColor.add(neighbor);
             }
         }
         return sameColor;
     }
 
-    // @Override
-    // protected void paintComponent(Graphics g) {
-    //     super.paintComponent(g);
-    //     Graphics2D g2d = (Graphics2D) g;
-    //     g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    //     drawGrid(g2d);
-    //     drawStones(g2d);
-    // }
-
-    
-
-// private void drawGrid(Graphics2D g2d) {
-//     g2d.setColor(Color.BLACK);
-//     g2d.setStroke(new BasicStroke(2f));
-
-//     // Vertical lines
-//     for (int col = 0; col < cols; col++) {
-//         int x = col * tileSize;
-//         g2d.drawLine(x, 0, x, (rows-1) * tileSize);
-//     }
-
-//     // Horizontal lines
-//     for (int row = 0; row < rows; row++) {
-//         int y = row * tileSize;
-//         g2d.drawLine(0, y, (cols-1) * tileSize, y);
-//     }
-// }
+    private Piece getNeighbor(Piece piece, int[] dir) {
+        int newCol = piece.col + dir[0];
+        int newRow = piece.row + dir[1];
+        return isValidPosition(newCol, newRow) ? getPiece(newCol, newRow) : null;
+    }
 
     public boolean isWhiteTurn() {
         return (getTotalMoves() % 2 == 0);
     }
 
     public int getTotalMoves() {
-        int count = 0;
-        for (int i = 0; i < cols; i++) {
-            for (int j = 0; j < rows; j++) {
-                if (pieceArray[i][j] != null) {
-                    count++;
-                }
-            }
-        }
-        return count;
-    }
-
-
-private Color emptySurroundingColor(ArrayList<int[]> group) {
-        Set<Color> surroundingColors = new HashSet<>();
-        
-        for (int[] coords : group) {
-            int col = coords[0];
-            int row = coords[1];
-            
-            checkAdjacentColor(col-1, row, surroundingColors); // left
-            checkAdjacentColor(col+1, row, surroundingColors); // right
-            checkAdjacentColor(col, row-1, surroundingColors); // up
-            checkAdjacentColor(col, row+1, surroundingColors); // down
-        }
-        
-        return surroundingColors.size() == 1 ? surroundingColors.iterator().next() : null;
+        return position.getStoneCount();
     }
 
-    private void checkAdjacentColor(int col, int row, Set<Color> surroundingColors) {
-        if (isValidPosition(col, row) && pieceArray[col][row] != null) {
-            surroundingColors.add(pieceArray[col][row].color);
-        }
-    }
-
-// private boolean isValidPosition(int col, int row) {
-//     return col >= 0 && col < cols && row >= 0 && row < rows;
-// }
-
 
 public void incrementClicks() {
     this.clickCount++;
-    isBlackTurn = !isBlackTurn;
+    position.setToMove(GoPosition.opponent(position.getToMove()));
 }
 
 
-
-
-// public void calculateJapaneseScoring() {
-//     int blackTerritory = 0;
-//     int whiteTerritory = 0;
-//     boolean[][] visited = new boolean[cols][rows];
-    
-//     for (int col = 0; col < cols; col++) {
-//         for (int row = 0; row < rows; row++) {
-//             Color owner = determineTerritoryOwner(col, row, visited);
-//             if (owner == Color.BLACK) blackTerritory++;
-//             else if (owner == Color.WHITE) whiteTerritory++;
-//         }
-//     }
-    
-//     // Prisoners were already counted during removeGroup()
-//     this.blackScore = blackTerritory + this.getCapturedStones(true);
-//     this.whiteScore = whiteTerritory + this.getCapturedStones(false);
-// }
-
 public void calculateJapaneseScoring() {
-    boolean[][] visited = new boolean[cols][rows];
-    int blackTerritory = 0;
-    int whiteTerritory = 0;
-
-    // reset final scores
-    this.blackScore = 0;
-    this.whiteScore = 0;
-
-    for (int col = 0; col < cols; col++) {
-        for (int row = 0; row < rows; row++) {
-            TerritoryResult result = determineTerritoryOwner(col, row, visited);
-            if (result != null) {
-                if (result.owner == Color.BLACK) blackTerritory += result.size;
-                else if (result.owner == Color.WHITE) whiteTerritory += result.size;
-            }
-        }
-    }
-
-    // prisoners + territory
-    this.blackScore = blackTerritory + capturedByBlack;
-    this.whiteScore = whiteTerritory + capturedByWhite;
+    GameEvents.score(position);
 }
 
 public int getTileSize() {
@@ -631,11 +380,11 @@ public int getTileSize() {
 
 
 public int getBlackScore() {
-    return blackScore;
+    return position.getBlackScore();
 }
 
 public int getWhiteScore() {
-    return whiteScore;
+    return position.getWhiteScore();
 }
 
 public int getClickCount() {
@@ -643,19 +392,29 @@ public int getClickCount() {
 }
 
 public int getPassCount() {
-    return passCount;
+    return position.getPassCount();
 }
 
 public void setPassCount(int passCount) {
-    this.passCount = passCount;
+    position.setPassCount(passCount);
 }
 
 
+/** Stones are not stored as objects any more; this builds a view of the intersection. */
 public Piece getPiece(int col, int row) {
-    return pieceArray[col][row];
+    byte stone = position.getStone(col, row);
+    if (stone == GoPosition.EMPTY) {
+        return null;
+    }
+    boolean white = stone == GoPosition.WHITE;
+    return new Piece(this, col, row, white ? Color.WHITE : Color.BLACK, white);
 }
 public boolean isBlackTurn(){
-    return isBlackTurn;
+    return position.isBlackToMove();
+}
+
+public GoPosition getPosition() {
+    return position;
 }
 
 public int getCols() {
@@ -0,0 +1,204 @@
+package com.example.go;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Draws a {@link Board} from cached layers: the background, grid and star
+ * points go into one opaque image per tile size, and the black and white
+ * stones are antialiased sprites rendered once per stone size. A repaint
+ * then only copies images, one per stone, however busy the board is.
+ *
+ * Layers are rendered at device resolution (the scale of the target
+ * graphics' transform), so on a high-DPI screen they stay sharp and are
+ * copied pixel for pixel instead of being resampled.
+ */
+final class BoardRenderer {
+    private static final BasicStroke LINE = new BasicStroke(1.5f);
+    // Room around a sprite for the half of the border stroke outside the oval
+    private static final int PAD = 2;
+
+    private final int cols;
+    private final int rows;
+
+    private BufferedImage grid;
+    private int gridTile;
+    private double gridScale;
+    private Color gridBackground;
+
+    private BufferedImage blackStone;
+    private BufferedImage whiteStone;
+    // Width of the cross over a dead stone, sized with the sprites
+    private BasicStroke deadStroke;
+    private int spriteSize;
+    private double spriteScale;
+
+    BoardRenderer(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Paints the board with intersection (0, 0) at the origin of {@code g},
+     * drawing only the stones that overlap its clip.
+     */
+    void paint(Graphics2D g, GameSnapshot snapshot, int tileSize, int stoneSize, Color background) {
+        double scale = g.getTransform().getScaleX();
+        GraphicsConfiguration config = g.getDeviceConfiguration();
+        BufferedImage gridLayer = gridLayer(config, tileSize, scale, background);
+        g.drawImage(gridLayer, 0, 0, gridWidth(tileSize), gridHeight(tileSize), null);
+
+        stones(config, stoneSize, scale);
+        int sprite = stoneSize + 2 * PAD;
+        int offset = stoneSize / 2 + PAD;
+        // Only stones whose sprite reaches into the clip, so a small repaint stays small
+        int firstCol = 0;
+        int lastCol = cols - 1;
+        int firstRow = 0;
+        int lastRow = rows - 1;
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            firstCol = Math.max(firstCol, Math.floorDiv(clip.x - sprite + offset, tileSize) + 1);
+            lastCol = Math.min(lastCol, Math.floorDiv(clip.x + clip.width + offset, tileSize));
+            firstRow = Math.max(firstRow, Math.floorDiv(clip.y - sprite + offset, tileSize) + 1);
+            lastRow = Math.min(lastRow, Math.floorDiv(clip.y + clip.height + offset, tileSize));
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                byte stone = snapshot.getStone(col, row);
+                if (stone != GoPosition.EMPTY) {
+                    g.drawImage(stone == GoPosition.BLACK ? blackStone : whiteStone,
+                            col * tileSize - offset, row * tileSize - offset, sprite, sprite, null);
+                    if (snapshot.isDead(col, row)) {
+                        deadMark(g, col * tileSize, row * tileSize, stoneSize);
+                    }
+                }
+            }
+        }
+    }
+
+    /** A cross over a stone scored as dead, centred on (x, y). */
+    private void deadMark(Graphics2D g, int x, int y, int stoneSize) {
+        int arm = stoneSize / 4;
+        g.setColor(Color.RED);
+        g.setStroke(deadStroke);
+        g.drawLine(x - arm, y - arm, x + arm, y + arm);
+        g.drawLine(x - arm, y + arm, x + arm, y - arm);
+    }
+
+    BufferedImage gridLayer(GraphicsConfiguration config, int tileSize, double scale, Color background) {
+        if (grid != null && gridTile == tileSize && gridScale == scale && background.equals(gridBackground)) {
+            return grid;
+        }
+        int width = gridWidth(tileSize);
+        int height = gridHeight(tileSize);
+        BufferedImage image = image(config, width, height, scale, Transparency.OPAQUE);
+        Graphics2D g = prepare(image, scale);
+        try {
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+            g.setColor(Color.BLACK);
+            g.setStroke(LINE);
+            for (int col = 0; col < cols; col++) {
+                int x = col * tileSize;
+                g.drawLine(x, 0, x, (rows - 1) * tileSize);
+            }
+            for (int row = 0; row < rows; row++) {
+                int y = row * tileSize;
+                g.drawLine(0, y, (cols - 1) * tileSize, y);
+            }
+            if (cols == 19 && rows == 19) {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                int starSize = tileSize / 5;
+                int[] stars = {3, 9, 15};
+                for (int col : stars) {
+                    for (int row : stars) {
+                        g.fillOval(col * tileSize - starSize / 2, row * tileSize - starSize / 2, starSize, starSize);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        grid = image;
+        gridTile = tileSize;
+        gridScale = scale;
+        gridBackground = background;
+        return image;
+    }
+
+    BufferedImage stoneSprite(GraphicsConfiguration config, byte color, int stoneSize, double scale) {
+        stones(config, stoneSize, scale);
+        return color == GoPosition.BLACK ? blackStone : whiteStone;
+    }
+
+    private void stones(GraphicsConfiguration config, int stoneSize, double scale) {
+        if (blackStone != null && spriteSize == stoneSize && spriteScale == scale) {
+            return;
+        }
+        blackStone = sprite(config, Color.BLACK, stoneSize, scale);
+        whiteStone = sprite(config, Color.WHITE, stoneSize, scale);
+        deadStroke = new BasicStroke(Math.max(2f, stoneSize / 12f));
+        spriteSize = stoneSize;
+        spriteScale = scale;
+    }
+
+    private static BufferedImage sprite(GraphicsConfiguration config, Color fill, int stoneSize, double scale) {
+        int size = stoneSize + 2 * PAD;
+        BufferedImage image = image(config, size, size, scale, Transparency.TRANSLUCENT);
+        Graphics2D g = prepare(image, scale);
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(fill);
+            g.fillOval(PAD, PAD, stoneSize, stoneSize);
+            // Border for better visibility, on white stones especially
+            g.setColor(Color.BLACK);
+            g.setStroke(LINE);
+            g.drawOval(PAD, PAD, stoneSize, stoneSize);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /** Area the stone at (col, row) covers, in the coordinates {@link #paint} draws in. */
+    static Rectangle stoneBounds(int col, int row, int tileSize, int stoneSize) {
+        int offset = stoneSize / 2 + PAD;
+        int sprite = stoneSize + 2 * PAD;
+        return new Rectangle(col * tileSize - offset, row * tileSize - offset, sprite, sprite);
+    }
+
+    private int gridWidth(int tileSize) {
+        return (cols - 1) * tileSize + PAD;
+    }
+
+    private int gridHeight(int tileSize) {
+        return (rows - 1) * tileSize + PAD;
+    }
+
+    private static BufferedImage image(GraphicsConfiguration config, int width, int height, double scale,
+                                       int transparency) {
+        int w = Math.max(1, (int) Math.ceil(width * scale));
+        int h = Math.max(1, (int) Math.ceil(height * scale));
+        if (config != null) {
+            return config.createCompatibleImage(w, h, transparency);
+        }
+        return new BufferedImage(w, h, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static Graphics2D prepare(BufferedImage image, double scale) {
+        Graphics2D g = image.createGraphics();
+        g.scale(scale, scale);
+        return g;
+    }
+}
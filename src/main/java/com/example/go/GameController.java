@@ -0,0 +1,120 @@
+package com.example.go;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs a {@link Board}'s game off the Swing thread. Every change to the
+ * game is a command queued to one game thread, which is the only thread
+ * that touches the board's position while the controller is attached, so
+ * commands need no locks and run in the order they were given.
+ *
+ * After each command the game thread takes a {@link GameSnapshot} and
+ * publishes it: the board paints from it and snapshot listeners get it on
+ * the Swing thread. A slow command (scoring, a bot thinking) only delays
+ * the commands queued behind it; the UI keeps painting the last snapshot
+ * and handling input meanwhile.
+ */
+public class GameController implements AutoCloseable {
+    private final Board board;
+    private final ExecutorService game;
+    private final List<Consumer<GameSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private volatile GameSnapshot snapshot;
+
+    public GameController(Board board) {
+        this.board = board;
+        this.game = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "go-game");
+            t.setDaemon(true);
+            return t;
+        });
+        this.snapshot = board.snapshot();
+        board.attach(this);
+    }
+
+    /**
+     * Queues {@code command} to run on the game thread with the board. The
+     * future completes with the snapshot taken after it ran, or with the
+     * exception it threw (an {@code InvalidMoveException} for an illegal
+     * move); a failed command still publishes, since it may have changed
+     * something before failing.
+     */
+    public CompletableFuture<GameSnapshot> submit(Consumer<Board> command) {
+        CompletableFuture<GameSnapshot> done = new CompletableFuture<>();
+        game.execute(() -> {
+            try {
+                command.accept(board);
+                done.complete(publish());
+            } catch (Throwable t) {
+                publish();
+                done.completeExceptionally(t);
+            }
+        });
+        return done;
+    }
+
+    /** Plays a stone for the side to move at (col, row). */
+    public CompletableFuture<GameSnapshot> play(int col, int row) {
+        return submit(b -> b.makeMove(new Move(b, col, row)));
+    }
+
+    public CompletableFuture<GameSnapshot> pass() {
+        return submit(Board::pass);
+    }
+
+    public CompletableFuture<GameSnapshot> resign() {
+        return submit(Board::resign);
+    }
+
+    public CompletableFuture<GameSnapshot> score() {
+        return submit(Board::calculateJapaneseScoring);
+    }
+
+    public CompletableFuture<GameSnapshot> reset() {
+        return submit(Board::resetGameState);
+    }
+
+    /** The most recently published state. Safe to call from any thread. */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Adds a listener that gets every published snapshot on the Swing thread. */
+    public void addSnapshotListener(Consumer<GameSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeSnapshotListener(Consumer<GameSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    private GameSnapshot publish() {
+        GameSnapshot published = board.snapshot();
+        snapshot = published;
+        board.show(published);
+        if (!listeners.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                for (Consumer<GameSnapshot> listener : listeners) {
+                    listener.accept(published);
+                }
+            });
+        }
+        return published;
+    }
+
+    /**
+     * Stops the game thread after the commands already queued and hands the
+     * board back to direct use from the Swing thread.
+     */
+    @Override
+    public void close() {
+        game.execute(() -> board.attach(null));
+        game.shutdown();
+    }
+}
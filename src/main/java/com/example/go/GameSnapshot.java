@@ -0,0 +1,130 @@
+package com.example.go;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Immutable copy of what the view shows of a game: the stones, side to
+ * move, prisoners, pass count, last scores, who resigned and the stones
+ * scored as dead at the end of the game. Taken on the thread that
+ * owns the position and handed to the Swing thread, so painting never reads
+ * a position that another thread is changing.
+ */
+public final class GameSnapshot {
+    private final int cols;
+    private final int rows;
+    private final byte[] stones;
+    private final byte toMove;
+    private final int moveCount;
+    private final int passCount;
+    private final int capturedByBlack;
+    private final int capturedByWhite;
+    private final int blackScore;
+    private final int whiteScore;
+    // By col/row like the stones, or null when no stone was scored as dead
+    private final boolean[] dead;
+    private final int deadCount;
+    private final byte resigned;
+
+    private GameSnapshot(GoPosition position, int[] deadStones, byte resigned) {
+        this.cols = position.getCols();
+        this.rows = position.getRows();
+        this.stones = new byte[cols * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                stones[row * cols + col] = position.getStone(col, row);
+            }
+        }
+        this.toMove = position.getToMove();
+        this.moveCount = position.getMoveCount();
+        this.passCount = position.getPassCount();
+        this.capturedByBlack = position.getCapturedByBlack();
+        this.capturedByWhite = position.getCapturedByWhite();
+        this.blackScore = position.getBlackScore();
+        this.whiteScore = position.getWhiteScore();
+        this.dead = deadStones.length == 0 ? null : new boolean[cols * rows];
+        for (int p : deadStones) {
+            dead[position.row(p) * cols + position.col(p)] = true;
+        }
+        this.deadCount = deadStones.length;
+        this.resigned = resigned;
+    }
+
+    /** Copies {@code position}; call it on the thread that changes the position. */
+    public static GameSnapshot of(GoPosition position) {
+        return new GameSnapshot(position, new int[0], GoPosition.EMPTY);
+    }
+
+    /**
+     * Copies {@code position} with {@code deadStones}, points of
+     * {@code position}, marked as dead and {@code resigned} as the colour
+     * that resigned, or {@code EMPTY}.
+     */
+    public static GameSnapshot of(GoPosition position, int[] deadStones, byte resigned) {
+        return new GameSnapshot(position, deadStones, resigned);
+    }
+
+    public byte getStone(int col, int row) {
+        return stones[row * cols + col];
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public byte getToMove() {
+        return toMove;
+    }
+
+    public boolean isBlackToMove() {
+        return toMove == GoPosition.BLACK;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getPassCount() {
+        return passCount;
+    }
+
+    public int getCapturedByBlack() {
+        return capturedByBlack;
+    }
+
+    public int getCapturedByWhite() {
+        return capturedByWhite;
+    }
+
+    /** Black's score as of the last time the game was scored. */
+    public int getBlackScore() {
+        return blackScore;
+    }
+
+    /** White's score as of the last time the game was scored. */
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+
+    /** Whether the stone at (col, row) was scored as dead when the game ended. */
+    public boolean isDead(int col, int row) {
+        return dead != null && dead[row * cols + col];
+    }
+
+    public int getDeadStoneCount() {
+        return deadCount;
+    }
+
+    /** The colour that resigned, or {@code EMPTY} if nobody has. */
+    public byte getResigned() {
+        return resigned;
+    }
+
+    /** True once both players passed in a row or one resigned. */
+    public boolean isGameOver() {
+        return passCount >= 2 || resigned != GoPosition.EMPTY;
+    }
+}
@@ -3,6 +3,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import com.example.go.exception.InvalidMoveException;
 import com.example.go.Piece;
@@ -34,17 +35,24 @@ public void mousePressed(MouseEvent e) {
     col = Math.max(0, Math.min(board.getCols() - 1, col));
     row = Math.max(0, Math.min(board.getRows() - 1, row));
 
+    // With a controller the move is queued to the game thread, which checks it
+    GameController controller = board.getController();
+    if (controller != null) {
+        controller.play(col, row).whenComplete((snapshot, ex) -> {
+            if (ex instanceof InvalidMoveException) {
+                SwingUtilities.invokeLater(() -> ScreenManager.showPopup((InvalidMoveException) ex));
+            } else if (ex != null) {
+                // Not the player's fault, but the move did not happen and they should know
+                SwingUtilities.invokeLater(() -> ScreenManager.showError(ex));
+            }
+        });
+        return;
+    }
+
     // Check if the tile is not already occupied
     if (board.getPiece(col, row) ==null) {
-        System.out.println(board.isBlackTurn() ? 
-            "Black Stone placed at (" + col + ", " + row + ")" : 
-            "White Stone placed at (" + col + ", " + row + ")");
-        
         Move move = new Move(board, col, row);
         board.makeMove(move);
-        board.repaint();
-    } else {
-        System.out.println("Tile already occupied.");
     }
 }
 
@@ -7,6 +7,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 import com.example.go.ScreenManager;
+import com.example.go.gtp.GtpEngine;
+import com.example.go.metrics.GameMetrics;
 
 // public class Main {
 	
@@ -69,7 +71,17 @@ import com.example.go.ScreenManager;
 
 
 public class Main {
-    public static void main(String[] args) {
+    /**
+     * Starts the Swing game, or with {@code gtp} as the first argument the
+     * headless GTP engine, which never loads AWT. The remaining arguments go
+     * to {@link GtpEngine#main(String[])}.
+     */
+    public static void main(String[] args) throws java.io.IOException {
+        GameMetrics.installIfRequested();
+        if (args.length > 0 && args[0].equals("gtp")) {
+            GtpEngine.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         ScreenManager.initialize();
         ScreenManager.showMainMenu();
     }
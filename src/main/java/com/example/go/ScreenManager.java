@@ -2,10 +2,19 @@ package com.example.go;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.function.Consumer;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.search.OwnershipEstimator;
 
 public class ScreenManager {
     private static JFrame frame;
     private static GridBagConstraints gbc;
+    // Game thread of the board on screen, closed when the screen changes
+    private static GameController controller;
+    // Finds dead stones when both players pass, on the game thread; one per game on screen
+    private static OwnershipEstimator ownership;
+    private static final long DEAD_STONE_MILLIS = 1000;
 
      public static void initialize() {
         frame = new JFrame("Go Game");
@@ -20,6 +29,7 @@ public class ScreenManager {
     }
 
     public static void showMainMenu() {
+        closeController();
         frame.getContentPane().removeAll();
         frame.setLayout(new GridBagLayout());
         
@@ -35,6 +45,7 @@ public class ScreenManager {
     }
 
     public static void showGameScreen(Board board) {
+    GameController game = startGame(board);
     frame.getContentPane().removeAll();
     frame.setLayout(new BorderLayout());
     
@@ -53,10 +64,10 @@ public class ScreenManager {
     JButton menuButton = new JButton("Main Menu");
     
     // ✅ ADD THESE:
-    passButton.addActionListener(e -> board.pass());
+    passButton.addActionListener(e -> game.pass());
 
     resignButton.addActionListener(e -> {
-        board.resign();
+        game.resign();
         showMainMenu();
     });
     
@@ -70,7 +81,74 @@ public class ScreenManager {
     frame.revalidate();
     frame.repaint();
 }
+    /**
+     * Closes the game on screen and has {@code board}'s game run by a new
+     * controller, with dead stones estimated when both players pass.
+     */
+    static GameController startGame(Board board) {
+        closeController();
+        ownership = new OwnershipEstimator();
+        board.setDeadStoneEstimation(ownership, DEAD_STONE_MILLIS);
+        controller = new GameController(board);
+        controller.addSnapshotListener(new ResultDialog());
+        return controller;
+    }
+
+    static void closeController() {
+        if (controller != null) {
+            OwnershipEstimator estimator = ownership;
+            // Queued behind any pass still being scored
+            controller.submit(b -> estimator.close());
+            controller.close();
+            controller = null;
+            ownership = null;
+        }
+    }
+
+    /** How the game in {@code snapshot} ended, for the player; only for a finished game. */
+    static String resultMessage(GameSnapshot snapshot) {
+        if (snapshot.getResigned() != GoPosition.EMPTY) {
+            boolean black = snapshot.getResigned() == GoPosition.BLACK;
+            return (black ? "Black" : "White") + " resigns. " + (black ? "White" : "Black") + " wins.";
+        }
+        int black = snapshot.getBlackScore();
+        int white = snapshot.getWhiteScore();
+        String result = "Black " + black + ", White " + white + ": ";
+        if (black == white) {
+            result += "a draw.";
+        } else {
+            result += (black > white ? "Black" : "White") + " wins by " + Math.abs(black - white) + ".";
+        }
+        int dead = snapshot.getDeadStoneCount();
+        if (dead > 0) {
+            result += " " + dead + (dead == 1 ? " dead stone was" : " dead stones were") + " taken as prisoners.";
+        }
+        return result;
+    }
+
+    /** Tells the player the result once each time the game ends. */
+    private static final class ResultDialog implements Consumer<GameSnapshot> {
+        private boolean shown;
+
+        @Override
+        public void accept(GameSnapshot snapshot) {
+            if (!snapshot.isGameOver()) {
+                shown = false;
+            } else if (!shown) {
+                shown = true;
+                JOptionPane.showMessageDialog(frame, resultMessage(snapshot), "Game over",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
+
     public static void showPopup(Exception ex) {
         JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error", JOptionPane.WARNING_MESSAGE);
     }
+
+    /** Reports a failure that is not the player's doing, such as a command that crashed. */
+    public static void showError(Throwable t) {
+        String detail = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+        JOptionPane.showMessageDialog(frame, "Something went wrong: " + detail, "Error", JOptionPane.ERROR_MESSAGE);
+    }
 }
\ No newline at end of file
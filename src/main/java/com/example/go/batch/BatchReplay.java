@@ -0,0 +1,250 @@
+package com.example.go.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.SgfFormatException;
+import com.example.go.sgf.SgfGame;
+import com.example.go.sgf.SgfReader;
+import com.example.go.store.GameStore;
+
+/**
+ * Replays game collections in parallel: every move goes through the full
+ * legality checks of {@link GoPosition#play(int)} and the final position is
+ * scored with {@link GoPosition#calculateJapaneseScoring()}.
+ *
+ * The calling thread reads games and hands them to a fork-join pool in
+ * chunks, with a bounded number of chunks in flight so a huge corpus is
+ * never buffered in memory. Each worker thread keeps one position per board
+ * size and reuses it for every game it gets, so replay allocates nothing per
+ * move. Results go to the sink from the worker threads as each game
+ * finishes, so the sink must be thread safe ({@link CsvResultSink} is).
+ */
+public class BatchReplay {
+    private static final int CHUNK_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private boolean superko = true;
+
+    // One reusable position per worker, replaced only when the board size changes
+    private final ThreadLocal<GoPosition[]> positions = ThreadLocal.withInitial(() -> new GoPosition[1]);
+
+    public BatchReplay() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchReplay(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Whether positional superko counts as illegal, as it does on {@code Board}.
+     * Turn it off for records played under rules with only simple ko.
+     */
+    public void setSuperkoEnabled(boolean superko) {
+        this.superko = superko;
+    }
+
+    public BatchStats run(Stream<SgfGame> games, Consumer<ReplayResult> sink) {
+        return run(games.iterator(), sink);
+    }
+
+    /**
+     * Replays every game from {@code games}, returning once all results have
+     * reached {@code sink}. A record that fails to parse gets an unreadable
+     * result and the run goes on. If reading fails any other way (an I/O
+     * error), the games already handed out still finish before the failure
+     * is thrown, so the sink is never called after this returns.
+     */
+    public BatchStats run(Iterator<SgfGame> games, Consumer<ReplayResult> sink) {
+        Run run = new Run(sink);
+        long index = 0;
+        RuntimeException readFailure = null;
+        boolean more = true;
+        while (more && readFailure == null && !run.failed()) {
+            SgfGame[] chunk = new SgfGame[CHUNK_SIZE];
+            // Parse errors by chunk slot, for records that are null in chunk
+            String[] errors = new String[CHUNK_SIZE];
+            int n = 0;
+            while (n < CHUNK_SIZE) {
+                try {
+                    if (!games.hasNext()) {
+                        more = false;
+                        break;
+                    }
+                    chunk[n] = games.next();
+                } catch (SgfFormatException e) {
+                    errors[n] = e.getMessage();
+                } catch (RuntimeException e) {
+                    readFailure = e;
+                    break;
+                }
+                n++;
+            }
+            if (n > 0) {
+                long first = index;
+                index += n;
+                run.submit(n, i -> chunk[i] == null
+                        ? ReplayResult.unreadable(first + i, errors[i])
+                        : replay(first + i, chunk[i]));
+            }
+        }
+        BatchStats stats;
+        try {
+            stats = run.finish(index);
+        } catch (RuntimeException | Error e) {
+            if (readFailure != null) {
+                e.addSuppressed(readFailure);
+            }
+            throw e;
+        }
+        if (readFailure != null) {
+            throw readFailure;
+        }
+        return stats;
+    }
+
+    /**
+     * Replays every game of a binary store. Workers decode their games
+     * straight from the mapped file, so nothing is parsed on the calling thread.
+     */
+    public BatchStats run(GameStore store, Consumer<ReplayResult> sink) {
+        Run run = new Run(sink);
+        int games = store.getGameCount();
+        for (int first = 0; first < games && !run.failed(); first += CHUNK_SIZE) {
+            int start = first;
+            run.submit(Math.min(CHUNK_SIZE, games - first), i -> replay(start + i, store));
+        }
+        return run.finish(games);
+    }
+
+    /** Bookkeeping for one run: bounded chunk submission, totals and the first failure. */
+    private final class Run {
+        private final Consumer<ReplayResult> sink;
+        private final long start = System.nanoTime();
+        private final int maxInFlight = pool.getParallelism() * 4;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final LongAdder illegal = new LongAdder();
+        private final LongAdder unreadable = new LongAdder();
+        private final LongAdder moves = new LongAdder();
+
+        Run(Consumer<ReplayResult> sink) {
+            this.sink = sink;
+        }
+
+        boolean failed() {
+            return failure.get() != null;
+        }
+
+        void submit(int count, IntFunction<ReplayResult> replayOne) {
+            inFlight.acquireUninterruptibly();
+            pool.execute(() -> {
+                try {
+                    for (int i = 0; i < count && !failed(); i++) {
+                        ReplayResult result = replayOne.apply(i);
+                        if (!result.isReadable()) {
+                            unreadable.increment();
+                        } else if (!result.isLegal()) {
+                            illegal.increment();
+                            moves.add(result.getIllegalMove());
+                        } else {
+                            moves.add(result.getMoveCount());
+                        }
+                        sink.accept(result);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        BatchStats finish(long games) {
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+            Throwable t = failure.get();
+            if (t instanceof RuntimeException) throw (RuntimeException) t;
+            if (t instanceof Error) throw (Error) t;
+            return new BatchStats(games, illegal.sum(), unreadable.sum(), moves.sum(), System.nanoTime() - start);
+        }
+    }
+
+    private ReplayResult replay(long index, SgfGame game) {
+        GoPosition position = positionFor(game.getCols(), game.getRows());
+        int played = game.replay(position);
+        return result(index, position, game.getMoveCount(), played);
+    }
+
+    private ReplayResult replay(int index, GameStore store) {
+        GoPosition position = positionFor(store.getCols(index), store.getRows(index));
+        int played = store.replay(index, position);
+        return result(index, position, store.getMoveCount(index), played);
+    }
+
+    private GoPosition positionFor(int cols, int rows) {
+        GoPosition[] slot = positions.get();
+        GoPosition position = slot[0];
+        if (position == null || position.getCols() != cols || position.getRows() != rows) {
+            position = new GoPosition(cols, rows);
+            slot[0] = position;
+        }
+        position.setSuperkoEnabled(superko);
+        return position;
+    }
+
+    private static ReplayResult result(long index, GoPosition position, int moveCount, int played) {
+        position.calculateJapaneseScoring();
+        return new ReplayResult(index, position.getCols(), position.getRows(), moveCount,
+                played == moveCount ? -1 : played,
+                position.getBlackScore(), position.getWhiteScore(),
+                position.getCapturedByBlack(), position.getCapturedByWhite());
+    }
+
+    /**
+     * Replays every game under an SGF file or directory, or in a binary game
+     * store ({@code .gst}), and writes CSV results to standard output; the
+     * totals go to standard error.
+     * Usage: {@code BatchReplay <file-or-dir> [threads]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BatchReplay <file-or-dir> [threads]");
+            System.exit(2);
+        }
+        Path path = Paths.get(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (CsvResultSink sink = new CsvResultSink(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16))) {
+            BatchStats stats;
+            if (path.getFileName().toString().endsWith(".gst")) {
+                try (GameStore store = new GameStore(path)) {
+                    stats = new BatchReplay(pool).run(store, sink);
+                }
+            } else {
+                try (Stream<SgfGame> games = SgfReader.games(path)) {
+                    stats = new BatchReplay(pool).run(games, sink);
+                }
+            }
+            sink.flush();
+            System.err.println(stats);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.go.batch;
+
+/** Totals for one {@link BatchReplay#run} call. */
+public final class BatchStats {
+    private final long games;
+    private final long illegalGames;
+    private final long unreadableGames;
+    private final long moves;
+    private final long elapsedNanos;
+
+    BatchStats(long games, long illegalGames, long unreadableGames, long moves, long elapsedNanos) {
+        this.games = games;
+        this.illegalGames = illegalGames;
+        this.unreadableGames = unreadableGames;
+        this.moves = moves;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getIllegalGames() {
+        return illegalGames;
+    }
+
+    /** Records that could not be parsed; they count in {@link #getGames()} too. */
+    public long getUnreadableGames() {
+        return unreadableGames;
+    }
+
+    /** Moves actually played, i.e. up to the first illegal one in each game. */
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d illegal, %d unreadable), %d moves in %.1f s, %.0f games/s",
+                games, illegalGames, unreadableGames, moves, elapsedNanos / 1e9, getGamesPerSecond());
+    }
+}
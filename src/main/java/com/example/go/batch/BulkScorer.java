@@ -0,0 +1,272 @@
+package com.example.go.batch;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Scores large numbers of finished positions at once, without building a
+ * {@link GoPosition} for each. Positions of one size come in as a single
+ * byte array, {@code cols * rows} bytes each, row by row, holding
+ * {@link GoPosition#EMPTY}, {@link GoPosition#BLACK} or
+ * {@link GoPosition#WHITE}; {@link #stonesOf} writes a position out that way.
+ *
+ * The range is split over a fork-join pool. Each worker thread copies a
+ * position into its own bordered scratch board, reused from one position
+ * and call to the next, and flood fills the empty regions, so scoring
+ * allocates nothing per position. Results come back as two int arrays.
+ */
+public final class BulkScorer {
+    // Positions scored per task before it stops splitting
+    private static final int CHUNK_SIZE = 256;
+
+    /** How empty points and stones count. */
+    public enum Rule {
+        /**
+         * Territory plus prisoners, with the same territory rule as
+         * {@link GoPosition#calculateJapaneseScoring()}: an empty region
+         * counts when it borders one colour only and does not reach the edge.
+         */
+        JAPANESE,
+        /** Stones on the board plus empty regions bordered by one colour only; prisoners do not count. */
+        AREA
+    }
+
+    /** Scores of one {@link #score} call, by position index. */
+    public static final class Scores {
+        private final int[] black;
+        private final int[] white;
+
+        Scores(int[] black, int[] white) {
+            this.black = black;
+            this.white = white;
+        }
+
+        public int size() {
+            return black.length;
+        }
+
+        /** Black's score for every position; the array is not copied. */
+        public int[] getBlack() {
+            return black;
+        }
+
+        /** White's score for every position; the array is not copied. */
+        public int[] getWhite() {
+            return white;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public BulkScorer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BulkScorer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Scores every {@code cols} x {@code rows} position in {@code stones}.
+     * Prisoner counts, indexed like the positions, only matter under
+     * {@link Rule#JAPANESE}; either array may be null for none.
+     */
+    public Scores score(int cols, int rows, byte[] stones, int[] capturedByBlack, int[] capturedByWhite,
+                        Rule rule) {
+        if (cols < 1 || rows < 1 || cols > GoPosition.MAX_SIZE || rows > GoPosition.MAX_SIZE) {
+            throw new IllegalArgumentException("Bad board size " + cols + "x" + rows);
+        }
+        int points = cols * rows;
+        if (stones.length % points != 0) {
+            throw new IllegalArgumentException(stones.length + " stones is not a whole number of "
+                    + cols + "x" + rows + " positions");
+        }
+        int count = stones.length / points;
+        checkLength(capturedByBlack, count);
+        checkLength(capturedByWhite, count);
+        Scores scores = new Scores(new int[count], new int[count]);
+        pool.invoke(new Task(cols, rows, stones, capturedByBlack, capturedByWhite, rule, scores, 0, count));
+        return scores;
+    }
+
+    private static void checkLength(int[] prisoners, int count) {
+        if (prisoners != null && prisoners.length < count) {
+            throw new IllegalArgumentException("Prisoner counts for " + prisoners.length
+                    + " positions, need " + count);
+        }
+    }
+
+    /** Writes the stones of {@code position} into {@code into} at {@code offset}, in the layout {@link #score} reads. */
+    public static void stonesOf(GoPosition position, byte[] into, int offset) {
+        int cols = position.getCols();
+        for (int row = 0; row < position.getRows(); row++) {
+            for (int col = 0; col < cols; col++) {
+                into[offset + row * cols + col] = position.getStone(col, row);
+            }
+        }
+    }
+
+    /** Scores positions [from, to), splitting while the range is large. */
+    private final class Task extends RecursiveAction {
+        private final int cols;
+        private final int rows;
+        private final byte[] stones;
+        private final int[] capturedByBlack;
+        private final int[] capturedByWhite;
+        private final Rule rule;
+        private final Scores scores;
+        private final int from;
+        private final int to;
+
+        Task(int cols, int rows, byte[] stones, int[] capturedByBlack, int[] capturedByWhite, Rule rule,
+             Scores scores, int from, int to) {
+            this.cols = cols;
+            this.rows = rows;
+            this.stones = stones;
+            this.capturedByBlack = capturedByBlack;
+            this.capturedByWhite = capturedByWhite;
+            this.rule = rule;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Task(cols, rows, stones, capturedByBlack, capturedByWhite, rule, scores, from, mid),
+                        new Task(cols, rows, stones, capturedByBlack, capturedByWhite, rule, scores, mid, to));
+                return;
+            }
+            Scratch s = scratch.get();
+            s.resize(cols, rows);
+            int points = cols * rows;
+            for (int i = from; i < to; i++) {
+                s.load(stones, i * points);
+                s.score(rule == Rule.AREA);
+                if (rule == Rule.AREA) {
+                    scores.black[i] = s.blackTerritory + s.blackStones;
+                    scores.white[i] = s.whiteTerritory + s.whiteStones;
+                } else {
+                    scores.black[i] = s.blackTerritory + (capturedByBlack == null ? 0 : capturedByBlack[i]);
+                    scores.white[i] = s.whiteTerritory + (capturedByWhite == null ? 0 : capturedByWhite[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * One worker's board and flood fill buffers, laid out like
+     * {@code GoPosition}'s: a one point border shared between rows, so
+     * neighbour lookups need no bounds checks.
+     */
+    private static final class Scratch {
+        private int cols;
+        private int rows;
+        private int stride;
+        private byte[] board = new byte[0];
+        private int[] mark = new int[0];
+        private int[] stack = new int[0];
+        private int stamp;
+        private final int[] offsets = new int[4];
+
+        int blackStones;
+        int whiteStones;
+        int blackTerritory;
+        int whiteTerritory;
+
+        void resize(int cols, int rows) {
+            if (cols == this.cols && rows == this.rows) {
+                return;
+            }
+            this.cols = cols;
+            this.rows = rows;
+            this.stride = cols + 1;
+            int length = (rows + 2) * stride + 1;
+            board = new byte[length];
+            Arrays.fill(board, GoPosition.BORDER);
+            mark = new int[length];
+            stack = new int[cols * rows];
+            stamp = 0;
+            offsets[0] = -1;
+            offsets[1] = 1;
+            offsets[2] = -stride;
+            offsets[3] = stride;
+        }
+
+        /** Copies the position at {@code offset} in and counts its stones. */
+        void load(byte[] stones, int offset) {
+            int black = 0;
+            int white = 0;
+            for (int row = 0; row < rows; row++) {
+                int p = (row + 1) * stride + 1;
+                int i = offset + row * cols;
+                for (int col = 0; col < cols; col++) {
+                    byte c = stones[i + col];
+                    if (c == GoPosition.BLACK) {
+                        black++;
+                    } else if (c == GoPosition.WHITE) {
+                        white++;
+                    } else if (c != GoPosition.EMPTY) {
+                        throw new IllegalArgumentException("Not a stone colour at " + (i + col) + ": " + c);
+                    }
+                    board[p + col] = c;
+                }
+            }
+            blackStones = black;
+            whiteStones = white;
+        }
+
+        /** Counts each colour's territory; edge regions count only under area rules. */
+        void score(boolean area) {
+            if (++stamp == 0) {
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+            int black = 0;
+            int white = 0;
+            for (int p = stride; p < board.length - stride; p++) {
+                if (board[p] != GoPosition.EMPTY || mark[p] == stamp) continue;
+
+                boolean touchesEdge = false;
+                boolean bordersBlack = false;
+                boolean bordersWhite = false;
+                int regionSize = 0;
+                int top = 0;
+                stack[top++] = p;
+                mark[p] = stamp;
+                while (top > 0) {
+                    int cur = stack[--top];
+                    regionSize++;
+                    for (int k = 0; k < 4; k++) {
+                        int n = cur + offsets[k];
+                        byte c = board[n];
+                        if (c == GoPosition.EMPTY) {
+                            if (mark[n] != stamp) {
+                                mark[n] = stamp;
+                                stack[top++] = n;
+                            }
+                        } else if (c == GoPosition.BLACK) {
+                            bordersBlack = true;
+                        } else if (c == GoPosition.WHITE) {
+                            bordersWhite = true;
+                        } else {
+                            touchesEdge = true;
+                        }
+                    }
+                }
+
+                if ((touchesEdge && !area) || bordersBlack == bordersWhite) continue;
+                if (bordersBlack) black += regionSize;
+                else white += regionSize;
+            }
+            blackTerritory = black;
+            whiteTerritory = white;
+        }
+    }
+}
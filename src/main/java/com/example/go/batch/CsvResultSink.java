@@ -0,0 +1,62 @@
+package com.example.go.batch;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Writes one CSV line per {@link ReplayResult}. Safe to share between
+ * replay workers: each line is written under the sink's lock. The last
+ * column is empty unless the record could not be parsed, and then holds
+ * the quoted parse error.
+ */
+public final class CsvResultSink implements Consumer<ReplayResult>, Flushable, Closeable {
+    public static final String HEADER =
+            "game,cols,rows,moves,illegal_move,black_score,white_score,captured_by_black,captured_by_white,error";
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(64);
+
+    public CsvResultSink(Writer out) throws IOException {
+        this.out = out;
+        out.write(HEADER);
+        out.write('\n');
+    }
+
+    @Override
+    public synchronized void accept(ReplayResult r) {
+        line.setLength(0);
+        line.append(r.getGameIndex()).append(',')
+                .append(r.getCols()).append(',')
+                .append(r.getRows()).append(',')
+                .append(r.getMoveCount()).append(',')
+                .append(r.getIllegalMove()).append(',')
+                .append(r.getBlackScore()).append(',')
+                .append(r.getWhiteScore()).append(',')
+                .append(r.getCapturedByBlack()).append(',')
+                .append(r.getCapturedByWhite()).append(',');
+        if (!r.isReadable()) {
+            String error = r.getError().replace('\n', ' ').replace("\"", "\"\"");
+            line.append('"').append(error).append('"');
+        }
+        line.append('\n');
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
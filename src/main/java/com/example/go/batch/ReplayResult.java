@@ -0,0 +1,107 @@
+package com.example.go.batch;
+
+/**
+ * Outcome of replaying one game: how far it got, and the score and
+ * prisoners of the position it reached, or why the record could not be read
+ * at all. Results arrive in completion order, so {@link #getGameIndex()}
+ * ties each back to its place in the input.
+ */
+public final class ReplayResult {
+    private final long gameIndex;
+    private final int cols;
+    private final int rows;
+    private final int moveCount;
+    private final int illegalMove;
+    private final int blackScore;
+    private final int whiteScore;
+    private final int capturedByBlack;
+    private final int capturedByWhite;
+    private final String error;
+
+    ReplayResult(long gameIndex, int cols, int rows, int moveCount, int illegalMove,
+                 int blackScore, int whiteScore, int capturedByBlack, int capturedByWhite) {
+        this.gameIndex = gameIndex;
+        this.cols = cols;
+        this.rows = rows;
+        this.moveCount = moveCount;
+        this.illegalMove = illegalMove;
+        this.blackScore = blackScore;
+        this.whiteScore = whiteScore;
+        this.capturedByBlack = capturedByBlack;
+        this.capturedByWhite = capturedByWhite;
+        this.error = null;
+    }
+
+    private ReplayResult(long gameIndex, String error) {
+        this.gameIndex = gameIndex;
+        this.cols = 0;
+        this.rows = 0;
+        this.moveCount = 0;
+        this.illegalMove = -1;
+        this.blackScore = 0;
+        this.whiteScore = 0;
+        this.capturedByBlack = 0;
+        this.capturedByWhite = 0;
+        this.error = error;
+    }
+
+    /** A record that could not be parsed; nothing was replayed. */
+    static ReplayResult unreadable(long gameIndex, String error) {
+        return new ReplayResult(gameIndex, error);
+    }
+
+    /** Position of the game in the input, counting from 0. */
+    public long getGameIndex() {
+        return gameIndex;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /** Moves in the record's main line. */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** True if the record was read and every move in it was legal. */
+    public boolean isLegal() {
+        return illegalMove < 0 && error == null;
+    }
+
+    /** False if the record could not be parsed; see {@link #getError()}. */
+    public boolean isReadable() {
+        return error == null;
+    }
+
+    /** Why the record could not be parsed, or null if it was. */
+    public String getError() {
+        return error;
+    }
+
+    /** Index of the first illegal move, or -1 if every move was legal. */
+    public int getIllegalMove() {
+        return illegalMove;
+    }
+
+    /** Japanese score of the last legal position: territory plus prisoners. */
+    public int getBlackScore() {
+        return blackScore;
+    }
+
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+
+    public int getCapturedByBlack() {
+        return capturedByBlack;
+    }
+
+    public int getCapturedByWhite() {
+        return capturedByWhite;
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.go.engine;
+
+/**
+ * Bitboard Go position: black and white stones as {@code long[]} bitsets,
+ * row by row with one padding column, so a point is bit
+ * {@code row * (cols + 1) + col}. The padding column is never on the board,
+ * which keeps east/west shifts from wrapping into the next row.
+ *
+ * Whole-group work is done with set operations instead of walking points:
+ * a group is grown by repeated dilation (the set OR-ed with itself shifted by
+ * one column and one row in each direction) masked to stones of its colour,
+ * and its liberties are the popcount of one more dilation masked to empty
+ * points. Territory is found the same way with the empty set as the mask,
+ * growing from all black, all white and all edge points at once.
+ * A 19x19 board is six words per colour, so a position copies in a few
+ * dozen word moves, which makes it cheap to hand a private copy to every
+ * search thread.
+ *
+ * Rules match {@link GoPosition} with superko off: captures, suicide and
+ * simple ko, plus the same Japanese territory rule. There is no undo stack;
+ * copy the position instead.
+ */
+public final class BitBoard {
+    private final int cols;
+    private final int rows;
+    private final int stride;
+    private final int bits;
+    private final int words;
+
+    private final long[] black;
+    private final long[] white;
+    private final long[] onBoard;
+    private final long[] edge;
+
+    private byte toMove;
+    private int passCount;
+    private int koPoint;
+    private int capturedByBlack;
+    private int capturedByWhite;
+    private int blackScore;
+    private int whiteScore;
+
+    // Scratch sets so rules and scoring never allocate
+    private final long[] group;
+    private final long[] grow;
+    private final long[] libs;
+    private final long[] seen;
+    private final long[] reach;
+
+    public BitBoard(int cols, int rows) {
+        if (cols < 1 || rows < 1 || cols > GoPosition.MAX_SIZE || rows > GoPosition.MAX_SIZE) {
+            throw new IllegalArgumentException("Board must be between 1x1 and "
+                    + GoPosition.MAX_SIZE + "x" + GoPosition.MAX_SIZE);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.stride = cols + 1;
+        this.bits = rows * stride;
+        this.words = (bits + 63) >>> 6;
+        this.black = new long[words];
+        this.white = new long[words];
+        this.onBoard = new long[words];
+        this.edge = new long[words];
+        this.group = new long[words];
+        this.grow = new long[words];
+        this.libs = new long[words];
+        this.seen = new long[words];
+        this.reach = new long[words];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int b = bit(col, row);
+                onBoard[b >>> 6] |= 1L << b;
+                if (row == 0 || col == 0 || row == rows - 1 || col == cols - 1) {
+                    edge[b >>> 6] |= 1L << b;
+                }
+            }
+        }
+        reset();
+    }
+
+    /** A bitboard with the same stones, side to move, captures and ko point as {@code position}. */
+    public static BitBoard of(GoPosition position) {
+        BitBoard board = new BitBoard(position.getCols(), position.getRows());
+        for (int row = 0; row < board.rows; row++) {
+            for (int col = 0; col < board.cols; col++) {
+                byte c = position.getStone(col, row);
+                if (c != GoPosition.EMPTY) {
+                    board.setStone(col, row, c);
+                }
+            }
+        }
+        board.toMove = position.getToMove();
+        board.passCount = position.getPassCount();
+        board.capturedByBlack = position.getCapturedByBlack();
+        board.capturedByWhite = position.getCapturedByWhite();
+        int ko = position.getKoPoint();
+        board.koPoint = ko == GoPosition.PASS ? -1 : board.bit(position.col(ko), position.row(ko));
+        return board;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(black, 0);
+        java.util.Arrays.fill(white, 0);
+        toMove = GoPosition.BLACK;
+        passCount = 0;
+        koPoint = -1;
+        capturedByBlack = 0;
+        capturedByWhite = 0;
+        blackScore = 0;
+        whiteScore = 0;
+    }
+
+    /** Makes this an exact copy of {@code other}, which must have the same dimensions. */
+    public void copyFrom(BitBoard other) {
+        if (other.cols != cols || other.rows != rows) {
+            throw new IllegalArgumentException("Cannot copy a " + other.cols + "x" + other.rows
+                    + " board into a " + cols + "x" + rows + " one");
+        }
+        System.arraycopy(other.black, 0, black, 0, words);
+        System.arraycopy(other.white, 0, white, 0, words);
+        toMove = other.toMove;
+        passCount = other.passCount;
+        koPoint = other.koPoint;
+        capturedByBlack = other.capturedByBlack;
+        capturedByWhite = other.capturedByWhite;
+        blackScore = other.blackScore;
+        whiteScore = other.whiteScore;
+    }
+
+    // ---------- Coordinates ----------
+
+    public int bit(int col, int row) {
+        return row * stride + col;
+    }
+
+    public boolean isValidPosition(int col, int row) {
+        return col >= 0 && row >= 0 && col < cols && row < rows;
+    }
+
+    private static boolean test(long[] set, int b) {
+        return (set[b >>> 6] & (1L << b)) != 0;
+    }
+
+    // ---------- Rules ----------
+
+    public byte get(int col, int row) {
+        int b = bit(col, row);
+        if (test(black, b)) return GoPosition.BLACK;
+        if (test(white, b)) return GoPosition.WHITE;
+        return GoPosition.EMPTY;
+    }
+
+    /** Places or clears a stone without any capture or turn logic, for loading positions. */
+    public void setStone(int col, int row, byte color) {
+        if (!isValidPosition(col, row)) {
+            throw new IllegalArgumentException("Position out of bounds: (" + col + "," + row + ")");
+        }
+        int b = bit(col, row);
+        long m = 1L << b;
+        black[b >>> 6] &= ~m;
+        white[b >>> 6] &= ~m;
+        if (color == GoPosition.BLACK) {
+            black[b >>> 6] |= m;
+        } else if (color == GoPosition.WHITE) {
+            white[b >>> 6] |= m;
+        } else if (color != GoPosition.EMPTY) {
+            throw new IllegalArgumentException("Not a stone colour: " + color);
+        }
+        koPoint = -1;
+    }
+
+    /**
+     * Plays the side to move at (col, row). Returns false and leaves the
+     * board untouched if the point is off the board, occupied, suicide or a
+     * simple ko recapture.
+     */
+    public boolean play(int col, int row) {
+        if (!isValidPosition(col, row)) return false;
+        int b = bit(col, row);
+        if (test(black, b) || test(white, b) || b == koPoint) return false;
+
+        long[] own = toMove == GoPosition.BLACK ? black : white;
+        long[] opp = toMove == GoPosition.BLACK ? white : black;
+        long m = 1L << b;
+        own[b >>> 6] |= m;
+
+        // Each opposing group next to the stone is grown once; seen holds those already checked
+        java.util.Arrays.fill(seen, 0);
+        int captured = 0;
+        captured += captureAt(b - 1, col > 0, opp, own);
+        captured += captureAt(b + 1, col < cols - 1, opp, own);
+        captured += captureAt(b - stride, row > 0, opp, own);
+        captured += captureAt(b + stride, row < rows - 1, opp, own);
+
+        int size = floodFill(b, own, group);
+        int liberties = liberties(group, own, opp);
+        if (captured == 0 && liberties == 0) {
+            own[b >>> 6] &= ~m;
+            return false;
+        }
+
+        if (toMove == GoPosition.BLACK) {
+            capturedByBlack += captured;
+        } else {
+            capturedByWhite += captured;
+        }
+        koPoint = -1;
+        if (captured == 1 && size == 1 && liberties == 1) {
+            koPoint = firstBit(libs);
+        }
+        toMove = GoPosition.opponent(toMove);
+        passCount = 0;
+        return true;
+    }
+
+    public void pass() {
+        passCount++;
+        koPoint = -1;
+        toMove = GoPosition.opponent(toMove);
+    }
+
+    private int captureAt(int b, boolean inside, long[] opp, long[] own) {
+        if (!inside || !test(opp, b) || test(seen, b)) return 0;
+        floodFill(b, opp, group);
+        for (int i = 0; i < words; i++) {
+            seen[i] |= group[i];
+        }
+        if (liberties(group, own, opp) != 0) return 0;
+        int size = 0;
+        for (int i = 0; i < words; i++) {
+            opp[i] &= ~group[i];
+            size += Long.bitCount(group[i]);
+        }
+        return size;
+    }
+
+    /** Stones in the group at (col, row), 0 for an empty point. */
+    public int getGroupSize(int col, int row) {
+        int b = bit(col, row);
+        long[] own = test(black, b) ? black : test(white, b) ? white : null;
+        return own == null ? 0 : floodFill(b, own, group);
+    }
+
+    /** Exact liberty count of the group at (col, row), 0 for an empty point. */
+    public int getLiberties(int col, int row) {
+        int b = bit(col, row);
+        long[] own = test(black, b) ? black : test(white, b) ? white : null;
+        if (own == null) return 0;
+        floodFill(b, own, group);
+        return liberties(group, black, white);
+    }
+
+    /** Liberties of {@code set}, left in {@link #libs}; {@code a} and {@code b} are the two stone colours. */
+    private int liberties(long[] set, long[] a, long[] b) {
+        dilate(set, libs);
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            libs[i] &= ~(a[i] | b[i]);
+            count += Long.bitCount(libs[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Grows bit {@code start} to the connected part of {@code within} that
+     * contains it, into {@code out}, and returns its size.
+     */
+    private int floodFill(int start, long[] within, long[] out) {
+        java.util.Arrays.fill(out, 0);
+        out[start >>> 6] = 1L << start;
+        grow(out, within);
+        int size = 0;
+        for (int i = 0; i < words; i++) {
+            size += Long.bitCount(out[i]);
+        }
+        return size;
+    }
+
+    /**
+     * Clips {@code set} to {@code within}, then dilates it inside
+     * {@code within} until it stops changing, i.e. to every point of
+     * {@code within} connected to one of the starting points.
+     */
+    private void grow(long[] set, long[] within) {
+        for (int i = 0; i < words; i++) {
+            set[i] &= within[i];
+        }
+        while (true) {
+            dilate(set, grow);
+            boolean changed = false;
+            for (int i = 0; i < words; i++) {
+                long g = grow[i] & within[i];
+                if (g != set[i]) {
+                    set[i] = g;
+                    changed = true;
+                }
+            }
+            if (!changed) return;
+        }
+    }
+
+    /** {@code dst} = {@code src} plus its four neighbours, clipped to the board. */
+    private void dilate(long[] src, long[] dst) {
+        int s = stride;
+        long prev = 0;
+        for (int i = 0; i < words; i++) {
+            long w = src[i];
+            long next = i + 1 < words ? src[i + 1] : 0;
+            long d = w
+                    | (w << 1) | (prev >>> 63)
+                    | (w >>> 1) | (next << 63)
+                    | (w << s) | (prev >>> (64 - s))
+                    | (w >>> s) | (next << (64 - s));
+            dst[i] = d & onBoard[i];
+            prev = w;
+        }
+    }
+
+    private int firstBit(long[] set) {
+        for (int i = 0; i < words; i++) {
+            if (set[i] != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(set[i]);
+            }
+        }
+        return -1;
+    }
+
+    // ---------- Scoring ----------
+
+    /**
+     * Japanese scoring with the same rule as {@link GoPosition#calculateJapaneseScoring()}:
+     * an empty region counts for a colour when only that colour borders it
+     * and it does not reach the board edge. Rather than filling region by
+     * region, the empty points reachable from black, from white and from the
+     * edge are each grown at once from all their seeds; black territory is
+     * then reachable from black and from nothing else, and likewise for white.
+     */
+    public void calculateJapaneseScoring() {
+        long[] empty = seen;
+        long[] fromEdge = libs;
+        long[] fromBlack = group;
+        long[] fromWhite = reach;
+        for (int i = 0; i < words; i++) {
+            empty[i] = onBoard[i] & ~(black[i] | white[i]);
+            fromEdge[i] = edge[i];
+        }
+        dilate(black, fromBlack);
+        dilate(white, fromWhite);
+        grow(fromEdge, empty);
+        grow(fromBlack, empty);
+        grow(fromWhite, empty);
+
+        int blackTerritory = 0;
+        int whiteTerritory = 0;
+        for (int i = 0; i < words; i++) {
+            long neutral = fromEdge[i] | (fromBlack[i] & fromWhite[i]);
+            blackTerritory += Long.bitCount(fromBlack[i] & ~neutral);
+            whiteTerritory += Long.bitCount(fromWhite[i] & ~neutral);
+        }
+        blackScore = blackTerritory + capturedByBlack;
+        whiteScore = whiteTerritory + capturedByWhite;
+    }
+
+    // ---------- Accessors ----------
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public byte getToMove() {
+        return toMove;
+    }
+
+    public int getPassCount() {
+        return passCount;
+    }
+
+    public int getCapturedByBlack() {
+        return capturedByBlack;
+    }
+
+    public int getCapturedByWhite() {
+        return capturedByWhite;
+    }
+
+    public int getBlackScore() {
+        return blackScore;
+    }
+
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+
+    public int getStoneCount() {
+        int n = 0;
+        for (int i = 0; i < words; i++) {
+            n += Long.bitCount(black[i]) + Long.bitCount(white[i]);
+        }
+        return n;
+    }
+}
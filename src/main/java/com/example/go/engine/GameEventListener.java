@@ -0,0 +1,34 @@
+package com.example.go.engine;
+
+/**
+ * Hears what happens in games being played, for metrics, logging or
+ * dashboards; register one with {@link GameEvents#addListener}. Every method
+ * does nothing by default. Callbacks run on the thread that played the
+ * game, inside the call that caused them, so they should be quick and must
+ * not change the position.
+ *
+ * Only moves made through {@link GoPosition#makeMove} count as played,
+ * so search playouts, which use {@link GoPosition#play}, stay silent.
+ */
+public interface GameEventListener {
+    /**
+     * {@code color} played at {@code point}, taking {@code captured} stones;
+     * the move took {@code nanos} to check and play.
+     */
+    default void movePlayed(GoPosition position, int point, byte color, int captured, long nanos) {
+    }
+
+    /** A move at (col, row) was refused for {@code reason}. */
+    default void moveRejected(GoPosition position, int col, int row, String reason) {
+    }
+
+    default void passed(GoPosition position, byte color) {
+    }
+
+    default void resigned(GoPosition position, byte color) {
+    }
+
+    /** The position was scored, which took {@code nanos}. */
+    default void scored(GoPosition position, int blackScore, int whiteScore, long nanos) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.go.engine;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide registry of {@link GameEventListener}s. With none registered,
+ * the default, reporting an event is one read of a null field and no clock
+ * is read, so the move path costs the same as without instrumentation.
+ *
+ * Moves are reported by {@link GoPosition#makeMove} itself; front ends
+ * report passes, resigns and scoring through the static methods here, so
+ * that a pass or score inside a search playout is not counted as a game's.
+ */
+public final class GameEvents {
+    private static final CopyOnWriteArrayList<GameEventListener> registered = new CopyOnWriteArrayList<>();
+    // Null, the single listener, or a Multicaster over all of them
+    static volatile GameEventListener listener;
+
+    private GameEvents() {
+    }
+
+    public static synchronized void addListener(GameEventListener l) {
+        registered.add(l);
+        update();
+    }
+
+    public static synchronized void removeListener(GameEventListener l) {
+        registered.remove(l);
+        update();
+    }
+
+    private static void update() {
+        switch (registered.size()) {
+            case 0:
+                listener = null;
+                break;
+            case 1:
+                listener = registered.get(0);
+                break;
+            default:
+                listener = new Multicaster(registered.toArray(new GameEventListener[0]));
+        }
+    }
+
+    // ---------- Reporting ----------
+
+    /** Reports that {@code color} passed in {@code position}. */
+    public static void passed(GoPosition position, byte color) {
+        GameEventListener l = listener;
+        if (l != null) {
+            l.passed(position, color);
+        }
+    }
+
+    /** Reports that {@code color} resigned in {@code position}. */
+    public static void resigned(GoPosition position, byte color) {
+        GameEventListener l = listener;
+        if (l != null) {
+            l.resigned(position, color);
+        }
+    }
+
+    /**
+     * Scores {@code position} with {@link GoPosition#calculateJapaneseScoring()}
+     * and reports it, timed when anyone is listening.
+     */
+    public static void score(GoPosition position) {
+        GameEventListener l = listener;
+        if (l == null) {
+            position.calculateJapaneseScoring();
+            return;
+        }
+        long start = System.nanoTime();
+        position.calculateJapaneseScoring();
+        l.scored(position, position.getBlackScore(), position.getWhiteScore(), System.nanoTime() - start);
+    }
+
+    /** As {@link #score(GoPosition)}, with {@code deadStones} scored as dead. */
+    public static void score(GoPosition position, int[] deadStones) {
+        GameEventListener l = listener;
+        if (l == null) {
+            position.calculateJapaneseScoring(deadStones);
+            return;
+        }
+        long start = System.nanoTime();
+        position.calculateJapaneseScoring(deadStones);
+        l.scored(position, position.getBlackScore(), position.getWhiteScore(), System.nanoTime() - start);
+    }
+
+    /** Forwards each event to every listener, in registration order. */
+    private static final class Multicaster implements GameEventListener {
+        private final GameEventListener[] listeners;
+
+        Multicaster(GameEventListener[] listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void movePlayed(GoPosition position, int point, byte color, int captured, long nanos) {
+            for (GameEventListener l : listeners) {
+                l.movePlayed(position, point, color, captured, nanos);
+            }
+        }
+
+        @Override
+        public void moveRejected(GoPosition position, int col, int row, String reason) {
+            for (GameEventListener l : listeners) {
+                l.moveRejected(position, col, row, reason);
+            }
+        }
+
+        @Override
+        public void passed(GoPosition position, byte color) {
+            for (GameEventListener l : listeners) {
+                l.passed(position, color);
+            }
+        }
+
+        @Override
+        public void resigned(GoPosition position, byte color) {
+            for (GameEventListener l : listeners) {
+                l.resigned(position, color);
+            }
+        }
+
+        @Override
+        public void scored(GoPosition position, int blackScore, int whiteScore, long nanos) {
+            for (GameEventListener l : listeners) {
+                l.scored(position, blackScore, whiteScore, nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,1352 @@
+package com.example.go.engine;
+
+import com.example.go.exception.InvalidMoveException;
+
+/**
+ * Headless Go rules engine. The board is a primitive byte array with a one
+ * point sentinel border, so neighbour lookups never need bounds checks and
+ * nothing in here touches AWT or Swing.
+ *
+ * Points are indices into that array. Use {@link #point(int, int)} to turn a
+ * (col, row) intersection into a point and {@link #col(int)} / {@link #row(int)}
+ * to go back.
+ *
+ * Stones are kept in chains (connected groups) that are updated as stones are
+ * placed and captured. Each chain is a circular linked list of its stones plus
+ * pseudo-liberty counters: every (stone, empty neighbour) pair counts once, and
+ * the sum and sum of squares of those liberty points are kept alongside. A
+ * chain has no liberties when the count is zero, and is in atari exactly when
+ * all counted liberties are the same point, i.e. sum^2 == count * sumSq. Both
+ * checks are O(1) and never walk the group.
+ *
+ * A 64-bit Zobrist hash covering stones and side to move is updated with
+ * every placement, capture and pass. The board part of each position played
+ * is kept in a history set, so simple ko and positional superko are rejected
+ * with a hash lookup instead of comparing boards.
+ *
+ * Every move and pass pushes a small undo record (point, colour, previous ko
+ * point, pass count and hash, plus the captured stones on a shared stack), so
+ * {@link #play(int)} / {@link #undo()} can walk a search tree in place
+ * without copying the position or allocating.
+ *
+ * With {@link #setTerritoryTracking(boolean)} on, empty regions and the
+ * colours bordering them are kept up to date as well, so the territory
+ * part of the score is available after every move without a rescan.
+ *
+ * A {@link PositionListener} can be attached to hear which points each move
+ * or undo changed, e.g. to redraw only those. Moves made through
+ * {@link #makeMove} are also reported to the process-wide {@link GameEvents}.
+ */
+public class GoPosition {
+    public static final byte EMPTY = 0;
+    public static final byte BLACK = 1;
+    public static final byte WHITE = 2;
+    public static final byte BORDER = 3;
+
+    // Point 0 is always part of the border, so it can never be a real move
+    public static final int PASS = 0;
+
+    // SGF cannot describe boards larger than 52x52
+    public static final int MAX_SIZE = 52;
+    static final int MAX_POINTS = (MAX_SIZE + 2) * (MAX_SIZE + 1) + 1;
+    private static final int[] NO_POINTS = new int[0];
+
+    private final int cols;
+    private final int rows;
+    // One border column is shared between the end of a row and the start of the next
+    private final int stride;
+    // Neighbour loops run k = 0..3 over this rather than for-each, so the JIT unrolls them
+    private final int[] offsets;
+    private final byte[] board;
+
+    private byte toMove;
+    private int passCount;
+    private int capturedByBlack;
+    private int capturedByWhite;
+    private int blackScore;
+    private int whiteScore;
+
+    private long hash;
+    // Point where an immediate ko recapture is forbidden, or PASS when there is none
+    private int koPoint;
+    private boolean superko = true;
+    // Board-only hashes of every position reached, for positional superko
+    private final LongHashSet history = new LongHashSet();
+
+    // Undo stack, one entry per move or pass
+    private int undoTop;
+    private int[] undoPoint = new int[64];
+    private byte[] undoColor = new byte[64];
+    private int[] undoKo = new int[64];
+    private int[] undoPassCount = new int[64];
+    private long[] undoHash = new long[64];
+    private int[] undoCapStart = new int[64];
+    // Points of every stone captured so far, in move order
+    private int[] captured = new int[64];
+    private int capTop;
+
+    // Chain membership, indexed by stone point
+    private final int[] chainHead;
+    private final int[] chainNext;
+    // Chain statistics, indexed by the chain's head point
+    private final int[] chainSize;
+    private final int[] libCount;
+    // Sums of pseudo-liberty points and their squares; long because a large chain's squares pass 2^31
+    private final long[] libSum;
+    private final long[] libSumSq;
+
+    // Empty intersections as an unordered list with O(1) add and remove
+    private final int[] empty;
+    private final int[] emptyIndex;
+    private int emptyCount;
+
+    // Flood fill scratch, reused so rule checks never allocate
+    private final int[] stack;
+    private final int[] mark;
+    private int markStamp;
+
+    // Empty regions for live territory, only kept while tracking is on
+    private Regions regions;
+    // 3x3 codes of empty points for playout policies, only kept while tracking is on
+    private Patterns patterns;
+
+    // Told about changed points; the buffer is allocated along with it
+    private PositionListener listener;
+    private int[] changed;
+
+    public GoPosition(int cols, int rows) {
+        if (cols < 1 || rows < 1 || cols > MAX_SIZE || rows > MAX_SIZE) {
+            throw new IllegalArgumentException("Board must be between 1x1 and " + MAX_SIZE + "x" + MAX_SIZE);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.stride = cols + 1;
+        this.offsets = new int[]{-1, 1, -stride, stride};
+        // The extra point keeps the bottom-right diagonal inside the array
+        this.board = new byte[(rows + 2) * stride + 1];
+        this.chainHead = new int[board.length];
+        this.chainNext = new int[board.length];
+        this.chainSize = new int[board.length];
+        this.libCount = new int[board.length];
+        this.libSum = new long[board.length];
+        this.libSumSq = new long[board.length];
+        this.empty = new int[cols * rows];
+        this.emptyIndex = new int[board.length];
+        this.stack = new int[board.length];
+        this.mark = new int[board.length];
+        reset();
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(board, BORDER);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                board[point(col, row)] = EMPTY;
+            }
+        }
+        java.util.Arrays.fill(chainHead, 0);
+        rebuildEmpties();
+        if (regions != null) {
+            regions.rebuild();
+        }
+        if (patterns != null) {
+            patterns.rebuild();
+        }
+        toMove = BLACK;
+        passCount = 0;
+        capturedByBlack = 0;
+        capturedByWhite = 0;
+        blackScore = 0;
+        whiteScore = 0;
+        hash = 0;
+        koPoint = PASS;
+        history.clear();
+        history.add(hash);
+        undoTop = 0;
+        capTop = 0;
+        if (listener != null) {
+            listener.positionReset(this);
+        }
+    }
+
+    // ---------- Coordinates ----------
+
+    public int point(int col, int row) {
+        return (row + 1) * stride + col + 1;
+    }
+
+    public int col(int point) {
+        return point % stride - 1;
+    }
+
+    public int row(int point) {
+        return point / stride - 1;
+    }
+
+    public boolean isValidPosition(int col, int row) {
+        return col >= 0 && col < cols && row >= 0 && row < rows;
+    }
+
+    public static byte opponent(byte color) {
+        return (byte) (BLACK + WHITE - color);
+    }
+
+    // ---------- Moves ----------
+
+    /**
+     * Plays a stone for the side to move, resolving captures. Same validation
+     * and messages as {@code Board.makeMove}. The move, or its rejection, is
+     * reported to any {@link GameEventListener}s.
+     */
+    public void makeMove(int col, int row) throws InvalidMoveException {
+        GameEventListener events = GameEvents.listener;
+        if (events == null) {
+            checkAndPlay(col, row);
+            return;
+        }
+        long start = System.nanoTime();
+        byte color = toMove;
+        try {
+            checkAndPlay(col, row);
+        } catch (InvalidMoveException e) {
+            events.moveRejected(this, col, row, e.getMessage());
+            throw e;
+        }
+        events.movePlayed(this, point(col, row), color, getLastCaptureCount(), System.nanoTime() - start);
+    }
+
+    private void checkAndPlay(int col, int row) throws InvalidMoveException {
+        if (!isValidPosition(col, row)) {
+            throw new InvalidMoveException("Position out of bounds");
+        }
+        int p = point(col, row);
+        if (board[p] != EMPTY) {
+            throw new InvalidMoveException("Intersection already occupied");
+        }
+        if (wouldBeSuicide(p, toMove)) {
+            throw new InvalidMoveException("Suicide move not allowed");
+        }
+        if (p == koPoint) {
+            throw new InvalidMoveException("Ko rule violation");
+        }
+        if (superko && history.contains(boardHashAfter(p, toMove))) {
+            throw new InvalidMoveException("Superko rule violation");
+        }
+
+        MoveEvent event = new MoveEvent();
+        if (!event.isEnabled()) {
+            playUnchecked(p);
+            return;
+        }
+        byte color = toMove;
+        event.col = col;
+        event.row = row;
+        event.color = color == BLACK ? "B" : "W";
+        event.moveNumber = undoTop + 1;
+        event.boardHash = getBoardHash();
+        describeGroups(event, p, color);
+        event.begin();
+        playUnchecked(p);
+        event.end();
+        event.capturedStones = getLastCaptureCount();
+        event.groupSize = chainSize[chainHead[p]];
+        event.commit();
+    }
+
+    /**
+     * Fills in the groups next to {@code p} that a move there by {@code color}
+     * would join or capture. Only runs while a recording takes move events,
+     * so {@link #removeGroup} itself stays as lean as playouts need it.
+     */
+    private void describeGroups(MoveEvent event, int p, byte color) {
+        int stamp = nextStamp();
+        for (int k = 0; k < 4; k++) {
+            int n = p + offsets[k];
+            byte c = board[n];
+            if (c != BLACK && c != WHITE) continue;
+            int head = chainHead[n];
+            if (mark[head] == stamp) continue;
+            mark[head] = stamp;
+            if (c == color) {
+                event.mergedGroups++;
+            } else if (isInAtari(n)) {
+                event.capturedGroups++;
+                event.largestCapture = Math.max(event.largestCapture, chainSize[head]);
+            }
+        }
+    }
+
+    /** True if the side to move may play at {@code point}; PASS is always legal. */
+    public boolean isLegal(int point) {
+        if (point == PASS) return true;
+        if (board[point] != EMPTY || point == koPoint) return false;
+        if (isSuicide(point, toMove)) return false;
+        return !superko || !history.contains(boardHashAfter(point, toMove));
+    }
+
+    /**
+     * Plays {@code point} (or {@link #PASS}) for the side to move if it is
+     * legal. Returns false and leaves the position untouched otherwise.
+     */
+    public boolean play(int point) {
+        if (point == PASS) {
+            pass();
+            return true;
+        }
+        if (!isLegal(point)) return false;
+        playUnchecked(point);
+        return true;
+    }
+
+    /** Takes back the last move or pass. */
+    public void undo() {
+        if (undoTop == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        int i = --undoTop;
+        int p = undoPoint[i];
+        int changes = 0;
+        if (p != PASS) {
+            if (superko) {
+                history.remove(getBoardHash());
+            }
+            if (listener != null) {
+                changes = collectChanges(p, undoCapStart[i]);
+            }
+            int capEnd = capTop;
+            unplaceStone(p, undoColor[i], undoCapStart[i]);
+            if (patterns != null) {
+                // The captured stones are back, but still listed past the new capTop
+                patterns.moved(p, captured, undoCapStart[i], capEnd, true);
+            }
+        }
+        toMove = undoColor[i];
+        koPoint = undoKo[i];
+        passCount = undoPassCount[i];
+        hash = undoHash[i];
+        if (changes > 0) {
+            listener.pointsChanged(this, changed, changes);
+        }
+    }
+
+    public boolean canUndo() {
+        return undoTop > 0;
+    }
+
+    /** Number of moves and passes played since the last reset or setup. */
+    public int getMoveCount() {
+        return undoTop;
+    }
+
+    /** The i-th move played, or {@link #PASS}. */
+    public int getMove(int i) {
+        if (i < 0 || i >= undoTop) {
+            throw new IndexOutOfBoundsException("Move " + i + " of " + undoTop);
+        }
+        return undoPoint[i];
+    }
+
+    /** Colour that played the i-th move. */
+    public byte getMoveColor(int i) {
+        if (i < 0 || i >= undoTop) {
+            throw new IndexOutOfBoundsException("Move " + i + " of " + undoTop);
+        }
+        return undoColor[i];
+    }
+
+    /** Number of stones the last move captured. */
+    public int getLastCaptureCount() {
+        return undoTop == 0 || undoPoint[undoTop - 1] == PASS ? 0 : capTop - undoCapStart[undoTop - 1];
+    }
+
+    /** The i-th stone captured by the last move, for {@code i < getLastCaptureCount()}. */
+    public int getLastCaptured(int i) {
+        return captured[undoCapStart[undoTop - 1] + i];
+    }
+
+    private void pushUndo(int point) {
+        if (undoTop == undoPoint.length) {
+            int n = undoTop * 2;
+            undoPoint = java.util.Arrays.copyOf(undoPoint, n);
+            undoColor = java.util.Arrays.copyOf(undoColor, n);
+            undoKo = java.util.Arrays.copyOf(undoKo, n);
+            undoPassCount = java.util.Arrays.copyOf(undoPassCount, n);
+            undoHash = java.util.Arrays.copyOf(undoHash, n);
+            undoCapStart = java.util.Arrays.copyOf(undoCapStart, n);
+        }
+        undoPoint[undoTop] = point;
+        undoColor[undoTop] = toMove;
+        undoKo[undoTop] = koPoint;
+        undoPassCount[undoTop] = passCount;
+        undoHash[undoTop] = hash;
+        undoCapStart[undoTop] = capTop;
+        undoTop++;
+    }
+
+    void playUnchecked(int p) {
+        pushUndo(p);
+        byte color = toMove;
+        placeStone(p, color);
+        int captured = captureOpponentStones(p);
+
+        // A lone stone that took exactly one stone and now sits in atari is a ko shape
+        koPoint = PASS;
+        if (captured == 1 && chainSize[chainHead[p]] == 1 && isInAtari(p)) {
+            koPoint = getAtariLiberty(p);
+        }
+        if (patterns != null) {
+            patterns.moved(p, this.captured, undoCapStart[undoTop - 1], capTop, false);
+        }
+
+        toMove = opponent(color);
+        hash ^= Zobrist.WHITE_TO_MOVE;
+        passCount = 0;
+        if (superko) {
+            history.add(getBoardHash());
+        }
+        if (listener != null) {
+            listener.pointsChanged(this, changed, collectChanges(p, undoCapStart[undoTop - 1]));
+        }
+    }
+
+    /** Fills {@code changed} with {@code p} and the stones captured since {@code capStart}. */
+    private int collectChanges(int p, int capStart) {
+        int n = capTop - capStart;
+        changed[0] = p;
+        System.arraycopy(captured, capStart, changed, 1, n);
+        return n + 1;
+    }
+
+    public void pass() {
+        pushUndo(PASS);
+        passCount++;
+        toMove = opponent(toMove);
+        hash ^= Zobrist.WHITE_TO_MOVE;
+        koPoint = PASS;
+    }
+
+    /**
+     * True if placing {@code color} at {@code point} would leave its own group
+     * without liberties after captures. Occupied points count as suicide.
+     */
+    public boolean wouldBeSuicide(int point, byte color) {
+        SuicideCheckEvent event = new SuicideCheckEvent();
+        if (!event.isEnabled()) {
+            return isSuicide(point, color);
+        }
+        event.begin();
+        boolean suicide = isSuicide(point, color);
+        event.end();
+        if (event.shouldCommit()) {
+            event.col = col(point);
+            event.row = row(point);
+            event.color = color == BLACK ? "B" : "W";
+            event.suicide = suicide;
+            event.commit();
+        }
+        return suicide;
+    }
+
+    private boolean isSuicide(int point, byte color) {
+        if (board[point] != EMPTY) return true;
+
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = point + d;
+            byte c = board[n];
+            if (c == EMPTY) return false;
+            if (c == BORDER) continue;
+            // A neighbour chain in atari has this point as its last liberty
+            boolean atari = isInAtari(n);
+            if (c == color ? !atari : atari) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Board hash the position would have after {@code color} plays at the
+     * empty point {@code point}, including any captures. Nothing is modified.
+     */
+    public long boardHashAfter(int point, byte color) {
+        long h = getBoardHash() ^ Zobrist.key(point, color);
+        byte other = opponent(color);
+        int stamp = nextStamp();
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = point + d;
+            if (board[n] != other || !isInAtari(n)) continue;
+            int head = chainHead[n];
+            // Two sides of the same chain must only be removed once
+            if (mark[head] == stamp) continue;
+            mark[head] = stamp;
+            int s = head;
+            do {
+                h ^= Zobrist.key(s, other);
+                s = chainNext[s];
+            } while (s != head);
+        }
+        return h;
+    }
+
+    /** Removes every opponent group next to {@code point} that has no liberties. */
+    public int captureOpponentStones(int point) {
+        byte other = opponent(board[point]);
+        int captured = 0;
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = point + d;
+            if (board[n] == other && hasNoLiberties(n)) {
+                captured += removeGroup(n);
+            }
+        }
+        return captured;
+    }
+
+    public boolean hasNoLiberties(int point) {
+        return libCount[chainHead[point]] == 0;
+    }
+
+    public boolean isInAtari(int point) {
+        int h = chainHead[point];
+        int count = libCount[h];
+        long sum = libSum[h];
+        return count > 0 && sum * sum == count * libSumSq[h];
+    }
+
+    /** Sum of the squared pseudo-liberty points of the chain at {@code point}, as the atari check uses it. */
+    long getLibertySquareSum(int point) {
+        return libSumSq[chainHead[point]];
+    }
+
+    /** The single liberty of a chain in atari; only meaningful when {@link #isInAtari(int)}. */
+    public int getAtariLiberty(int point) {
+        int h = chainHead[point];
+        return (int) (libSum[h] / libCount[h]);
+    }
+
+    /** Exact number of distinct liberties. Walks the chain, so prefer the O(1) checks when they suffice. */
+    public int getLiberties(int point) {
+        int stamp = nextStamp();
+        int liberties = 0;
+        int s = point;
+        do {
+            for (int k = 0; k < 4; k++) {
+                int d = offsets[k];
+                int n = s + d;
+                if (board[n] == EMPTY && mark[n] != stamp) {
+                    mark[n] = stamp;
+                    liberties++;
+                }
+            }
+            s = chainNext[s];
+        } while (s != point);
+        return liberties;
+    }
+
+    /**
+     * Writes up to {@code max} distinct liberties of the chain at {@code point}
+     * into {@code into} and returns how many it found, stopping the walk as
+     * soon as it has {@code max}; enough to tell one, two or "more" apart.
+     */
+    public int getLiberties(int point, int[] into, int max) {
+        int stamp = nextStamp();
+        int found = 0;
+        int s = point;
+        do {
+            for (int k = 0; k < 4; k++) {
+                int n = s + offsets[k];
+                if (board[n] == EMPTY && mark[n] != stamp) {
+                    mark[n] = stamp;
+                    into[found++] = n;
+                    if (found == max) return found;
+                }
+            }
+            s = chainNext[s];
+        } while (s != point);
+        return found;
+    }
+
+    public int getChainSize(int point) {
+        return chainSize[chainHead[point]];
+    }
+
+    /** Head point identifying the chain a stone belongs to. */
+    public int getChainHead(int point) {
+        return chainHead[point];
+    }
+
+    /** Next stone in the chain's circular list; iterate until back at the start. */
+    public int nextInChain(int point) {
+        return chainNext[point];
+    }
+
+    // ---------- Chain maintenance ----------
+
+    private void placeStone(int p, byte color) {
+        board[p] = color;
+        removeEmpty(p);
+        if (regions != null) {
+            regions.pointFilled(p, color);
+        }
+        hash ^= Zobrist.key(p, color);
+        chainHead[p] = p;
+        chainNext[p] = p;
+        chainSize[p] = 1;
+        libCount[p] = 0;
+        libSum[p] = 0;
+        libSumSq[p] = 0;
+
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            byte c = board[n];
+            if (c == EMPTY) {
+                addLiberty(p, n);
+            } else if (c != BORDER) {
+                removeLiberty(chainHead[n], p);
+            }
+        }
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            if (board[n] == color && chainHead[n] != chainHead[p]) {
+                mergeChains(chainHead[p], chainHead[n]);
+            }
+        }
+    }
+
+    private void mergeChains(int a, int b) {
+        // Relabel the smaller chain so merges cost the size of the smaller group
+        if (chainSize[a] < chainSize[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int s = b;
+        do {
+            chainHead[s] = a;
+            s = chainNext[s];
+        } while (s != b);
+
+        int t = chainNext[a];
+        chainNext[a] = chainNext[b];
+        chainNext[b] = t;
+
+        chainSize[a] += chainSize[b];
+        libCount[a] += libCount[b];
+        libSum[a] += libSum[b];
+        libSumSq[a] += libSumSq[b];
+    }
+
+    private int removeGroup(int point) {
+        int head = chainHead[point];
+        byte color = board[point];
+        int size = chainSize[head];
+
+        int s = head;
+        do {
+            board[s] = EMPTY;
+            addEmpty(s);
+            if (regions != null) {
+                regions.pointEmptied(s, color);
+            }
+            hash ^= Zobrist.key(s, color);
+            s = chainNext[s];
+        } while (s != head);
+        // Only once the whole chain is gone do its stones become liberties of the neighbours
+        do {
+            for (int k = 0; k < 4; k++) {
+                int d = offsets[k];
+                int n = s + d;
+                byte c = board[n];
+                if (c == BLACK || c == WHITE) {
+                    addLiberty(chainHead[n], s);
+                }
+            }
+            chainHead[s] = 0;
+            pushCaptured(s);
+            s = chainNext[s];
+        } while (s != head);
+
+        if (color == WHITE) {
+            capturedByBlack += size;
+        } else {
+            capturedByWhite += size;
+        }
+        return size;
+    }
+
+    private void pushCaptured(int s) {
+        if (capTop == captured.length) {
+            captured = java.util.Arrays.copyOf(captured, capTop * 2);
+        }
+        captured[capTop++] = s;
+    }
+
+    /**
+     * Reverses {@link #placeStone} and the captures that followed it. The
+     * chain the stone joined may split, so its stones and the restored
+     * chains are rebuilt locally; every other chain is adjusted in place.
+     */
+    private void unplaceStone(int p, byte color, int capStart) {
+        byte other = opponent(color);
+
+        int head = chainHead[p];
+        int s = head;
+        do {
+            chainHead[s] = 0;
+            s = chainNext[s];
+        } while (s != head);
+        board[p] = EMPTY;
+        addEmpty(p);
+        if (regions != null) {
+            regions.pointEmptied(p, color);
+        }
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            if (board[n] == other) {
+                addLiberty(chainHead[n], p);
+            }
+        }
+
+        for (int i = capStart; i < capTop; i++) {
+            board[captured[i]] = other;
+            removeEmpty(captured[i]);
+            if (regions != null) {
+                regions.pointFilled(captured[i], other);
+            }
+        }
+        for (int i = capStart; i < capTop; i++) {
+            int c = captured[i];
+            for (int k = 0; k < 4; k++) {
+                int d = offsets[k];
+                int n = c + d;
+                if (board[n] == color && chainHead[n] != 0) {
+                    removeLiberty(chainHead[n], c);
+                }
+            }
+        }
+
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            if (board[n] == color && chainHead[n] == 0) {
+                buildChain(n);
+            }
+        }
+        for (int i = capStart; i < capTop; i++) {
+            if (chainHead[captured[i]] == 0) {
+                buildChain(captured[i]);
+            }
+        }
+
+        int count = capTop - capStart;
+        if (other == WHITE) {
+            capturedByBlack -= count;
+        } else {
+            capturedByWhite -= count;
+        }
+        capTop = capStart;
+    }
+
+    private void addLiberty(int head, int lib) {
+        libCount[head]++;
+        libSum[head] += lib;
+        libSumSq[head] += (long) lib * lib;
+    }
+
+    private void removeLiberty(int head, int lib) {
+        libCount[head]--;
+        libSum[head] -= lib;
+        libSumSq[head] -= (long) lib * lib;
+    }
+
+    private void addEmpty(int p) {
+        emptyIndex[p] = emptyCount;
+        empty[emptyCount++] = p;
+    }
+
+    private void removeEmpty(int p) {
+        int last = empty[--emptyCount];
+        int i = emptyIndex[p];
+        empty[i] = last;
+        emptyIndex[last] = i;
+    }
+
+    private void rebuildEmpties() {
+        emptyCount = 0;
+        for (int p = stride; p < board.length - stride; p++) {
+            if (board[p] == EMPTY) {
+                addEmpty(p);
+            }
+        }
+    }
+
+    /** Rebuilds chains, empty points and hash from the stones on the board; used after setup edits. */
+    private void rebuildFromBoard() {
+        java.util.Arrays.fill(chainHead, 0);
+        rebuildEmpties();
+        if (regions != null) {
+            regions.rebuild();
+        }
+        hash = toMove == WHITE ? Zobrist.WHITE_TO_MOVE : 0;
+        for (int p = stride; p < board.length - stride; p++) {
+            if (board[p] == BLACK || board[p] == WHITE) {
+                hash ^= Zobrist.key(p, board[p]);
+            }
+        }
+        for (int p = stride; p < board.length - stride; p++) {
+            if ((board[p] == BLACK || board[p] == WHITE) && chainHead[p] == 0) {
+                buildChain(p);
+            }
+        }
+        if (patterns != null) {
+            patterns.rebuild();
+        }
+    }
+
+    private void buildChain(int start) {
+        byte color = board[start];
+        chainHead[start] = start;
+        chainNext[start] = start;
+        chainSize[start] = 0;
+        libCount[start] = 0;
+        libSum[start] = 0;
+        libSumSq[start] = 0;
+
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int s = stack[--top];
+            chainSize[start]++;
+            for (int k = 0; k < 4; k++) {
+                int d = offsets[k];
+                int n = s + d;
+                if (board[n] == EMPTY) {
+                    addLiberty(start, n);
+                } else if (board[n] == color && chainHead[n] != start) {
+                    chainHead[n] = start;
+                    chainNext[n] = chainNext[start];
+                    chainNext[start] = n;
+                    stack[top++] = n;
+                }
+            }
+        }
+    }
+
+    // ---------- Scoring ----------
+
+    /**
+     * Japanese scoring: territory plus prisoners. An empty region only counts
+     * when it is bordered by a single colour and does not reach the board edge.
+     * O(1) while territory tracking is on, otherwise one flood fill of the board.
+     */
+    public void calculateJapaneseScoring() {
+        calculateJapaneseScoring(NO_POINTS);
+    }
+
+    /**
+     * Japanese scoring with {@code deadStones} (points) taken off first: each
+     * counts as a prisoner for the other side and its point as empty when the
+     * territory is filled. The board itself is left as it was. Always a flood
+     * fill, even with territory tracking on, unless no stone is dead.
+     */
+    public void calculateJapaneseScoring(int[] deadStones) {
+        ScoringEvent event = new ScoringEvent();
+        if (!event.isEnabled()) {
+            score(deadStones);
+            return;
+        }
+        event.begin();
+        int regionCount = score(deadStones);
+        event.end();
+        if (event.shouldCommit()) {
+            int deadBlack = 0;
+            for (int p : deadStones) {
+                if (board[p] == BLACK) deadBlack++;
+            }
+            event.regions = regionCount;
+            event.tracked = regions != null && deadStones.length == 0;
+            event.deadStones = deadStones.length;
+            event.blackTerritory = blackScore - capturedByBlack - (deadStones.length - deadBlack);
+            event.whiteTerritory = whiteScore - capturedByWhite - deadBlack;
+            event.moveNumber = undoTop;
+            event.boardHash = getBoardHash();
+            event.commit();
+        }
+    }
+
+    /** Sets both scores; returns how many empty regions the board has. */
+    private int score(int[] deadStones) {
+        if (deadStones.length > 0) {
+            return scoreWithout(deadStones);
+        }
+        if (regions != null) {
+            this.blackScore = regions.getBlackTerritory() + capturedByBlack;
+            this.whiteScore = regions.getWhiteTerritory() + capturedByWhite;
+            return regions.regionCount();
+        }
+        return fillScore();
+    }
+
+    /** Lifts the dead stones for one fill, then puts them back and adds them as prisoners. */
+    private int scoreWithout(int[] deadStones) {
+        byte[] colors = new byte[deadStones.length];
+        for (int i = 0; i < deadStones.length; i++) {
+            int p = deadStones[i];
+            if (p <= 0 || p >= board.length || (board[p] != BLACK && board[p] != WHITE)) {
+                for (int j = 0; j < i; j++) {
+                    board[deadStones[j]] = colors[j];
+                }
+                throw new IllegalArgumentException("No stone at point " + p);
+            }
+            colors[i] = board[p];
+            board[p] = EMPTY;
+        }
+        int regionCount = fillScore();
+        for (int i = 0; i < deadStones.length; i++) {
+            board[deadStones[i]] = colors[i];
+            if (colors[i] == BLACK) whiteScore++;
+            else blackScore++;
+        }
+        return regionCount;
+    }
+
+    /** Scores by flood filling every empty region; returns how many there are. */
+    private int fillScore() {
+        int blackTerritory = 0;
+        int whiteTerritory = 0;
+        int regionCount = 0;
+        int stamp = nextStamp();
+
+        for (int p = stride; p < board.length - stride; p++) {
+            if (board[p] != EMPTY || mark[p] == stamp) continue;
+
+            boolean touchesEdge = false;
+            boolean bordersBlack = false;
+            boolean bordersWhite = false;
+            int regionSize = 0;
+            int top = 0;
+            stack[top++] = p;
+            mark[p] = stamp;
+
+            // Finish the whole fill before deciding so every point gets marked
+            while (top > 0) {
+                int cur = stack[--top];
+                regionSize++;
+                for (int k = 0; k < 4; k++) {
+                    int d = offsets[k];
+                    int n = cur + d;
+                    byte c = board[n];
+                    if (c == EMPTY) {
+                        if (mark[n] != stamp) {
+                            mark[n] = stamp;
+                            stack[top++] = n;
+                        }
+                    } else if (c == BLACK) {
+                        bordersBlack = true;
+                    } else if (c == WHITE) {
+                        bordersWhite = true;
+                    } else {
+                        touchesEdge = true;
+                    }
+                }
+            }
+
+            regionCount++;
+            if (touchesEdge || bordersBlack == bordersWhite) continue;
+            if (bordersBlack) blackTerritory += regionSize;
+            else whiteTerritory += regionSize;
+        }
+
+        this.blackScore = blackTerritory + capturedByBlack;
+        this.whiteScore = whiteTerritory + capturedByWhite;
+        return regionCount;
+    }
+
+    /**
+     * Turns incremental territory tracking on or off. While on, every stone
+     * placed, captured or undone also updates the empty regions, which costs a
+     * little on each move but makes {@link #getBlackTerritory()},
+     * {@link #getWhiteTerritory()} and scoring O(1). Off by default so
+     * playouts and search do not pay for it.
+     */
+    public void setTerritoryTracking(boolean on) {
+        if (on && regions == null) {
+            regions = new Regions(board, offsets, cols * rows);
+            regions.rebuild();
+        } else if (!on) {
+            regions = null;
+        }
+    }
+
+    public boolean isTerritoryTracking() {
+        return regions != null;
+    }
+
+    /** Empty points in regions that count as black territory; needs territory tracking. */
+    public int getBlackTerritory() {
+        return requireRegions().getBlackTerritory();
+    }
+
+    /** Empty points in regions that count as white territory; needs territory tracking. */
+    public int getWhiteTerritory() {
+        return requireRegions().getWhiteTerritory();
+    }
+
+    /**
+     * BLACK or WHITE if {@code point} is empty and its region is that colour's
+     * territory, otherwise EMPTY; needs territory tracking.
+     */
+    public byte getTerritoryOwner(int point) {
+        return requireRegions().owner(point);
+    }
+
+    /** Size of the empty region containing {@code point}, or 0 for a stone; needs territory tracking. */
+    public int getRegionSize(int point) {
+        return requireRegions().regionSize(point);
+    }
+
+    /**
+     * Turns incremental 3x3 pattern codes on or off. While on, each move or
+     * undo refreshes the {@link PatternCode} of the empty points around the
+     * stones it changed, so a playout policy can weight every candidate move
+     * with one table lookup. Off by default.
+     */
+    public void setPatternTracking(boolean on) {
+        if (on && patterns == null) {
+            patterns = new Patterns(this, board, offsets, stride);
+            patterns.rebuild();
+        } else if (!on) {
+            patterns = null;
+        }
+    }
+
+    public boolean isPatternTracking() {
+        return patterns != null;
+    }
+
+    /** {@link PatternCode} of the empty point {@code point}; needs pattern tracking. */
+    public int getPatternCode(int point) {
+        return requirePatterns().code(point);
+    }
+
+    /**
+     * Number of points whose pattern code changed, or that were filled or
+     * emptied, since the last {@link #clearPatternChanges()}; each is listed
+     * once. Setup edits and copies list every point. Needs pattern tracking.
+     */
+    public int getPatternChangeCount() {
+        return requirePatterns().changeCount();
+    }
+
+    public int getPatternChange(int i) {
+        return requirePatterns().change(i);
+    }
+
+    public void clearPatternChanges() {
+        requirePatterns().clearChanges();
+    }
+
+    private Patterns requirePatterns() {
+        if (patterns == null) {
+            throw new IllegalStateException("Pattern tracking is off");
+        }
+        return patterns;
+    }
+
+    private Regions requireRegions() {
+        if (regions == null) {
+            throw new IllegalStateException("Territory tracking is off");
+        }
+        return regions;
+    }
+
+    private int nextStamp() {
+        if (++markStamp == 0) {
+            java.util.Arrays.fill(mark, 0);
+            markStamp = 1;
+        }
+        return markStamp;
+    }
+
+    // ---------- Setup ----------
+
+    /** Places or clears a stone without any capture or turn logic, for loading positions. */
+    public void setStone(int col, int row, byte color) {
+        if (!isValidPosition(col, row)) {
+            throw new IllegalArgumentException("Position out of bounds: (" + col + "," + row + ")");
+        }
+        if (color != EMPTY && color != BLACK && color != WHITE) {
+            throw new IllegalArgumentException("Not a stone colour: " + color);
+        }
+        board[point(col, row)] = color;
+        rebuildFromBoard();
+        // A set-up position starts a fresh history and cannot be undone past
+        koPoint = PASS;
+        history.clear();
+        history.add(getBoardHash());
+        undoTop = 0;
+        capTop = 0;
+        if (listener != null) {
+            listener.positionReset(this);
+        }
+    }
+
+    /**
+     * Replaces the whole position with saved state in one rebuild, for
+     * loading snapshots: {@code stones} holds one colour per intersection,
+     * row by row. Like setup edits, this starts a fresh history, so the
+     * restored position cannot be undone past and superko only sees
+     * positions reached from here.
+     */
+    public void restore(byte[] stones, byte toMove, int koPoint, int passCount,
+                        int capturedByBlack, int capturedByWhite) {
+        if (stones.length != cols * rows) {
+            throw new IllegalArgumentException("Need " + cols * rows + " stones, got " + stones.length);
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                byte color = stones[row * cols + col];
+                if (color != EMPTY && color != BLACK && color != WHITE) {
+                    throw new IllegalArgumentException("Not a stone colour: " + color);
+                }
+                board[point(col, row)] = color;
+            }
+        }
+        this.toMove = toMove;
+        rebuildFromBoard();
+        this.koPoint = koPoint;
+        this.passCount = passCount;
+        this.capturedByBlack = capturedByBlack;
+        this.capturedByWhite = capturedByWhite;
+        history.clear();
+        history.add(getBoardHash());
+        undoTop = 0;
+        capTop = 0;
+        if (listener != null) {
+            listener.positionReset(this);
+        }
+    }
+
+    public void setCaptures(int capturedByBlack, int capturedByWhite) {
+        this.capturedByBlack = capturedByBlack;
+        this.capturedByWhite = capturedByWhite;
+    }
+
+    /**
+     * Makes this position an exact copy of {@code other}, including history
+     * and undo stack. Both must have the same dimensions. Only array copies,
+     * so it is cheap enough to do once per playout or search iteration.
+     */
+    public void copyFrom(GoPosition other) {
+        if (other.cols != cols || other.rows != rows) {
+            throw new IllegalArgumentException("Cannot copy a " + other.cols + "x" + other.rows
+                    + " position into a " + cols + "x" + rows + " one");
+        }
+        int n = board.length;
+        System.arraycopy(other.board, 0, board, 0, n);
+        System.arraycopy(other.chainHead, 0, chainHead, 0, n);
+        System.arraycopy(other.chainNext, 0, chainNext, 0, n);
+        System.arraycopy(other.chainSize, 0, chainSize, 0, n);
+        System.arraycopy(other.libCount, 0, libCount, 0, n);
+        System.arraycopy(other.libSum, 0, libSum, 0, n);
+        System.arraycopy(other.libSumSq, 0, libSumSq, 0, n);
+        System.arraycopy(other.emptyIndex, 0, emptyIndex, 0, n);
+        System.arraycopy(other.empty, 0, empty, 0, other.emptyCount);
+        emptyCount = other.emptyCount;
+
+        toMove = other.toMove;
+        passCount = other.passCount;
+        capturedByBlack = other.capturedByBlack;
+        capturedByWhite = other.capturedByWhite;
+        blackScore = other.blackScore;
+        whiteScore = other.whiteScore;
+        hash = other.hash;
+        koPoint = other.koPoint;
+        superko = other.superko;
+        history.copyFrom(other.history);
+        if (other.regions == null) {
+            regions = null;
+        } else {
+            if (regions == null) {
+                regions = new Regions(board, offsets, cols * rows);
+            }
+            regions.copyFrom(other.regions);
+        }
+        if (other.patterns == null) {
+            patterns = null;
+        } else {
+            if (patterns == null) {
+                patterns = new Patterns(this, board, offsets, stride);
+            }
+            patterns.copyFrom(other.patterns);
+        }
+
+        if (undoPoint.length < other.undoTop) {
+            int cap = other.undoPoint.length;
+            undoPoint = new int[cap];
+            undoColor = new byte[cap];
+            undoKo = new int[cap];
+            undoPassCount = new int[cap];
+            undoHash = new long[cap];
+            undoCapStart = new int[cap];
+        }
+        undoTop = other.undoTop;
+        System.arraycopy(other.undoPoint, 0, undoPoint, 0, undoTop);
+        System.arraycopy(other.undoColor, 0, undoColor, 0, undoTop);
+        System.arraycopy(other.undoKo, 0, undoKo, 0, undoTop);
+        System.arraycopy(other.undoPassCount, 0, undoPassCount, 0, undoTop);
+        System.arraycopy(other.undoHash, 0, undoHash, 0, undoTop);
+        System.arraycopy(other.undoCapStart, 0, undoCapStart, 0, undoTop);
+        if (captured.length < other.capTop) {
+            captured = new int[other.captured.length];
+        }
+        capTop = other.capTop;
+        System.arraycopy(other.captured, 0, captured, 0, capTop);
+        if (listener != null) {
+            listener.positionReset(this);
+        }
+    }
+
+    /**
+     * Sets the listener told about changed points, or removes it with null.
+     * There is one listener per position; with none attached, moves pay
+     * only a null check.
+     */
+    public void setPositionListener(PositionListener listener) {
+        if (listener != null && changed == null) {
+            changed = new int[cols * rows + 1];
+        }
+        this.listener = listener;
+    }
+
+    // ---------- Accessors ----------
+
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    /** The i-th empty point, for {@code i < getEmptyCount()}. Order is arbitrary and changes as moves are played. */
+    public int getEmptyPoint(int i) {
+        return empty[i];
+    }
+
+    /** Swaps two entries of the empty list; lets playouts shrink a candidate window in place. */
+    void swapEmpty(int i, int j) {
+        int a = empty[i];
+        int b = empty[j];
+        empty[i] = b;
+        empty[j] = a;
+        emptyIndex[b] = i;
+        emptyIndex[a] = j;
+    }
+
+    public byte get(int point) {
+        return board[point];
+    }
+
+    public byte getStone(int col, int row) {
+        return board[point(col, row)];
+    }
+
+    public int getStoneCount() {
+        int count = 0;
+        for (byte c : board) {
+            if (c == BLACK || c == WHITE) count++;
+        }
+        return count;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    /** Size of the padded point array; every point index is below this. */
+    public int getPointCount() {
+        return board.length;
+    }
+
+    public byte getToMove() {
+        return toMove;
+    }
+
+    public void setToMove(byte color) {
+        if (color != toMove) {
+            hash ^= Zobrist.WHITE_TO_MOVE;
+        }
+        this.toMove = color;
+    }
+
+    public boolean isBlackToMove() {
+        return toMove == BLACK;
+    }
+
+    public int getPassCount() {
+        return passCount;
+    }
+
+    public void setPassCount(int passCount) {
+        this.passCount = passCount;
+    }
+
+    public int getCapturedByBlack() {
+        return capturedByBlack;
+    }
+
+    public int getCapturedByWhite() {
+        return capturedByWhite;
+    }
+
+    /** Zobrist hash of stones and side to move; suitable as a cache or transposition key. */
+    public long getHash() {
+        return hash;
+    }
+
+    /** Zobrist hash of the stones only, as used for positional superko. */
+    public long getBoardHash() {
+        return toMove == WHITE ? hash ^ Zobrist.WHITE_TO_MOVE : hash;
+    }
+
+    public int getKoPoint() {
+        return koPoint;
+    }
+
+    /** Sets the point the side to move may not retake, or {@link #PASS} for none. Not part of the hash. */
+    void setKoPoint(int point) {
+        this.koPoint = point;
+    }
+
+    public boolean isSuperkoEnabled() {
+        return superko;
+    }
+
+    /**
+     * Turns positional superko on or off. With it off only simple ko is
+     * enforced and no history is kept, which is what playouts want.
+     */
+    public void setSuperkoEnabled(boolean superko) {
+        this.superko = superko;
+        history.clear();
+        if (superko) {
+            history.add(getBoardHash());
+        }
+    }
+
+    public int getBlackScore() {
+        return blackScore;
+    }
+
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+}
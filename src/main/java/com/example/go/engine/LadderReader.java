@@ -0,0 +1,178 @@
+package com.example.go.engine;
+
+/**
+ * Reads ladders: whether a chain with one or two liberties can be chased
+ * down by repeated ataris. The attacker always plays atari on one of the
+ * two liberties; the defender either extends from its last liberty or
+ * captures an attacking chain that is itself in atari next to it. The prey
+ * escapes as soon as it has three liberties.
+ *
+ * Reading plays and takes back moves on the position itself, so it copies
+ * nothing and allocates nothing once its move stack has grown. A position
+ * with a listener, territory or pattern tracking pays for those on every
+ * node, so search copies are the place to read. Each call stops after a
+ * fixed number of moves and reports {@link Outcome#UNDECIDED}. One instance
+ * per thread; instances are not thread-safe.
+ */
+public final class LadderReader {
+    /** Moves a read may play before giving up; long ladders across 19x19 need about 80. */
+    public static final int DEFAULT_NODE_BUDGET = 400;
+
+    public enum Outcome {
+        /** The attacker captures the chain whatever the defender does. */
+        CAPTURED,
+        /** The defender gets out, or the chain was never in a ladder. */
+        ESCAPES,
+        /** The node budget ran out first. */
+        UNDECIDED
+    }
+
+    private final int nodeBudget;
+    private int nodes;
+    private boolean exhausted;
+
+    // Candidate moves of every line being read, one frame per depth
+    private int[] moves = new int[64];
+    private int top;
+    private final int[] liberties = new int[3];
+
+    public LadderReader() {
+        this(DEFAULT_NODE_BUDGET);
+    }
+
+    public LadderReader(int nodeBudget) {
+        if (nodeBudget < 1) {
+            throw new IllegalArgumentException("Node budget must be at least 1");
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Reads the chain at {@code point}. With one liberty the defender moves
+     * first; with two the attacker does; with more there is no ladder. The
+     * side to move in {@code position} is ignored, and the position is left
+     * exactly as it was. An active ko only binds the side to move, so it is
+     * lifted while the other side starts the read.
+     */
+    public Outcome read(GoPosition position, int point) {
+        byte prey = position.get(point);
+        if (prey != GoPosition.BLACK && prey != GoPosition.WHITE) {
+            throw new IllegalArgumentException("No stone at point " + point);
+        }
+        nodes = 0;
+        exhausted = false;
+        top = 0;
+        int libs = position.getLiberties(point, liberties, 3);
+        if (libs >= 3) {
+            return Outcome.ESCAPES;
+        }
+
+        byte toMove = position.getToMove();
+        int koPoint = position.getKoPoint();
+        byte first = libs == 1 ? prey : GoPosition.opponent(prey);
+        if (first != toMove) {
+            position.setKoPoint(GoPosition.PASS);
+        }
+        position.setToMove(first);
+        boolean captured = libs == 1 ? !escapes(position, point) : captures(position, point);
+        position.setToMove(toMove);
+        position.setKoPoint(koPoint);
+        if (exhausted) {
+            return Outcome.UNDECIDED;
+        }
+        return captured ? Outcome.CAPTURED : Outcome.ESCAPES;
+    }
+
+    /** Moves played by the last {@link #read}. */
+    public int getNodes() {
+        return nodes;
+    }
+
+    public int getNodeBudget() {
+        return nodeBudget;
+    }
+
+    /** Attacker to move, prey on two liberties: true if some atari leads to a capture. */
+    private boolean captures(GoPosition position, int prey) {
+        position.getLiberties(prey, liberties, 2);
+        int frame = top;
+        push(liberties[0]);
+        push(liberties[1]);
+        boolean captured = false;
+        for (int i = frame; i < frame + 2 && !captured; i++) {
+            int a = moves[i];
+            if (!position.isLegal(a) || !spend()) continue;
+            position.playUnchecked(a);
+            // An atari the defender can answer by taking the attacking stone is just another escape try
+            captured = position.isInAtari(prey) && !escapes(position, prey);
+            position.undo();
+            if (exhausted) break;
+        }
+        top = frame;
+        return captured && !exhausted;
+    }
+
+    /** Defender to move, prey in atari: true if extending or a capture gets it out. */
+    private boolean escapes(GoPosition position, int prey) {
+        int frame = top;
+        collectCaptures(position, prey);
+        push(position.getAtariLiberty(prey));
+        boolean escaped = false;
+        for (int i = frame; i < top && !escaped; i++) {
+            int d = moves[i];
+            if (!position.isLegal(d) || !spend()) continue;
+            position.playUnchecked(d);
+            int libs = position.getLiberties(prey, liberties, 3);
+            if (libs >= 3) {
+                escaped = true;
+            } else if (libs == 2) {
+                escaped = !captures(position, prey);
+            }
+            position.undo();
+            if (exhausted) break;
+        }
+        top = frame;
+        // Out of budget counts as escaped so no caller reports a capture it did not prove
+        return escaped || exhausted;
+    }
+
+    /** Pushes the last liberty of every attacking chain in atari that touches the prey. */
+    private void collectCaptures(GoPosition position, int prey) {
+        int stride = position.getStride();
+        byte attacker = GoPosition.opponent(position.get(prey));
+        int frame = top;
+        int s = prey;
+        do {
+            for (int k = 0; k < 4; k++) {
+                int n = k == 0 ? s - 1 : k == 1 ? s + 1 : k == 2 ? s - stride : s + stride;
+                if (position.get(n) != attacker || !position.isInAtari(n)) continue;
+                int lib = position.getAtariLiberty(n);
+                boolean known = false;
+                for (int i = frame; i < top; i++) {
+                    if (moves[i] == lib) {
+                        known = true;
+                        break;
+                    }
+                }
+                if (!known) push(lib);
+            }
+            s = position.nextInChain(s);
+        } while (s != prey);
+    }
+
+    private boolean spend() {
+        if (nodes == nodeBudget) {
+            exhausted = true;
+            return false;
+        }
+        nodes++;
+        return true;
+    }
+
+    private void push(int point) {
+        if (top == moves.length) {
+            moves = java.util.Arrays.copyOf(moves, top * 2);
+        }
+        moves[top++] = point;
+    }
+}
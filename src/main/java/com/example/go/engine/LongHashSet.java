@@ -0,0 +1,118 @@
+package com.example.go.engine;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressed set of primitive longs with linear probing. Removal uses
+ * backward shifting, so there are no tombstones and lookups stay short.
+ */
+final class LongHashSet {
+    private long[] keys;
+    private int mask;
+    private int size;
+    // 0 marks an empty slot, so the key 0 is tracked separately
+    private boolean hasZero;
+
+    LongHashSet() {
+        this(16);
+    }
+
+    LongHashSet(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(4, capacity - 1)) << 1;
+        keys = new long[cap];
+        mask = cap - 1;
+    }
+
+    boolean contains(long key) {
+        if (key == 0) return hasZero;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == 0) return false;
+            if (k == key) return true;
+        }
+    }
+
+    boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(key);
+        for (long k = keys[i]; k != 0; k = keys[i]) {
+            if (k == key) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = slot(key);
+        for (long k = keys[i]; k != key; k = keys[i]) {
+            if (k == 0) return false;
+            i = (i + 1) & mask;
+        }
+        // Shift later entries of the probe run back into the hole
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void copyFrom(LongHashSet other) {
+        if (keys.length != other.keys.length) {
+            keys = new long[other.keys.length];
+            mask = other.mask;
+        }
+        System.arraycopy(other.keys, 0, keys, 0, keys.length);
+        hasZero = other.hasZero;
+        size = other.size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long k : old) {
+            if (k == 0) continue;
+            int i = slot(k);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = k;
+        }
+    }
+}
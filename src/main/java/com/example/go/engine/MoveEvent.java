@@ -0,0 +1,51 @@
+package com.example.go.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a move applied through {@link GoPosition#makeMove}, with the
+ * groups it touched. The move number and board hash tie a slow move to the
+ * game state it was played in.
+ */
+@Name("com.example.go.Move")
+@Label("Move Applied")
+@Category({"Go", "Engine"})
+@Description("A stone placed through makeMove, with the captures and merges it caused")
+final class MoveEvent extends jdk.jfr.Event {
+    @Label("Column")
+    int col;
+
+    @Label("Row")
+    int row;
+
+    @Label("Colour")
+    String color;
+
+    @Label("Move Number")
+    int moveNumber;
+
+    @Label("Board Hash")
+    @Description("Zobrist hash of the board before the move")
+    long boardHash;
+
+    @Label("Stones Captured")
+    int capturedStones;
+
+    @Label("Groups Captured")
+    int capturedGroups;
+
+    @Label("Largest Capture")
+    @Description("Size of the largest group captured")
+    int largestCapture;
+
+    @Label("Groups Merged")
+    @Description("Own groups joined by the new stone")
+    int mergedGroups;
+
+    @Label("Group Size")
+    @Description("Stones in the new stone's group after the move")
+    int groupSize;
+}
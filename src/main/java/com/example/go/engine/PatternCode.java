@@ -0,0 +1,77 @@
+package com.example.go.engine;
+
+/**
+ * The 3x3 neighbourhood of an empty point packed into one int, small enough
+ * to index a table directly. Bits 0-15 hold the eight surrounding points,
+ * two bits each ({@link GoPosition#EMPTY}, {@code BLACK}, {@code WHITE} or
+ * {@code BORDER}), row by row: NW, N, NE, W, E, SW, S, SE. Bits 16-19 are
+ * set when the stone to the N, W, E or S belongs to a chain in atari.
+ *
+ * {@link GoPosition#setPatternTracking(boolean)} keeps the code of every
+ * empty point current; {@link #of} computes one from scratch.
+ */
+public final class PatternCode {
+    /** Number of distinct codes, for sizing lookup tables. */
+    public static final int COUNT = 1 << 20;
+
+    public static final int NORTH = 0;
+    public static final int WEST = 1;
+    public static final int EAST = 2;
+    public static final int SOUTH = 3;
+
+    // Position of each orthogonal neighbour in the NW..SE order
+    private static final int[] ORTHOGONAL = {1, 3, 4, 6};
+
+    private PatternCode() {
+    }
+
+    /** Code of {@code point} in {@code position}, looking at the board itself. */
+    public static int of(GoPosition position, int point) {
+        int stride = position.getStride();
+        int code = position.get(point - stride - 1)
+                | position.get(point - stride) << 2
+                | position.get(point - stride + 1) << 4
+                | position.get(point - 1) << 6
+                | position.get(point + 1) << 8
+                | position.get(point + stride - 1) << 10
+                | position.get(point + stride) << 12
+                | position.get(point + stride + 1) << 14;
+        code |= atari(position, point - stride) << 16
+                | atari(position, point - 1) << 17
+                | atari(position, point + 1) << 18
+                | atari(position, point + stride) << 19;
+        return code;
+    }
+
+    private static int atari(GoPosition position, int n) {
+        byte c = position.get(n);
+        return (c == GoPosition.BLACK || c == GoPosition.WHITE) && position.isInAtari(n) ? 1 : 0;
+    }
+
+    /** What is at neighbour {@code i}, 0 (NW) to 7 (SE). */
+    public static byte neighbour(int code, int i) {
+        return (byte) (code >>> (2 * i) & 3);
+    }
+
+    /** What is next to the point in {@code direction}, {@link #NORTH} to {@link #SOUTH}. */
+    public static byte side(int code, int direction) {
+        return neighbour(code, ORTHOGONAL[direction]);
+    }
+
+    /** Whether the stone in {@code direction}, {@link #NORTH} to {@link #SOUTH}, is in atari. */
+    public static boolean inAtari(int code, int direction) {
+        return (code >>> (16 + direction) & 1) != 0;
+    }
+
+    /**
+     * The same code with Black and White exchanged, so one table written from
+     * Black's side serves both colours.
+     */
+    public static int swapColors(int code) {
+        // Fields holding 1 or 2 have exactly one bit set; flipping both bits swaps them
+        int low = code & 0x5555;
+        int high = code >>> 1 & 0x5555;
+        int differ = low ^ high;
+        return code ^ (differ | differ << 1);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.go.engine;
+
+/**
+ * The {@link PatternCode} of every empty point of a {@link GoPosition},
+ * refreshed after each move or undo around the points that changed instead
+ * of over the whole board.
+ *
+ * A point's colour bits only change when one of its eight neighbours
+ * changes, so each of those gets the one field for that neighbour rewritten.
+ * Its atari bits change when a chain next to it goes into or out of atari,
+ * and every point that can carry such a bit is a liberty of that chain. A
+ * chain that lost liberties can only have gone into atari, which touches its
+ * one remaining liberty; a chain that gained liberties (next to captured
+ * stones, or to an undone move) may have come out of atari with its old
+ * liberty anywhere along it, so its liberties are all refreshed. That walk
+ * only happens on captures and undos.
+ *
+ * Points whose code changed, or that were filled or emptied, are also
+ * listed once each until the list is cleared, so a playout policy can keep
+ * its own per-point weights in step without rescanning the board.
+ */
+final class Patterns {
+    private final GoPosition position;
+    private final byte[] board;
+    private final int[] offsets;
+    private final int stride;
+    private final int[] code;
+
+    // Chains already walked during one update, by head
+    private final int[] seen;
+    private int seenStamp;
+
+    private final int[] changes;
+    private final boolean[] listed;
+    private int changeCount;
+
+    Patterns(GoPosition position, byte[] board, int[] offsets, int stride) {
+        this.position = position;
+        this.board = board;
+        this.offsets = offsets;
+        this.stride = stride;
+        this.code = new int[board.length];
+        this.seen = new int[board.length];
+        this.changes = new int[board.length];
+        this.listed = new boolean[board.length];
+    }
+
+    int code(int p) {
+        return code[p];
+    }
+
+    int changeCount() {
+        return changeCount;
+    }
+
+    int change(int i) {
+        return changes[i];
+    }
+
+    void clearChanges() {
+        for (int i = 0; i < changeCount; i++) {
+            listed[changes[i]] = false;
+        }
+        changeCount = 0;
+    }
+
+    /** Recomputes every code; every point on the board counts as changed. */
+    void rebuild() {
+        for (int p = stride; p < board.length - stride; p++) {
+            byte c = board[p];
+            if (c == GoPosition.BORDER) continue;
+            if (c == GoPosition.EMPTY) {
+                code[p] = PatternCode.of(position, p);
+            }
+            note(p);
+        }
+    }
+
+    void copyFrom(Patterns other) {
+        System.arraycopy(other.code, 0, code, 0, code.length);
+        clearChanges();
+        for (int p = stride; p < board.length - stride; p++) {
+            if (board[p] != GoPosition.BORDER) {
+                note(p);
+            }
+        }
+    }
+
+    /**
+     * Refreshes codes after a stone at {@code p} was placed and took the
+     * stones in {@code captured[from, to)}, or, with {@code undone}, after
+     * that was taken back.
+     */
+    void moved(int p, int[] captured, int from, int to, boolean undone) {
+        if (++seenStamp == 0) {
+            java.util.Arrays.fill(seen, 0);
+            seenStamp = 1;
+        }
+        refreshAround(p);
+        for (int i = from; i < to; i++) {
+            refreshAround(captured[i]);
+        }
+        if (undone) {
+            refreshLiberties(p);
+            for (int i = from; i < to; i++) {
+                refreshAtari(captured[i]);
+            }
+        } else {
+            refreshAtari(p);
+            for (int i = from; i < to; i++) {
+                refreshLiberties(captured[i]);
+            }
+        }
+    }
+
+    /**
+     * The point itself, and in each of its eight neighbours the one field
+     * that shows it, plus the atari bit for it in the four orthogonal ones.
+     */
+    private void refreshAround(int p) {
+        note(p);
+        refresh(p);
+        int color = board[p];
+        int atari = (color == GoPosition.BLACK || color == GoPosition.WHITE) && position.isInAtari(p) ? 1 : 0;
+        // p is neighbour 7 - i of its own neighbour i, and side 3 - k of its side k
+        setField(p - stride - 1, 7, color);
+        setField(p - stride, 6, color);
+        setField(p - stride + 1, 5, color);
+        setField(p - 1, 4, color);
+        setField(p + 1, 3, color);
+        setField(p + stride - 1, 2, color);
+        setField(p + stride, 1, color);
+        setField(p + stride + 1, 0, color);
+        setAtari(p - stride, PatternCode.SOUTH, atari);
+        setAtari(p - 1, PatternCode.EAST, atari);
+        setAtari(p + 1, PatternCode.WEST, atari);
+        setAtari(p + stride, PatternCode.NORTH, atari);
+    }
+
+    private void setField(int q, int field, int color) {
+        if (board[q] == GoPosition.EMPTY) {
+            int shift = 2 * field;
+            update(q, code[q] & ~(3 << shift) | color << shift);
+        }
+    }
+
+    private void setAtari(int q, int direction, int atari) {
+        if (board[q] == GoPosition.EMPTY) {
+            int bit = 1 << (16 + direction);
+            update(q, atari != 0 ? code[q] | bit : code[q] & ~bit);
+        }
+    }
+
+    /** The single liberty of each chain next to {@code p} that is now in atari. */
+    private void refreshAtari(int p) {
+        for (int k = 0; k < 4; k++) {
+            int n = p + offsets[k];
+            byte c = board[n];
+            if ((c == GoPosition.BLACK || c == GoPosition.WHITE) && position.isInAtari(n)) {
+                refresh(position.getAtariLiberty(n));
+            }
+        }
+    }
+
+    /** Every liberty of each chain next to {@code p}. */
+    private void refreshLiberties(int p) {
+        for (int k = 0; k < 4; k++) {
+            int n = p + offsets[k];
+            byte c = board[n];
+            if (c != GoPosition.BLACK && c != GoPosition.WHITE) continue;
+            int head = position.getChainHead(n);
+            if (seen[head] == seenStamp) continue;
+            seen[head] = seenStamp;
+            int s = head;
+            do {
+                for (int j = 0; j < 4; j++) {
+                    refresh(s + offsets[j]);
+                }
+                s = position.nextInChain(s);
+            } while (s != head);
+        }
+    }
+
+    private void refresh(int q) {
+        if (board[q] == GoPosition.EMPTY) {
+            update(q, PatternCode.of(position, q));
+        }
+    }
+
+    private void update(int q, int newCode) {
+        if (code[q] != newCode) {
+            code[q] = newCode;
+            note(q);
+        }
+    }
+
+    private void note(int q) {
+        if (!listed[q]) {
+            listed[q] = true;
+            changes[changeCount++] = q;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.go.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Light random playouts. From a starting position each side plays a
+ * uniformly random legal move that does not fill one of its own single-point
+ * eyes, until both sides pass in a row. The final position is scored with
+ * {@link GoPosition#calculateJapaneseScoring()}.
+ *
+ * With {@link #setPatternWeights pattern weights} set, moves are drawn in
+ * proportion to the weight of their {@link PatternCode} instead, read from
+ * codes the position keeps current as it goes.
+ *
+ * Playouts run on a private copy of the start position with superko off
+ * (simple ko is still enforced), and nothing is allocated per move. One
+ * instance per thread; instances are not thread-safe.
+ */
+public final class Playout {
+    private static final LongAdder TOTAL_PLAYOUTS = new LongAdder();
+    private static final LongAdder TOTAL_MOVES = new LongAdder();
+
+    private GoPosition position;
+    private long state;
+    private int lastMoveCount;
+    private int[] patternWeights;
+    // Weighted draws, by side (0 Black, 1 White): each point's weight plus
+    // per-row and board sums, kept in step with the position's pattern changes
+    private int[][] pointWeight;
+    private long[][] rowWeight;
+    private final long[] totalWeight = new long[2];
+    // Points taken out of one draw and their weights, put back afterwards
+    private int[] dropped;
+    private int[] droppedWeight;
+
+    public Playout(long seed) {
+        // xorshift must not start from zero
+        this.state = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+    }
+
+    /**
+     * Plays {@code start} out to the end without modifying it.
+     * Returns Black's score minus White's score, before komi.
+     */
+    public int run(GoPosition start) {
+        GoPosition pos = positionFor(start);
+        pos.copyFrom(start);
+        pos.setSuperkoEnabled(false);
+        pos.setPatternTracking(patternWeights != null);
+        if (patternWeights != null) {
+            // The fresh tracking lists every point as changed, so the first draw resyncs them all
+            int size = (pos.getRows() + 2) * pos.getStride() + 1;
+            if (pointWeight == null || pointWeight[0].length != size) {
+                pointWeight = new int[2][size];
+                rowWeight = new long[2][pos.getRows() + 2];
+                totalWeight[0] = 0;
+                totalWeight[1] = 0;
+                dropped = new int[pos.getCols() * pos.getRows()];
+                droppedWeight = new int[dropped.length];
+            }
+        }
+
+        // Guards against rare long cycles (triple ko) that simple ko allows
+        int limit = pos.getCols() * pos.getRows() * 3;
+        int moves = 0;
+        while (pos.getPassCount() < 2 && moves < limit) {
+            int p = patternWeights == null ? chooseMove(pos) : chooseWeightedMove(pos);
+            if (p == GoPosition.PASS) {
+                pos.pass();
+            } else {
+                pos.playUnchecked(p);
+            }
+            moves++;
+        }
+
+        lastMoveCount = moves;
+        TOTAL_PLAYOUTS.increment();
+        TOTAL_MOVES.add(moves);
+
+        pos.calculateJapaneseScoring();
+        return pos.getBlackScore() - pos.getWhiteScore();
+    }
+
+    /**
+     * Weights moves by the {@link PatternCode} of their point, as seen by
+     * Black: when White is to move the colours are swapped before the lookup,
+     * so BLACK in a code always means the mover's stones. The table needs
+     * {@link PatternCode#COUNT} non-negative entries; a weight of zero keeps
+     * a shape from being played at all. Null goes back to uniform moves.
+     */
+    public void setPatternWeights(int[] weights) {
+        if (weights != null && weights.length != PatternCode.COUNT) {
+            throw new IllegalArgumentException("Need " + PatternCode.COUNT + " weights, got " + weights.length);
+        }
+        this.patternWeights = weights;
+    }
+
+    /** Final position of the last playout. */
+    public GoPosition getPosition() {
+        return position;
+    }
+
+    public int getLastMoveCount() {
+        return lastMoveCount;
+    }
+
+    /** Playouts completed by every instance in this process. */
+    public static long getTotalPlayouts() {
+        return TOTAL_PLAYOUTS.sum();
+    }
+
+    /** Moves played by every playout in this process. */
+    public static long getTotalMoves() {
+        return TOTAL_MOVES.sum();
+    }
+
+    /**
+     * Uniform choice among acceptable moves: draw from the empty list and
+     * swap rejects past the end of a shrinking window, so every draw is
+     * still uniform over the points not yet rejected.
+     */
+    private int chooseMove(GoPosition pos) {
+        byte me = pos.getToMove();
+        int ko = pos.getKoPoint();
+        int stride = pos.getStride();
+        int n = pos.getEmptyCount();
+        while (n > 0) {
+            int i = nextInt(n);
+            int p = pos.getEmptyPoint(i);
+            // An empty neighbour rules out both an eye and suicide, which settles most draws
+            boolean open = pos.get(p - 1) == GoPosition.EMPTY || pos.get(p + 1) == GoPosition.EMPTY
+                    || pos.get(p - stride) == GoPosition.EMPTY || pos.get(p + stride) == GoPosition.EMPTY;
+            if (p != ko && (open || (!isOwnEye(pos, p, me) && !pos.wouldBeSuicide(p, me)))) {
+                return p;
+            }
+            pos.swapEmpty(i, --n);
+        }
+        return GoPosition.PASS;
+    }
+
+    /**
+     * Roulette choice by pattern weight: pick a row from the row sums, then
+     * the point within it. A drawn point that turns out to be an own eye or
+     * suicide is dropped from the sums and the draw repeated; the ko point
+     * is dropped up front. Dropped points are put back before returning.
+     */
+    private int chooseWeightedMove(GoPosition pos) {
+        syncWeights(pos);
+        byte me = pos.getToMove();
+        int side = me == GoPosition.BLACK ? 0 : 1;
+        int stride = pos.getStride();
+        int[] weight = pointWeight[side];
+        long[] rows = rowWeight[side];
+        int drops = 0;
+        int ko = pos.getKoPoint();
+        if (ko != GoPosition.PASS) {
+            drops = drop(side, ko, stride, drops);
+        }
+
+        int chosen = GoPosition.PASS;
+        while (totalWeight[side] > 0) {
+            long r = nextLong(totalWeight[side]);
+            int row = 1;
+            while (r >= rows[row]) {
+                r -= rows[row++];
+            }
+            int p = row * stride;
+            while (r >= weight[p]) {
+                r -= weight[p++];
+            }
+            boolean open = pos.get(p - 1) == GoPosition.EMPTY || pos.get(p + 1) == GoPosition.EMPTY
+                    || pos.get(p - stride) == GoPosition.EMPTY || pos.get(p + stride) == GoPosition.EMPTY;
+            if (open || (!isOwnEye(pos, p, me) && !pos.wouldBeSuicide(p, me))) {
+                chosen = p;
+                break;
+            }
+            drops = drop(side, p, stride, drops);
+        }
+        for (int i = 0; i < drops; i++) {
+            setWeight(side, dropped[i], stride, droppedWeight[i]);
+        }
+        return chosen;
+    }
+
+    /** Brings the weights of every point whose pattern changed up to date. */
+    private void syncWeights(GoPosition pos) {
+        int stride = pos.getStride();
+        int n = pos.getPatternChangeCount();
+        for (int i = 0; i < n; i++) {
+            int p = pos.getPatternChange(i);
+            int black = 0;
+            int white = 0;
+            if (pos.get(p) == GoPosition.EMPTY) {
+                int code = pos.getPatternCode(p);
+                black = patternWeights[code];
+                white = patternWeights[PatternCode.swapColors(code)];
+            }
+            setWeight(0, p, stride, black);
+            setWeight(1, p, stride, white);
+        }
+        pos.clearPatternChanges();
+    }
+
+    private int drop(int side, int p, int stride, int drops) {
+        dropped[drops] = p;
+        droppedWeight[drops] = pointWeight[side][p];
+        setWeight(side, p, stride, 0);
+        return drops + 1;
+    }
+
+    private void setWeight(int side, int p, int stride, int value) {
+        int delta = value - pointWeight[side][p];
+        pointWeight[side][p] = value;
+        rowWeight[side][p / stride] += delta;
+        totalWeight[side] += delta;
+    }
+
+    /**
+     * Single-point eye of {@code me}: all neighbours are own stones or edge,
+     * and the diagonals do not make it a false eye (no opponent diagonal on
+     * the edge, at most one in the middle of the board).
+     */
+    public static boolean isOwnEye(GoPosition pos, int p, byte me) {
+        int stride = pos.getStride();
+        byte c;
+        if ((c = pos.get(p - 1)) != me && c != GoPosition.BORDER) return false;
+        if ((c = pos.get(p + 1)) != me && c != GoPosition.BORDER) return false;
+        if ((c = pos.get(p - stride)) != me && c != GoPosition.BORDER) return false;
+        if ((c = pos.get(p + stride)) != me && c != GoPosition.BORDER) return false;
+
+        byte other = GoPosition.opponent(me);
+        int opponentDiagonals = 0;
+        boolean edge = false;
+        for (int q = p - stride - 1; q <= p + stride + 1; q += 2 * stride) {
+            if ((c = pos.get(q)) == other) opponentDiagonals++;
+            else if (c == GoPosition.BORDER) edge = true;
+            if ((c = pos.get(q + 2)) == other) opponentDiagonals++;
+            else if (c == GoPosition.BORDER) edge = true;
+        }
+        return opponentDiagonals < (edge ? 1 : 2);
+    }
+
+    private GoPosition positionFor(GoPosition start) {
+        if (position == null || position.getCols() != start.getCols() || position.getRows() != start.getRows()) {
+            position = new GoPosition(start.getCols(), start.getRows());
+        }
+        return position;
+    }
+
+    /** Uniform in [0, bound); the modulo bias is negligible for any realistic total weight. */
+    private long nextLong(long bound) {
+        return (next() >>> 1) % bound;
+    }
+
+    private int nextInt(int bound) {
+        long r = next() >>> 32;
+        return (int) ((r * bound) >>> 32);
+    }
+
+    /** xorshift64* step. */
+    private long next() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+}
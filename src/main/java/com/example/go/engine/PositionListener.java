@@ -0,0 +1,18 @@
+package com.example.go.engine;
+
+/**
+ * Told which intersections a {@link GoPosition} changed, so a view can
+ * redraw just those. Callbacks run on the thread that changed the position,
+ * after the change is complete.
+ */
+public interface PositionListener {
+    /**
+     * A move or undo changed {@code points[0..count)}: the stone placed or
+     * taken back first, then the stones captured or restored. The array is
+     * reused for the next change, so copy anything kept past the call.
+     */
+    void pointsChanged(GoPosition position, int[] points, int count);
+
+    /** Any number of points changed at once: reset, setup edit or copy. */
+    void positionReset(GoPosition position);
+}
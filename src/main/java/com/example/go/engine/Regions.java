@@ -0,0 +1,416 @@
+package com.example.go.engine;
+
+/**
+ * Empty regions of a {@link GoPosition}, kept up to date as single points
+ * change between empty and occupied, so territory can be read in O(1).
+ *
+ * Every empty point carries a region id. Per id we keep the size and, like
+ * the pseudo-liberties of chains, counts of (empty point, neighbour) pairs
+ * that touch the edge, a black stone or a white stone. A region is territory
+ * under the same rule as {@link GoPosition#calculateJapaneseScoring()}: it
+ * must not touch the edge and must border exactly one colour. Running totals
+ * of black and white territory are adjusted whenever a region's counts change.
+ *
+ * A point becoming empty merges the regions around it by relabelling the
+ * smaller ones. A point becoming occupied may split its region; the pieces
+ * are found with one breadth-first search per empty neighbour, run in
+ * lock step (after a quick look at the eight surrounding points rules out
+ * a split in most open positions), stopping as soon as all but one piece are fully explored. Only
+ * the small pieces get new ids, so cutting a corner off a large open area
+ * costs the size of the corner, not of the area.
+ */
+final class Regions {
+    private final byte[] board;
+    private final int[] offsets;
+
+    private final int[] regionOf;
+    private final int[] size;
+    private final int[] edge;
+    private final int[] black;
+    private final int[] white;
+    private final int[] free;
+    private int freeTop;
+
+    private int blackTerritory;
+    private int whiteTerritory;
+
+    // Scratch for splits: one visit queue per empty neighbour, merged when they meet
+    private final int[][] queue = new int[4][];
+    private final int[] head = new int[4];
+    private final int[] tail = new int[4];
+    private final int[] parent = new int[4];
+    private int lastOpen;
+    private final int[] seen;
+    private final byte[] seenBy;
+    private int seenStamp;
+
+    Regions(byte[] board, int[] offsets, int points) {
+        this.board = board;
+        this.offsets = offsets;
+        this.regionOf = new int[board.length];
+        // Ids start at 1 so 0 can mean "no region"
+        this.size = new int[points + 1];
+        this.edge = new int[points + 1];
+        this.black = new int[points + 1];
+        this.white = new int[points + 1];
+        this.free = new int[points];
+        for (int k = 0; k < 4; k++) {
+            queue[k] = new int[points];
+        }
+        this.seen = new int[board.length];
+        this.seenBy = new byte[board.length];
+    }
+
+    int getBlackTerritory() {
+        return blackTerritory;
+    }
+
+    int getWhiteTerritory() {
+        return whiteTerritory;
+    }
+
+    /** Number of empty regions on the board. */
+    int regionCount() {
+        return free.length - freeTop;
+    }
+
+    int regionSize(int p) {
+        return board[p] == GoPosition.EMPTY ? size[regionOf[p]] : 0;
+    }
+
+    /** BLACK or WHITE if the region around empty point {@code p} is that colour's territory, else EMPTY. */
+    byte owner(int p) {
+        if (board[p] != GoPosition.EMPTY) return GoPosition.EMPTY;
+        int id = regionOf[p];
+        if (edge[id] != 0) return GoPosition.EMPTY;
+        if (black[id] != 0 && white[id] == 0) return GoPosition.BLACK;
+        if (white[id] != 0 && black[id] == 0) return GoPosition.WHITE;
+        return GoPosition.EMPTY;
+    }
+
+    /** Recomputes every region from the board. */
+    void rebuild() {
+        java.util.Arrays.fill(regionOf, 0);
+        freeTop = 0;
+        for (int id = free.length; id >= 1; id--) {
+            free[freeTop++] = id;
+        }
+        blackTerritory = 0;
+        whiteTerritory = 0;
+        int[] q = queue[0];
+        for (int p = 0; p < board.length; p++) {
+            if (board[p] != GoPosition.EMPTY || regionOf[p] != 0) continue;
+            int id = free[--freeTop];
+            size[id] = 0;
+            edge[id] = 0;
+            black[id] = 0;
+            white[id] = 0;
+            int n = 0;
+            q[n++] = p;
+            regionOf[p] = id;
+            for (int i = 0; i < n; i++) {
+                int cur = q[i];
+                size[id]++;
+                for (int k = 0; k < 4; k++) {
+                    int d = offsets[k];
+                    int nb = cur + d;
+                    byte c = board[nb];
+                    if (c == GoPosition.EMPTY) {
+                        if (regionOf[nb] == 0) {
+                            regionOf[nb] = id;
+                            q[n++] = nb;
+                        }
+                    } else {
+                        countNeighbour(id, c, 1);
+                    }
+                }
+            }
+            count(id, 1);
+        }
+    }
+
+    void copyFrom(Regions other) {
+        System.arraycopy(other.regionOf, 0, regionOf, 0, regionOf.length);
+        System.arraycopy(other.size, 0, size, 0, size.length);
+        System.arraycopy(other.edge, 0, edge, 0, edge.length);
+        System.arraycopy(other.black, 0, black, 0, black.length);
+        System.arraycopy(other.white, 0, white, 0, white.length);
+        System.arraycopy(other.free, 0, free, 0, other.freeTop);
+        freeTop = other.freeTop;
+        blackTerritory = other.blackTerritory;
+        whiteTerritory = other.whiteTerritory;
+    }
+
+    /** Point {@code p} has just become empty; it used to hold a stone of {@code was}. */
+    void pointEmptied(int p, byte was) {
+        // Pick the largest neighbouring region as the one the others join
+        int target = 0;
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            if (board[n] == GoPosition.EMPTY) {
+                int id = regionOf[n];
+                if (target == 0 || size[id] > size[target]) {
+                    target = id;
+                }
+            }
+        }
+        if (target == 0) {
+            target = free[--freeTop];
+            size[target] = 0;
+            edge[target] = 0;
+            black[target] = 0;
+            white[target] = 0;
+        } else {
+            count(target, -1);
+            for (int k = 0; k < 4; k++) {
+                int d = offsets[k];
+                int n = p + d;
+                if (board[n] == GoPosition.EMPTY && regionOf[n] != target) {
+                    absorb(target, regionOf[n], n);
+                }
+            }
+        }
+
+        regionOf[p] = target;
+        size[target]++;
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            byte c = board[n];
+            if (c == GoPosition.EMPTY) {
+                // n no longer has the removed stone next to it
+                countNeighbour(target, was, -1);
+            } else {
+                countNeighbour(target, c, 1);
+            }
+        }
+        count(target, 1);
+    }
+
+    /** Point {@code p} has just been occupied by a stone of {@code color}. */
+    void pointFilled(int p, byte color) {
+        int id = regionOf[p];
+        regionOf[p] = 0;
+        count(id, -1);
+        size[id]--;
+
+        int starts = 0;
+        for (int k = 0; k < 4; k++) {
+            int d = offsets[k];
+            int n = p + d;
+            byte c = board[n];
+            if (c == GoPosition.EMPTY) {
+                countNeighbour(id, color, 1);
+                queue[starts][0] = n;
+                starts++;
+            } else {
+                countNeighbour(id, c, -1);
+            }
+        }
+
+        if (size[id] == 0) {
+            free[freeTop++] = id;
+            return;
+        }
+        if (starts > 1 && !locallyConnected(p, starts)) {
+            split(id, starts);
+        }
+        count(id, 1);
+    }
+
+    /**
+     * True when the empty neighbours of {@code p} are joined through the empty
+     * diagonals around it, so filling {@code p} cannot split its region. This
+     * settles most moves in open areas without a search.
+     */
+    private boolean locallyConnected(int p, int starts) {
+        int stride = offsets[3];
+        int n = p - stride;
+        int e = p + 1;
+        int s = p + stride;
+        int w = p - 1;
+        int links = 0;
+        if (board[n] == GoPosition.EMPTY && board[e] == GoPosition.EMPTY && board[n + 1] == GoPosition.EMPTY) links++;
+        if (board[e] == GoPosition.EMPTY && board[s] == GoPosition.EMPTY && board[s + 1] == GoPosition.EMPTY) links++;
+        if (board[s] == GoPosition.EMPTY && board[w] == GoPosition.EMPTY && board[s - 1] == GoPosition.EMPTY) links++;
+        if (board[w] == GoPosition.EMPTY && board[n] == GoPosition.EMPTY && board[n - 1] == GoPosition.EMPTY) links++;
+        // Four empty neighbours and four links form a cycle, which is still one piece
+        return starts - links <= 1;
+    }
+
+    /**
+     * Region {@code id} may have fallen apart into up to {@code starts}
+     * pieces, one around each queued start point. Every piece but the one
+     * still growing when the others finish gets a fresh id.
+     */
+    private void split(int id, int starts) {
+        int stamp = nextStamp();
+        // Neighbours of one point are never adjacent to each other, so every start is its own piece
+        int pieces = starts;
+        for (int i = 0; i < starts; i++) {
+            int s = queue[i][0];
+            head[i] = 0;
+            tail[i] = 1;
+            parent[i] = i;
+            seen[s] = stamp;
+            seenBy[s] = (byte) i;
+        }
+
+        // Step every search once per round until at most one piece is still open
+        int open;
+        while ((open = openPieces(starts)) > 1 && pieces > 1) {
+
+            for (int i = 0; i < starts; i++) {
+                if (head[i] == tail[i]) continue;
+                int cur = queue[i][head[i]++];
+                for (int k = 0; k < 4; k++) {
+                    int d = offsets[k];
+                    int n = cur + d;
+                    if (board[n] != GoPosition.EMPTY) continue;
+                    if (seen[n] != stamp) {
+                        seen[n] = stamp;
+                        seenBy[n] = (byte) i;
+                        queue[i][tail[i]++] = n;
+                    } else {
+                        int a = find(i);
+                        int b = find(seenBy[n]);
+                        if (a != b) {
+                            parent[b] = a;
+                            pieces--;
+                        }
+                    }
+                }
+            }
+        }
+        if (pieces == 1) return;
+
+        // Keep the id on an open piece if there is one, else on the largest
+        int keep = open == 1 ? lastOpen : -1;
+        if (keep < 0) {
+            int best = -1;
+            for (int i = 0; i < starts; i++) {
+                if (parent[i] != i) continue;
+                int n = visited(i, starts);
+                if (n > best) {
+                    best = n;
+                    keep = i;
+                }
+            }
+        }
+
+        for (int r = 0; r < starts; r++) {
+            if (parent[r] != r || r == keep) continue;
+            int fresh = free[--freeTop];
+            size[fresh] = 0;
+            edge[fresh] = 0;
+            black[fresh] = 0;
+            white[fresh] = 0;
+            for (int i = 0; i < starts; i++) {
+                if (find(i) != r) continue;
+                int[] q = queue[i];
+                for (int j = 0; j < tail[i]; j++) {
+                    int cur = q[j];
+                    regionOf[cur] = fresh;
+                    size[fresh]++;
+                    for (int k = 0; k < 4; k++) {
+                        int d = offsets[k];
+                        byte c = board[cur + d];
+                        if (c != GoPosition.EMPTY) {
+                            countNeighbour(fresh, c, 1);
+                        }
+                    }
+                }
+            }
+            size[id] -= size[fresh];
+            edge[id] -= edge[fresh];
+            black[id] -= black[fresh];
+            white[id] -= white[fresh];
+            count(fresh, 1);
+        }
+    }
+
+    /** Number of pieces with a search still running; the last one found is left in {@link #lastOpen}. */
+    private int openPieces(int starts) {
+        int open = 0;
+        int seenMask = 0;
+        for (int i = 0; i < starts; i++) {
+            if (head[i] == tail[i]) continue;
+            int r = find(i);
+            if ((seenMask & (1 << r)) == 0) {
+                seenMask |= 1 << r;
+                open++;
+                lastOpen = r;
+            }
+        }
+        return open;
+    }
+
+    private int visited(int root, int starts) {
+        int n = 0;
+        for (int i = 0; i < starts; i++) {
+            if (find(i) == root) n += tail[i];
+        }
+        return n;
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /** Relabels region {@code from}, which contains {@code start}, into {@code into}. */
+    private void absorb(int into, int from, int start) {
+        count(from, -1);
+        int[] q = queue[0];
+        int n = 0;
+        q[n++] = start;
+        regionOf[start] = into;
+        for (int i = 0; i < n; i++) {
+            int cur = q[i];
+            for (int k = 0; k < 4; k++) {
+                int d = offsets[k];
+                int nb = cur + d;
+                if (board[nb] == GoPosition.EMPTY && regionOf[nb] == from) {
+                    regionOf[nb] = into;
+                    q[n++] = nb;
+                }
+            }
+        }
+        size[into] += size[from];
+        edge[into] += edge[from];
+        black[into] += black[from];
+        white[into] += white[from];
+        free[freeTop++] = from;
+    }
+
+    private void countNeighbour(int id, byte c, int delta) {
+        if (c == GoPosition.BLACK) {
+            black[id] += delta;
+        } else if (c == GoPosition.WHITE) {
+            white[id] += delta;
+        } else {
+            edge[id] += delta;
+        }
+    }
+
+    /** Adds ({@code sign} 1) or removes ({@code sign} -1) the region's territory from the totals. */
+    private void count(int id, int sign) {
+        if (edge[id] != 0) return;
+        if (black[id] != 0 && white[id] == 0) {
+            blackTerritory += sign * size[id];
+        } else if (white[id] != 0 && black[id] == 0) {
+            whiteTerritory += sign * size[id];
+        }
+    }
+
+    private int nextStamp() {
+        if (++seenStamp == 0) {
+            java.util.Arrays.fill(seen, 0);
+            seenStamp = 1;
+        }
+        return seenStamp;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.go.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for a {@link GoPosition#calculateJapaneseScoring()} run. Every
+ * playout ends in one, so by default only runs slower than the threshold
+ * are recorded; set it to 0 ms in a recording's settings to see them all.
+ */
+@Name("com.example.go.Scoring")
+@Label("Scoring Run")
+@Category({"Go", "Engine"})
+@Threshold("10 us")
+final class ScoringEvent extends jdk.jfr.Event {
+    @Label("Empty Regions")
+    int regions;
+
+    @Label("Tracked")
+    @Description("Read from incrementally tracked territory rather than a flood fill")
+    boolean tracked;
+
+    @Label("Dead Stones")
+    @Description("Stones scored as dead, as prisoners for the other side")
+    int deadStones;
+
+    @Label("Black Territory")
+    int blackTerritory;
+
+    @Label("White Territory")
+    int whiteTerritory;
+
+    @Label("Move Number")
+    int moveNumber;
+
+    @Label("Board Hash")
+    long boardHash;
+}
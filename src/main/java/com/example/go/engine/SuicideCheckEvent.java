@@ -0,0 +1,30 @@
+package com.example.go.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one {@link GoPosition#wouldBeSuicide} check. Playouts run
+ * millions of these, so it is off unless a recording turns it on.
+ */
+@Name("com.example.go.SuicideCheck")
+@Label("Suicide Check")
+@Category({"Go", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+final class SuicideCheckEvent extends jdk.jfr.Event {
+    @Label("Column")
+    int col;
+
+    @Label("Row")
+    int row;
+
+    @Label("Colour")
+    String color;
+
+    @Label("Suicide")
+    boolean suicide;
+}
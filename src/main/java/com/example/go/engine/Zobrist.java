@@ -0,0 +1,28 @@
+package com.example.go.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for {@link GoPosition}. The table is generated from a fixed
+ * seed, so hashes are stable between runs and can be stored on disk.
+ */
+final class Zobrist {
+    static final long WHITE_TO_MOVE;
+    private static final long[] KEYS;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x60D0B0A2D5EEDL);
+        WHITE_TO_MOVE = random.nextLong();
+        KEYS = new long[GoPosition.MAX_POINTS * 2];
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    static long key(int point, byte color) {
+        return KEYS[(point << 1) + color - 1];
+    }
+}
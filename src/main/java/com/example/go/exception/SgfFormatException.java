@@ -0,0 +1,8 @@
+package com.example.go.exception;
+
+public class SgfFormatException extends RuntimeException {
+
+    public SgfFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,429 @@
+package com.example.go.gtp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.search.MctsSearch;
+import com.example.go.search.SearchResult;
+
+/**
+ * Go Text Protocol (version 2) front end for the engine, for match runners
+ * and analysis GUIs that talk GTP over stdin/stdout.
+ *
+ * It drives a {@link GoPosition} directly rather than a {@code Board}, so
+ * the same rules apply (captures, ko, positional superko, Japanese scoring
+ * with prisoners) but nothing from AWT or Swing is loaded. Each command is
+ * parsed in place from the input line and answered from one reused buffer;
+ * apart from {@code genmove}, whose time goes to {@link MctsSearch}, a
+ * command costs a few microseconds.
+ */
+public final class GtpEngine {
+    /** GTP coordinates are letters, which run out at 25 columns. */
+    public static final int MAX_SIZE = 25;
+    private static final String COLUMNS = "ABCDEFGHJKLMNOPQRSTUVWXYZ";
+    private static final String[] COMMANDS = {
+            "protocol_version", "name", "version", "known_command", "list_commands", "quit",
+            "boardsize", "clear_board", "komi", "play", "genmove", "undo", "final_score", "showboard"
+    };
+
+    private GoPosition position = new GoPosition(19, 19);
+    private double komi = 6.5;
+    private final int threads;
+    private long playouts = 10_000;
+    private long millis;
+    private MctsSearch search;
+    private final StringBuilder response = new StringBuilder(1024);
+    private boolean quit;
+
+    public GtpEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GtpEngine(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Budget for each {@code genmove}: a playout count, a time limit in
+     * milliseconds, or both; zero means no limit of that kind.
+     */
+    public void setSearchBudget(long playouts, long millis) {
+        if (playouts <= 0 && millis <= 0) {
+            throw new IllegalArgumentException("Set a playout or time budget");
+        }
+        this.playouts = playouts;
+        this.millis = millis;
+    }
+
+    public GoPosition getPosition() {
+        return position;
+    }
+
+    /** Answers commands from {@code in} until {@code quit} or end of input. */
+    public void run(Reader in, Writer out) throws IOException {
+        BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        try {
+            String line;
+            while (!quit && (line = lines.readLine()) != null) {
+                if (execute(line)) {
+                    out.append(response);
+                    out.flush();
+                }
+            }
+        } finally {
+            if (search != null) {
+                search.close();
+                search = null;
+            }
+        }
+    }
+
+    /**
+     * Runs one line of input. Returns false for blank and comment lines,
+     * which get no response; otherwise the full response, including the
+     * blank line that ends it, is in {@link #getResponse()}.
+     */
+    public boolean execute(String line) {
+        response.setLength(0);
+        int end = line.indexOf('#');
+        end = end < 0 ? line.length() : end;
+        int at = skipSpace(line, 0, end);
+        if (at == end) {
+            return false;
+        }
+
+        // Optional numeric id, echoed back in the response
+        int id = -1;
+        int idEnd = token(line, at, end);
+        if (isDigit(line.charAt(at)) && idEnd - at <= 9 && isNumber(line, at, idEnd)) {
+            id = Integer.parseInt(line.substring(at, idEnd));
+            at = skipSpace(line, idEnd, end);
+        }
+        int nameEnd = token(line, at, end);
+        String name = line.substring(at, nameEnd);
+        String[] args = args(line, nameEnd, end);
+
+        response.append('=');
+        if (id >= 0) {
+            response.append(id);
+        }
+        response.append(' ');
+        String error = dispatch(name, args);
+        if (error != null) {
+            response.setLength(0);
+            response.append('?');
+            if (id >= 0) {
+                response.append(id);
+            }
+            response.append(' ').append(error);
+        }
+        response.append("\n\n");
+        return true;
+    }
+
+    /** The response to the last command {@link #execute(String)} answered. */
+    public CharSequence getResponse() {
+        return response;
+    }
+
+    public boolean isQuit() {
+        return quit;
+    }
+
+    // ---------- Commands ----------
+
+    /** Runs a command, appending its result to the response; returns an error message or null. */
+    private String dispatch(String name, String[] args) {
+        switch (name) {
+            case "protocol_version":
+                response.append(2);
+                return null;
+            case "name":
+                response.append("GO_Game_Engine");
+                return null;
+            case "version":
+                response.append("1.0");
+                return null;
+            case "known_command":
+                response.append(args.length > 0 && isKnown(args[0]));
+                return null;
+            case "list_commands":
+                for (int i = 0; i < COMMANDS.length; i++) {
+                    response.append(i == 0 ? "" : "\n").append(COMMANDS[i]);
+                }
+                return null;
+            case "quit":
+                quit = true;
+                return null;
+            case "boardsize":
+                return boardsize(args);
+            case "clear_board":
+                position.reset();
+                return null;
+            case "komi":
+                return komi(args);
+            case "play":
+                return play(args);
+            case "genmove":
+                return genmove(args);
+            case "undo":
+                if (!position.canUndo()) {
+                    return "cannot undo";
+                }
+                position.undo();
+                return null;
+            case "final_score":
+                finalScore();
+                return null;
+            case "showboard":
+                showboard();
+                return null;
+            default:
+                return "unknown command";
+        }
+    }
+
+    private String boardsize(String[] args) {
+        if (args.length < 1) {
+            return "syntax error";
+        }
+        int size;
+        try {
+            size = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            return "syntax error";
+        }
+        if (size < 2 || size > MAX_SIZE) {
+            return "unacceptable size";
+        }
+        if (size != position.getCols() || size != position.getRows()) {
+            position = new GoPosition(size, size);
+        } else {
+            position.reset();
+        }
+        return null;
+    }
+
+    private String komi(String[] args) {
+        if (args.length < 1) {
+            return "syntax error";
+        }
+        try {
+            komi = Double.parseDouble(args[0]);
+        } catch (NumberFormatException e) {
+            return "syntax error";
+        }
+        if (search != null) {
+            search.setKomi(komi);
+        }
+        return null;
+    }
+
+    private String play(String[] args) {
+        if (args.length < 2) {
+            return "syntax error";
+        }
+        byte color = color(args[0]);
+        int move = vertex(args[1]);
+        if (color == GoPosition.EMPTY || move < 0) {
+            return "syntax error";
+        }
+        byte before = position.getToMove();
+        position.setToMove(color);
+        if (!position.play(move)) {
+            position.setToMove(before);
+            return "illegal move";
+        }
+        return null;
+    }
+
+    private String genmove(String[] args) {
+        byte color = args.length < 1 ? GoPosition.EMPTY : color(args[0]);
+        if (color == GoPosition.EMPTY) {
+            return "syntax error";
+        }
+        position.setToMove(color);
+        if (search == null) {
+            search = new MctsSearch(threads);
+        }
+        search.setKomi(komi);
+        SearchResult result = search.search(position, playouts, millis);
+        int move = result.getMoveCount() > 0 ? result.getBestMove() : GoPosition.PASS;
+        if (!position.play(move)) {
+            move = GoPosition.PASS;
+            position.pass();
+        }
+        appendVertex(move);
+        return null;
+    }
+
+    private void finalScore() {
+        GameEvents.score(position);
+        double margin = position.getBlackScore() - position.getWhiteScore() - komi;
+        if (margin == 0) {
+            response.append('0');
+            return;
+        }
+        response.append(margin > 0 ? "B+" : "W+");
+        double abs = Math.abs(margin);
+        if (abs == Math.rint(abs)) {
+            response.append((long) abs);
+        } else {
+            response.append(abs);
+        }
+    }
+
+    private void showboard() {
+        int cols = position.getCols();
+        int rows = position.getRows();
+        response.append('\n');
+        appendColumnLabels(cols);
+        for (int row = 0; row < rows; row++) {
+            int number = rows - row;
+            if (number < 10) {
+                response.append(' ');
+            }
+            response.append(number);
+            for (int col = 0; col < cols; col++) {
+                byte stone = position.getStone(col, row);
+                response.append(' ').append(stone == GoPosition.BLACK ? 'X' : stone == GoPosition.WHITE ? 'O' : '.');
+            }
+            response.append(' ').append(number);
+            if (row == 0) {
+                response.append("   Black (X) captured ").append(position.getCapturedByBlack());
+            } else if (row == 1) {
+                response.append("   White (O) captured ").append(position.getCapturedByWhite());
+            }
+            response.append('\n');
+        }
+        appendColumnLabels(cols);
+        response.setLength(response.length() - 1);
+    }
+
+    private void appendColumnLabels(int cols) {
+        response.append("  ");
+        for (int col = 0; col < cols; col++) {
+            response.append(' ').append(COLUMNS.charAt(col));
+        }
+        response.append('\n');
+    }
+
+    // ---------- Parsing ----------
+
+    private static boolean isKnown(String command) {
+        for (String known : COMMANDS) {
+            if (known.equals(command)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** BLACK or WHITE for "b", "black", "w" or "white" in any case; EMPTY otherwise. */
+    static byte color(String arg) {
+        if (arg.equalsIgnoreCase("b") || arg.equalsIgnoreCase("black")) {
+            return GoPosition.BLACK;
+        }
+        if (arg.equalsIgnoreCase("w") || arg.equalsIgnoreCase("white")) {
+            return GoPosition.WHITE;
+        }
+        return GoPosition.EMPTY;
+    }
+
+    /** The point for a vertex like "D4" (row 1 at the bottom), PASS for "pass", or -1. */
+    int vertex(String arg) {
+        if (arg.equalsIgnoreCase("pass")) {
+            return GoPosition.PASS;
+        }
+        if (arg.length() < 2) {
+            return -1;
+        }
+        int col = COLUMNS.indexOf(Character.toUpperCase(arg.charAt(0)));
+        int number = 0;
+        for (int i = 1; i < arg.length(); i++) {
+            char c = arg.charAt(i);
+            if (!isDigit(c) || number > MAX_SIZE) {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        int row = position.getRows() - number;
+        if (col < 0 || !position.isValidPosition(col, row)) {
+            return -1;
+        }
+        return position.point(col, row);
+    }
+
+    private void appendVertex(int move) {
+        if (move == GoPosition.PASS) {
+            response.append("pass");
+        } else {
+            response.append(COLUMNS.charAt(position.col(move))).append(position.getRows() - position.row(move));
+        }
+    }
+
+    private static String[] args(String line, int from, int end) {
+        int count = 0;
+        for (int at = skipSpace(line, from, end); at < end; at = skipSpace(line, token(line, at, end), end)) {
+            count++;
+        }
+        String[] args = new String[count];
+        int i = 0;
+        for (int at = skipSpace(line, from, end); at < end; ) {
+            int tokenEnd = token(line, at, end);
+            args[i++] = line.substring(at, tokenEnd);
+            at = skipSpace(line, tokenEnd, end);
+        }
+        return args;
+    }
+
+    // Control characters and tabs count as separators, as the protocol asks
+    private static int skipSpace(String line, int at, int end) {
+        while (at < end && line.charAt(at) <= ' ') {
+            at++;
+        }
+        return at;
+    }
+
+    private static int token(String line, int at, int end) {
+        while (at < end && line.charAt(at) > ' ') {
+            at++;
+        }
+        return at;
+    }
+
+    private static boolean isNumber(String line, int at, int end) {
+        for (int i = at; i < end; i++) {
+            if (!isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Speaks GTP on standard input and output.
+     * Usage: {@code GtpEngine [playouts] [millis] [threads]}
+     */
+    public static void main(String[] args) throws IOException {
+        long playouts = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        GtpEngine engine = new GtpEngine(threads);
+        engine.setSearchBudget(playouts, millis);
+        engine.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,455 @@
+package com.example.go.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Append-only log of game events in a directory, plus the snapshot that
+ * lets old segments be dropped. See {@link JournalFormat} for the files.
+ *
+ * Appends from any thread go on a queue. One writer thread takes everything
+ * queued, writes it in one call and forces it to disk once, then completes
+ * the whole batch's futures: the more games are busy, the more events share
+ * each fsync. Events of one game keep the order they were appended in.
+ *
+ * To compact, {@link #roll()} to a new segment, capture every game after
+ * that (each on its own thread), then {@link #writeSnapshot} the states. On
+ * restart, {@link #recover} loads the snapshot and replays only the
+ * segments written since.
+ */
+public final class GameJournal implements AutoCloseable {
+    public static final int NEW = 1;
+    public static final int MOVE = 2;
+    public static final int PASS = 3;
+    public static final int RESIGN = 4;
+    public static final int UNDO = 5;
+    public static final int CLOSE = 6;
+
+    // Records written per fsync at most; anything more waits for the next round
+    private static final int MAX_BATCH = 4096;
+
+    /** An event waiting for the writer, or a request to switch segments or stop. */
+    private static final class Entry {
+        static final int RECORD = 0;
+        static final int ROLL = 1;
+        static final int STOP = 2;
+
+        final int kind;
+        final long game;
+        final int seq;
+        final byte type;
+        final byte color;
+        final short arg;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Entry(int kind, long game, int seq, int type, byte color, int arg) {
+            this.kind = kind;
+            this.game = game;
+            this.seq = seq;
+            this.type = (byte) type;
+            this.color = color;
+            this.arg = (short) arg;
+        }
+    }
+
+    private final Path dir;
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_BATCH * JournalFormat.RECORD)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+
+    // Written by the writer thread only
+    private FileChannel channel;
+    private volatile long segment;
+    private volatile long records;
+    private volatile long syncs;
+    private volatile boolean closed;
+
+    private GameJournal(Path dir, long segment) throws IOException {
+        this.dir = dir;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+        this.writer = new Thread(this::writeLoop, "go-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens the journal in {@code dir}, creating it if needed. New events go
+     * to a fresh segment after any already there, so a torn record left by a
+     * crash is never followed by good ones. Run {@link #recover} first.
+     */
+    public static GameJournal open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        long last = 0;
+        for (long n : segments(dir)) {
+            last = Math.max(last, n);
+        }
+        return new GameJournal(dir, last + 1);
+    }
+
+    // ---------- Appending ----------
+
+    /**
+     * Queues one event; the future completes once it is on disk, or
+     * exceptionally if it could not be written.
+     */
+    public CompletableFuture<Void> append(long game, int seq, int type, byte color, int arg) {
+        Entry entry = new Entry(Entry.RECORD, game, seq, type, color, arg);
+        if (closed) {
+            entry.done.completeExceptionally(new IOException("Journal is closed"));
+            return entry.done;
+        }
+        queue.add(entry);
+        return entry.done;
+    }
+
+    /**
+     * Starts a new segment after every event already appended, and returns
+     * its number once the writer has switched to it.
+     */
+    public long roll() throws IOException {
+        Entry entry = new Entry(Entry.ROLL, 0, 0, 0, GoPosition.EMPTY, 0);
+        queue.add(entry);
+        await(entry.done);
+        return segment;
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            int written = 0;
+            IOException failure = null;
+            boolean stop = false;
+            for (int i = 0; i < batch.size() && failure == null && !stop; i++) {
+                Entry entry = batch.get(i);
+                try {
+                    if (entry.kind == Entry.RECORD) {
+                        encode(entry);
+                        continue;
+                    }
+                    // Everything before a roll or stop belongs in the old segment
+                    sync(batch, written, i);
+                    written = i + 1;
+                    if (entry.kind == Entry.ROLL) {
+                        FileChannel next = openSegment(segment + 1);
+                        channel.close();
+                        channel = next;
+                        segment++;
+                    } else {
+                        channel.close();
+                        stop = true;
+                    }
+                    entry.done.complete(null);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure == null && !stop) {
+                try {
+                    sync(batch, written, batch.size());
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                buffer.clear();
+                for (Entry entry : batch) {
+                    entry.done.completeExceptionally(failure);
+                }
+            }
+            if (stop) {
+                // Anything that raced in behind the stop is refused, not left hanging
+                IOException refused = new IOException("Journal is closed");
+                queue.drainTo(batch);
+                for (Entry entry : batch) {
+                    entry.done.completeExceptionally(refused);
+                }
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void encode(Entry entry) {
+        int start = buffer.position();
+        buffer.putLong(entry.game);
+        buffer.putInt(entry.seq);
+        buffer.put(entry.type);
+        buffer.put(entry.color);
+        buffer.putShort(entry.arg);
+        crc.reset();
+        ByteBuffer fields = buffer.duplicate();
+        fields.position(start).limit(start + 16);
+        crc.update(fields);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /** Writes the encoded records, forces them, and completes entries from..to. */
+    private void sync(List<Entry> batch, int from, int to) throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            syncs++;
+        }
+        buffer.clear();
+        for (int i = from; i < to; i++) {
+            Entry entry = batch.get(i);
+            if (entry.kind == Entry.RECORD) {
+                records++;
+                entry.done.complete(null);
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        FileChannel file = FileChannel.open(JournalFormat.segment(dir, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(JournalFormat.SEGMENT_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(JournalFormat.JOURNAL_MAGIC).putShort(JournalFormat.VERSION).putShort((short) 0).flip();
+        file.write(header);
+        file.force(true);
+        return file;
+    }
+
+    // ---------- Snapshots ----------
+
+    /**
+     * Saves {@code games} as the new snapshot and deletes the segments before
+     * {@code firstSegment}, which the states must already cover: pass the
+     * number {@link #roll()} returned before the games were captured.
+     * {@code nextId} is kept so ids of games closed since are not handed
+     * out again after a restart.
+     */
+    public void writeSnapshot(long firstSegment, long nextId, Collection<GameState> games) throws IOException {
+        int size = JournalFormat.SNAPSHOT_HEADER + 4;
+        for (GameState game : games) {
+            size += game.size();
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(JournalFormat.SNAPSHOT_MAGIC).putShort(JournalFormat.VERSION).putShort((short) 0);
+        out.putLong(firstSegment);
+        out.putLong(nextId);
+        out.putInt(games.size());
+        for (GameState game : games) {
+            game.write(out);
+        }
+        CRC32 sum = new CRC32();
+        sum.update(out.array(), 0, out.position());
+        out.putInt((int) sum.getValue());
+        out.flip();
+
+        // Written aside and renamed over the old one, so a crash leaves one or the other
+        Path temp = dir.resolve(JournalFormat.SNAPSHOT_TEMP);
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                file.write(out);
+            }
+            file.force(true);
+        }
+        Files.move(temp, dir.resolve(JournalFormat.SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        for (long n : segments(dir)) {
+            if (n < firstSegment) {
+                Files.deleteIfExists(JournalFormat.segment(dir, n));
+            }
+        }
+    }
+
+    // ---------- Recovery ----------
+
+    /** What {@link #recover} found in a journal directory. */
+    public static final class Recovery {
+        private final Map<Long, RecordedGame> games = new LinkedHashMap<>();
+        private long nextId = 1;
+
+        /** The games still open, by id. */
+        public Map<Long, RecordedGame> getGames() {
+            return games;
+        }
+
+        /** An id above every game the journal has seen, open or closed. */
+        public long getNextId() {
+            return nextId;
+        }
+    }
+
+    /**
+     * Rebuilds every game the journal in {@code dir} still holds, by id:
+     * the snapshot's states, then the events of the segments written after
+     * it. Closed games are left out. A segment is read up to its first
+     * damaged record, which can only be the tail a crash tore.
+     */
+    public static Recovery recover(Path dir) throws IOException {
+        Recovery recovery = new Recovery();
+        if (!Files.isDirectory(dir)) {
+            return recovery;
+        }
+        long first = 0;
+        Path snapshot = dir.resolve(JournalFormat.SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            first = readSnapshot(snapshot, recovery);
+        }
+        List<Long> numbers = segments(dir);
+        Collections.sort(numbers);
+        for (long n : numbers) {
+            if (n >= first) {
+                replaySegment(JournalFormat.segment(dir, n), recovery);
+            }
+        }
+        return recovery;
+    }
+
+    private static long readSnapshot(Path file, Recovery recovery) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < JournalFormat.SNAPSHOT_HEADER + 4 || in.getInt() != JournalFormat.SNAPSHOT_MAGIC) {
+            throw new IOException("Not a game snapshot: " + file);
+        }
+        CRC32 sum = new CRC32();
+        sum.update(in.array(), 0, in.limit() - 4);
+        if ((int) sum.getValue() != in.getInt(in.limit() - 4)) {
+            throw new IOException("Damaged game snapshot: " + file);
+        }
+        short version = in.getShort();
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        in.getShort();
+        long first = in.getLong();
+        recovery.nextId = Math.max(recovery.nextId, in.getLong());
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            RecordedGame game = RecordedGame.of(GameState.read(in));
+            recovery.games.put(game.getId(), game);
+            recovery.nextId = Math.max(recovery.nextId, game.getId() + 1);
+        }
+        return first;
+    }
+
+    private static void replaySegment(Path file, Recovery recovery) throws IOException {
+        Map<Long, RecordedGame> games = recovery.games;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < JournalFormat.SEGMENT_HEADER) {
+            // Created but never got its header before the crash
+            return;
+        }
+        if (in.getInt() != JournalFormat.JOURNAL_MAGIC) {
+            throw new IOException("Not a game journal: " + file);
+        }
+        short version = in.getShort();
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        in.getShort();
+        CRC32 sum = new CRC32();
+        while (in.remaining() >= JournalFormat.RECORD) {
+            int start = in.position();
+            sum.reset();
+            sum.update(in.array(), start, 16);
+            if ((int) sum.getValue() != in.getInt(start + 16)) {
+                return;
+            }
+            long id = in.getLong();
+            int seq = in.getInt();
+            int type = in.get();
+            byte color = in.get();
+            int arg = in.getShort() & 0xFFFF;
+            in.getInt();
+            if (type == NEW) {
+                recovery.nextId = Math.max(recovery.nextId, id + 1);
+                if (!games.containsKey(id)) {
+                    RecordedGame game = RecordedGame.create(id, arg & 0xFF, arg >> 8);
+                    game.start(null);
+                    games.put(id, game);
+                }
+            } else if (type == CLOSE) {
+                games.remove(id);
+            } else {
+                RecordedGame game = games.get(id);
+                if (game != null) {
+                    game.replay(seq, type, color, arg);
+                }
+            }
+        }
+    }
+
+    private static List<Long> segments(Path dir) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "journal-*.log")) {
+            for (Path file : files) {
+                long n = JournalFormat.segmentNumber(file);
+                if (n >= 0) {
+                    numbers.add(n);
+                }
+            }
+        }
+        return numbers;
+    }
+
+    // ---------- Lifecycle ----------
+
+    /** Number of the segment new events go to. */
+    public long getSegment() {
+        return segment;
+    }
+
+    /** Events written and forced so far. */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /** Forces so far; with many games busy this is well below the record count. */
+    public long getSyncCount() {
+        return syncs;
+    }
+
+    /** Writes out everything appended so far, then stops the writer. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Entry entry = new Entry(Entry.STOP, 0, 0, 0, GoPosition.EMPTY, 0);
+        queue.add(entry);
+        await(entry.done);
+    }
+
+    private static void await(CompletableFuture<Void> done) throws IOException {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+}
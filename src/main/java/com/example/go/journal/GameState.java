@@ -0,0 +1,181 @@
+package com.example.go.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Compact copy of one game for a snapshot: the stones at two bits per
+ * intersection plus the few fields the rules need to carry on (side to move,
+ * ko point, passes, prisoners), and the moves in order at two bytes each.
+ * A 19x19 game of 200 moves is about 520 bytes.
+ *
+ * Recovery replays the move list onto an empty board, so the position gets
+ * back its superko history and can undo past the snapshot, then checks the
+ * result against the stored stones and rule fields.
+ *
+ * In a snapshot file a game is a 32 byte header followed by the stones and moves:
+ * <pre>
+ *   0  long   game id
+ *   8  int    sequence number of the last event the state includes
+ *  12  byte   cols
+ *  13  byte   rows
+ *  14  byte   side to move
+ *  15  byte   flags, bit 0 set once the game was resigned
+ *  16  short  ko point as a move code, or -1
+ *  18  short  pass count
+ *  20  int    prisoners taken by black
+ *  24  int    prisoners taken by white
+ *  28  int    move count
+ *  32  (cols * rows + 3) / 4 bytes of stones, four per byte from the low bits
+ *      then the moves, a short each (see {@link RecordedGame})
+ * </pre>
+ */
+public final class GameState {
+    static final int HEADER = 32;
+
+    private final long id;
+    private final int seq;
+    private final int cols;
+    private final int rows;
+    private final byte toMove;
+    private final boolean resigned;
+    private final int ko;
+    private final int passCount;
+    private final int capturedByBlack;
+    private final int capturedByWhite;
+    private final byte[] stones;
+    private final short[] moves;
+
+    private GameState(long id, int seq, int cols, int rows, byte toMove, boolean resigned, int ko,
+                      int passCount, int capturedByBlack, int capturedByWhite, byte[] stones, short[] moves) {
+        this.id = id;
+        this.seq = seq;
+        this.cols = cols;
+        this.rows = rows;
+        this.toMove = toMove;
+        this.resigned = resigned;
+        this.ko = ko;
+        this.passCount = passCount;
+        this.capturedByBlack = capturedByBlack;
+        this.capturedByWhite = capturedByWhite;
+        this.stones = stones;
+        this.moves = moves;
+    }
+
+    /**
+     * Copies {@code position} as game {@code id} after its event {@code seq},
+     * with the game's moves so far; call it on the thread that owns the position.
+     */
+    static GameState capture(long id, int seq, boolean resigned, GoPosition position, short[] moves) {
+        int cols = position.getCols();
+        int rows = position.getRows();
+        byte[] packed = new byte[(cols * rows + 3) / 4];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int i = row * cols + col;
+                packed[i >> 2] |= position.getStone(col, row) << ((i & 3) * 2);
+            }
+        }
+        int koPoint = position.getKoPoint();
+        int ko = koPoint == GoPosition.PASS ? -1 : position.row(koPoint) * cols + position.col(koPoint);
+        return new GameState(id, seq, cols, rows, position.getToMove(), resigned, ko, position.getPassCount(),
+                position.getCapturedByBlack(), position.getCapturedByWhite(), packed, moves);
+    }
+
+    /**
+     * A new position holding this state, rebuilt by replaying the moves so
+     * its superko history and undo stack are whole. Throws if a move is
+     * illegal or the result differs from the stored board.
+     */
+    GoPosition toPosition() throws IOException {
+        GoPosition position = new GoPosition(cols, rows);
+        for (int i = 0; i < moves.length; i++) {
+            if (!RecordedGame.replayMove(position, moves[i] & 0xFFFF)) {
+                throw new IOException("Game " + id + " cannot replay snapshot move " + (i + 1));
+            }
+        }
+        for (int i = 0; i < cols * rows; i++) {
+            if (position.getStone(i % cols, i / cols) != (stones[i >> 2] >> ((i & 3) * 2) & 3)) {
+                throw new IOException("Game " + id + " moves do not lead to its snapshot board");
+            }
+        }
+        int koPoint = ko < 0 ? GoPosition.PASS : position.point(ko % cols, ko / cols);
+        if (position.getToMove() != toMove || position.getKoPoint() != koPoint
+                || position.getPassCount() != passCount
+                || position.getCapturedByBlack() != capturedByBlack
+                || position.getCapturedByWhite() != capturedByWhite) {
+            throw new IOException("Game " + id + " moves do not lead to its snapshot state");
+        }
+        return position;
+    }
+
+    int size() {
+        return HEADER + stones.length + 2 * moves.length;
+    }
+
+    void write(ByteBuffer out) {
+        out.putLong(id);
+        out.putInt(seq);
+        out.put((byte) cols);
+        out.put((byte) rows);
+        out.put(toMove);
+        out.put((byte) (resigned ? 1 : 0));
+        out.putShort((short) ko);
+        out.putShort((short) passCount);
+        out.putInt(capturedByBlack);
+        out.putInt(capturedByWhite);
+        out.putInt(moves.length);
+        out.put(stones);
+        for (short move : moves) {
+            out.putShort(move);
+        }
+    }
+
+    static GameState read(ByteBuffer in) {
+        long id = in.getLong();
+        int seq = in.getInt();
+        int cols = in.get() & 0xFF;
+        int rows = in.get() & 0xFF;
+        byte toMove = in.get();
+        boolean resigned = (in.get() & 1) != 0;
+        int ko = in.getShort();
+        int passCount = in.getShort();
+        int capturedByBlack = in.getInt();
+        int capturedByWhite = in.getInt();
+        int moveCount = in.getInt();
+        byte[] stones = new byte[(cols * rows + 3) / 4];
+        in.get(stones);
+        short[] moves = new short[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            moves[i] = in.getShort();
+        }
+        return new GameState(id, seq, cols, rows, toMove, resigned, ko, passCount,
+                capturedByBlack, capturedByWhite, stones, moves);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public boolean isResigned() {
+        return resigned;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    short[] moves() {
+        return moves;
+    }
+}
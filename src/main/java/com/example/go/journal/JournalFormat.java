@@ -0,0 +1,64 @@
+package com.example.go.journal;
+
+import java.nio.file.Path;
+
+/**
+ * Layout of the files in a journal directory. All numbers are little endian.
+ *
+ * <pre>
+ * journal-NNNNNNNN.log, one segment per process run or snapshot
+ *   8 byte header: int magic "GOJL", short version, short reserved
+ *   then 20 byte records, back to back
+ *     0  long   game id
+ *     8  int    sequence number of the event within its game, from 1
+ *    12  byte   event type
+ *    13  byte   colour (BLACK or WHITE) for moves, passes and resigns
+ *    14  short  argument: cols | rows &lt;&lt; 8 for NEW, the move code for MOVE
+ *    16  int    CRC32 of bytes 0-15
+ *
+ * snapshot.bin, the state of every game as of some point
+ *   0  int    magic "GOSN"
+ *   4  short  version
+ *   6  short  reserved
+ *   8  long   first journal segment still needed after this snapshot
+ *  16  long   next game id to hand out, so closed games' ids are not reused
+ *  24  int    game count
+ *  28  games, see {@link GameState}
+ *      int    CRC32 of everything before it
+ * </pre>
+ *
+ * A move code is {@code row * cols + col}. A record whose CRC does not match
+ * is a write torn by a crash; replay stops at it, and since every process
+ * run appends to a fresh segment, nothing is ever written after one.
+ */
+final class JournalFormat {
+    static final int JOURNAL_MAGIC = 'G' | 'O' << 8 | 'J' << 16 | 'L' << 24;
+    static final int SNAPSHOT_MAGIC = 'G' | 'O' << 8 | 'S' << 16 | 'N' << 24;
+    static final short VERSION = 1;
+    static final int SEGMENT_HEADER = 8;
+    static final int RECORD = 20;
+    static final int SNAPSHOT_HEADER = 28;
+
+    static final String SNAPSHOT = "snapshot.bin";
+    static final String SNAPSHOT_TEMP = "snapshot.tmp";
+
+    private JournalFormat() {
+    }
+
+    static Path segment(Path dir, long number) {
+        return dir.resolve(String.format("journal-%08d.log", number));
+    }
+
+    /** Segment number of a journal file name, or -1 if it is not one. */
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("journal-") || !name.endsWith(".log")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(8, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
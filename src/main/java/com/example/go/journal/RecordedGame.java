@@ -0,0 +1,231 @@
+package com.example.go.journal;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.InvalidMoveException;
+
+/**
+ * A game whose every change is an event: each move, pass, undo or resign
+ * bumps the game's sequence number and, when a {@link GameJournal} is
+ * attached, is appended to it. The methods return a future that completes
+ * once the event is on disk, so a caller can hold its reply until then.
+ *
+ * Alongside the position the game keeps its own list of moves, two bytes
+ * each: the move code ({@code row * cols + col}, or {@link #PASS_CODE}) with
+ * the top bit set for white. Recovery replays that list to rebuild a
+ * snapshot's position, so undo and superko reach back past the snapshot.
+ * Replay goes through {@link GoPosition#play}, which reports nothing to
+ * {@link GameEvents}; recovered moves are not counted again.
+ *
+ * Like {@link GoPosition}, a game is not thread-safe; keep it on one thread.
+ */
+public final class RecordedGame {
+    static final int PASS_CODE = 0x7FFF;
+    private static final int WHITE_BIT = 0x8000;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final long id;
+    private final GoPosition position;
+    private GameJournal journal;
+    private int seq;
+    private boolean resigned;
+    private short[] moves;
+    private int moveCount;
+
+    private RecordedGame(long id, GoPosition position, int seq, boolean resigned, short[] moves) {
+        this.id = id;
+        this.position = position;
+        this.seq = seq;
+        this.resigned = resigned;
+        this.moves = Arrays.copyOf(moves, Math.max(16, moves.length));
+        this.moveCount = moves.length;
+    }
+
+    /** Game {@code id} on an empty board; {@link #start} records that it began. */
+    public static RecordedGame create(long id, int cols, int rows) {
+        return new RecordedGame(id, new GoPosition(cols, rows), 0, false, new short[0]);
+    }
+
+    /** A game as a snapshot left it, not yet attached to a journal. */
+    static RecordedGame of(GameState state) throws IOException {
+        return new RecordedGame(state.getId(), state.toPosition(), state.getSeq(), state.isResigned(), state.moves());
+    }
+
+    /** Sends this game's future events to {@code journal}. */
+    public void attach(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    // ---------- Events ----------
+
+    /**
+     * Records the game's creation as its first event, in {@code journal}
+     * unless that is null, and keeps the journal for the events to come.
+     */
+    public CompletableFuture<Void> start(GameJournal journal) {
+        if (seq != 0) {
+            throw new IllegalStateException("Game " + id + " has already started");
+        }
+        this.journal = journal;
+        return record(GameJournal.NEW, GoPosition.EMPTY, position.getCols() | position.getRows() << 8);
+    }
+
+    /** Plays a stone for the side to move; see {@link GoPosition#makeMove}. */
+    public CompletableFuture<Void> play(int col, int row) throws InvalidMoveException {
+        checkNotOver();
+        byte color = position.getToMove();
+        position.makeMove(col, row);
+        int code = row * position.getCols() + col;
+        push(color, code);
+        return record(GameJournal.MOVE, color, code);
+    }
+
+    public CompletableFuture<Void> pass() {
+        checkNotOver();
+        byte color = position.getToMove();
+        GameEvents.passed(position, color);
+        position.pass();
+        push(color, PASS_CODE);
+        return record(GameJournal.PASS, color, 0);
+    }
+
+    /** Takes back the last move or pass, even one played before a restart. */
+    public CompletableFuture<Void> undo() {
+        checkNotOver();
+        if (moveCount == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        takeBack();
+        return record(GameJournal.UNDO, GoPosition.EMPTY, 0);
+    }
+
+    /** Ends the game with the side to move resigning. */
+    public CompletableFuture<Void> resign() {
+        checkNotOver();
+        resigned = true;
+        GameEvents.resigned(position, position.getToMove());
+        return record(GameJournal.RESIGN, position.getToMove(), 0);
+    }
+
+    /** Records that the game was thrown away, so recovery leaves it out. */
+    public CompletableFuture<Void> close() {
+        return record(GameJournal.CLOSE, GoPosition.EMPTY, 0);
+    }
+
+    private void checkNotOver() {
+        if (resigned) {
+            throw new IllegalStateException("Game is over");
+        }
+    }
+
+    private CompletableFuture<Void> record(int type, byte color, int arg) {
+        seq++;
+        return journal == null ? DONE : journal.append(id, seq, type, color, arg);
+    }
+
+    private void push(byte color, int code) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[moveCount++] = (short) (code | (color == GoPosition.WHITE ? WHITE_BIT : 0));
+    }
+
+    private void takeBack() {
+        moveCount--;
+        position.undo();
+    }
+
+    /**
+     * Plays one recorded move on {@code position} during recovery. Returns
+     * false, leaving the position as it was, if the rules do not allow it.
+     */
+    static boolean replayMove(GoPosition position, int move) {
+        int code = move & ~WHITE_BIT;
+        position.setToMove((move & WHITE_BIT) != 0 ? GoPosition.WHITE : GoPosition.BLACK);
+        if (code == PASS_CODE) {
+            position.pass();
+            return true;
+        }
+        int cols = position.getCols();
+        return code < cols * position.getRows() && position.play(position.point(code % cols, code / cols));
+    }
+
+    // ---------- Replay ----------
+
+    /**
+     * Applies one journal record during recovery. Events the game already
+     * includes are skipped; throws if the record cannot follow the game as
+     * it stands, which means the journal does not belong to it.
+     */
+    void replay(int seq, int type, byte color, int arg) throws IOException {
+        if (seq <= this.seq) {
+            return;
+        }
+        if (seq != this.seq + 1) {
+            throw new IOException("Game " + id + " skips from event " + this.seq + " to " + seq);
+        }
+        try {
+            switch (type) {
+                case GameJournal.MOVE:
+                    if (arg < 0 || arg >= PASS_CODE
+                            || !replayMove(position, arg | (color == GoPosition.WHITE ? WHITE_BIT : 0))) {
+                        throw new IOException("Game " + id + " cannot replay move " + arg + " in event " + seq);
+                    }
+                    push(color, arg);
+                    break;
+                case GameJournal.PASS:
+                    position.setToMove(color);
+                    position.pass();
+                    push(color, PASS_CODE);
+                    break;
+                case GameJournal.UNDO:
+                    if (moveCount == 0) {
+                        throw new IOException("Game " + id + " undoes a move it never played");
+                    }
+                    takeBack();
+                    break;
+                case GameJournal.RESIGN:
+                    resigned = true;
+                    break;
+                default:
+                    throw new IOException("Unknown event type " + type + " in game " + id);
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException("Game " + id + " cannot replay event " + seq + ": " + e.getMessage(), e);
+        }
+        this.seq = seq;
+    }
+
+    // ---------- State ----------
+
+    /** A snapshot of the game as it stands; call it on the game's thread. */
+    public GameState capture() {
+        return GameState.capture(id, seq, resigned, position, Arrays.copyOf(moves, moveCount));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public GoPosition getPosition() {
+        return position;
+    }
+
+    /** Sequence number of the last event, counting the game's creation as 1. */
+    public int getSeq() {
+        return seq;
+    }
+
+    public boolean isResigned() {
+        return resigned;
+    }
+
+    /** Moves and passes on the board, including any from before a restart. */
+    public int getMoveCount() {
+        return moveCount;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.go.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.example.go.engine.GameEventListener;
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+
+/**
+ * Counters and latency histograms for every game in the process, fed by
+ * {@link GameEvents}. Nothing is collected until one is installed, either
+ * with {@link #install()} or by starting with {@code -Dgo.metrics=true};
+ * from then on each move costs two clock reads and a few uncontended adds.
+ */
+public final class GameMetrics implements GameEventListener, GameMetricsMBean {
+    public static final String OBJECT_NAME = "com.example.go:type=GameMetrics";
+
+    private static GameMetrics installed;
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder captures = new LongAdder();
+    private final LongAdder illegalMoves = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+    private final LongAdder resigns = new LongAdder();
+    private final LongAdder scorings = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram scoringLatency = new LatencyHistogram();
+
+    /**
+     * Starts collecting for the whole process and registers the MBean, once;
+     * later calls return the same instance.
+     */
+    public static synchronized GameMetrics install() {
+        if (installed == null) {
+            GameMetrics metrics = new GameMetrics();
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                server.registerMBean(metrics, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+            }
+            GameEvents.addListener(metrics);
+            installed = metrics;
+        }
+        return installed;
+    }
+
+    /** Installs the metrics if the {@code go.metrics} system property is true. */
+    public static void installIfRequested() {
+        if (Boolean.getBoolean("go.metrics")) {
+            install();
+        }
+    }
+
+    /** Stops collecting and unregisters the MBean. */
+    public static synchronized void uninstall() {
+        if (installed == null) {
+            return;
+        }
+        GameEvents.removeListener(installed);
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // Someone else already took it down
+        }
+        installed = null;
+    }
+
+    // ---------- Events ----------
+
+    @Override
+    public void movePlayed(GoPosition position, int point, byte color, int captured, long nanos) {
+        moves.increment();
+        if (captured > 0) {
+            captures.add(captured);
+        }
+        moveLatency.record(nanos);
+    }
+
+    @Override
+    public void moveRejected(GoPosition position, int col, int row, String reason) {
+        illegalMoves.increment();
+    }
+
+    @Override
+    public void passed(GoPosition position, byte color) {
+        passes.increment();
+    }
+
+    @Override
+    public void resigned(GoPosition position, byte color) {
+        resigns.increment();
+    }
+
+    @Override
+    public void scored(GoPosition position, int blackScore, int whiteScore, long nanos) {
+        scorings.increment();
+        scoringLatency.record(nanos);
+    }
+
+    // ---------- Readings ----------
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /** Stones captured, not capturing moves. */
+    @Override
+    public long getCaptures() {
+        return captures.sum();
+    }
+
+    @Override
+    public long getIllegalMoves() {
+        return illegalMoves.sum();
+    }
+
+    @Override
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    @Override
+    public long getResigns() {
+        return resigns.sum();
+    }
+
+    @Override
+    public long getScorings() {
+        return scorings.sum();
+    }
+
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    public LatencyHistogram getScoringLatency() {
+        return scoringLatency;
+    }
+
+    @Override
+    public double getMoveLatencyP50Micros() {
+        return moveLatency.getPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getMoveLatencyP99Micros() {
+        return moveLatency.getPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getMoveLatencyMaxMicros() {
+        return moveLatency.getMax() / 1000.0;
+    }
+
+    @Override
+    public double getScoringLatencyP50Micros() {
+        return scoringLatency.getPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getScoringLatencyP99Micros() {
+        return scoringLatency.getPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getScoringLatencyMaxMicros() {
+        return scoringLatency.getMax() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        moves.reset();
+        captures.reset();
+        illegalMoves.reset();
+        passes.reset();
+        resigns.reset();
+        scorings.reset();
+        moveLatency.reset();
+        scoringLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d moves (%d captured, %d illegal), %d passes, %d resigns, %d scorings; "
+                        + "move p50 %.1f us p99 %.1f us, scoring p50 %.1f us p99 %.1f us",
+                getMoves(), getCaptures(), getIllegalMoves(), getPasses(), getResigns(), getScorings(),
+                getMoveLatencyP50Micros(), getMoveLatencyP99Micros(),
+                getScoringLatencyP50Micros(), getScoringLatencyP99Micros());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.go.metrics;
+
+/**
+ * What {@link GameMetrics} shows over JMX, under {@value GameMetrics#OBJECT_NAME}.
+ * Counts are totals since start or the last {@link #reset()}; latencies are
+ * in microseconds.
+ */
+public interface GameMetricsMBean {
+    long getMoves();
+
+    long getCaptures();
+
+    long getIllegalMoves();
+
+    long getPasses();
+
+    long getResigns();
+
+    long getScorings();
+
+    double getMoveLatencyP50Micros();
+
+    double getMoveLatencyP99Micros();
+
+    double getMoveLatencyMaxMicros();
+
+    double getScoringLatencyP50Micros();
+
+    double getScoringLatencyP99Micros();
+
+    double getScoringLatencyMaxMicros();
+
+    void reset();
+}
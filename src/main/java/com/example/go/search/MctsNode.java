@@ -0,0 +1,77 @@
+package com.example.go.search;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Search tree node. Statistics are plain volatile ints updated with atomic
+ * field updaters, and children are published once with a CAS, so threads
+ * never take a lock while walking or updating the tree.
+ */
+final class MctsNode {
+    private static final AtomicIntegerFieldUpdater<MctsNode> VISITS =
+            AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "visits");
+    private static final AtomicIntegerFieldUpdater<MctsNode> WINS =
+            AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "wins");
+    private static final AtomicReferenceFieldUpdater<MctsNode, MctsNode[]> CHILDREN =
+            AtomicReferenceFieldUpdater.newUpdater(MctsNode.class, MctsNode[].class, "children");
+
+    final int move;
+    // Colour that played the move leading here; wins are counted for this side
+    final byte color;
+
+    private volatile int visits;
+    private volatile int wins;
+    private volatile MctsNode[] children;
+
+    MctsNode(int move, byte color) {
+        this.move = move;
+        this.color = color;
+    }
+
+    int visits() {
+        return visits;
+    }
+
+    int wins() {
+        return wins;
+    }
+
+    MctsNode[] children() {
+        return children;
+    }
+
+    /** Publishes the children unless another thread got there first. */
+    boolean expand(MctsNode[] newChildren) {
+        return CHILDREN.compareAndSet(this, null, newChildren);
+    }
+
+    /**
+     * Counts a visit in advance as a loss while a playout below this node is
+     * in flight, steering other threads onto different lines.
+     */
+    void addVirtualLoss(int virtualLoss) {
+        VISITS.addAndGet(this, virtualLoss);
+    }
+
+    /** Replaces the virtual loss with the real result. */
+    void update(int virtualLoss, boolean win) {
+        if (virtualLoss != 1) {
+            VISITS.addAndGet(this, 1 - virtualLoss);
+        }
+        if (win) {
+            WINS.incrementAndGet(this);
+        }
+    }
+
+    double winRate() {
+        int v = visits;
+        return v == 0 ? 0.5 : wins / (double) v;
+    }
+
+    boolean isPass() {
+        return move == GoPosition.PASS;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.go.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.engine.Playout;
+
+/**
+ * Multi-threaded Monte Carlo Tree Search (UCT) over {@link GoPosition}.
+ *
+ * All worker threads share one tree (tree parallelism). Node statistics are
+ * updated with atomics and children are published with a CAS, so there is
+ * no global lock; virtual loss keeps threads from piling onto the same line.
+ * Each worker owns its own position copy and {@link Playout}, so the only
+ * shared writes per iteration are the visited nodes and one playout counter.
+ */
+public class MctsSearch implements AutoCloseable {
+    private final int threads;
+    private final ExecutorService pool;
+
+    private double komi = 6.5;
+    private double exploration = 0.7;
+    private int virtualLoss = 3;
+    private int expandThreshold = 2;
+    private long seed = System.nanoTime();
+
+    public MctsSearch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MctsSearch(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "mcts-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Searches from {@code root} until {@code maxPlayouts} playouts have run
+     * or {@code maxMillis} have passed, whichever comes first. A limit of zero
+     * or less is ignored, but at least one must be set. The root is not modified.
+     */
+    public SearchResult search(GoPosition root, long maxPlayouts, long maxMillis) {
+        if (maxPlayouts <= 0 && maxMillis <= 0) {
+            throw new IllegalArgumentException("Set a playout or time budget");
+        }
+        long start = System.nanoTime();
+        long deadline = maxMillis > 0 ? start + maxMillis * 1_000_000L : Long.MAX_VALUE;
+        long budget = maxPlayouts > 0 ? maxPlayouts : Long.MAX_VALUE;
+
+        MctsNode rootNode = new MctsNode(GoPosition.PASS, GoPosition.opponent(root.getToMove()));
+        AtomicLong started = new AtomicLong();
+
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(root, rootNode, seed + i * 0x9E3779B97F4A7C15L);
+            futures.add(pool.submit(() -> worker.run(started, budget, deadline)));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(other -> other.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+        seed += threads;
+
+        return summarize(rootNode, System.nanoTime() - start);
+    }
+
+    private SearchResult summarize(MctsNode rootNode, long elapsed) {
+        MctsNode[] children = rootNode.children();
+        if (children == null) {
+            children = new MctsNode[0];
+        }
+        MctsNode[] sorted = children.clone();
+        java.util.Arrays.sort(sorted, (a, b) -> Integer.compare(b.visits(), a.visits()));
+
+        int[] moves = new int[sorted.length];
+        int[] visits = new int[sorted.length];
+        double[] winRates = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            moves[i] = sorted[i].move;
+            visits[i] = sorted[i].visits();
+            winRates[i] = sorted[i].winRate();
+        }
+        // Every iteration passes through the root, and all virtual losses are settled by now
+        return new SearchResult(moves, visits, winRates, rootNode.visits(), elapsed);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public double getKomi() {
+        return komi;
+    }
+
+    public void setKomi(double komi) {
+        this.komi = komi;
+    }
+
+    /** UCT exploration constant C in wins/visits + C * sqrt(ln(N) / n). */
+    public void setExploration(double exploration) {
+        this.exploration = exploration;
+    }
+
+    /** Visits counted as losses on every node a thread is currently below. */
+    public void setVirtualLoss(int virtualLoss) {
+        if (virtualLoss < 1) {
+            throw new IllegalArgumentException("Virtual loss must be at least 1");
+        }
+        this.virtualLoss = virtualLoss;
+    }
+
+    /** Visits a leaf needs before it is expanded; keeps the tree small. */
+    public void setExpandThreshold(int expandThreshold) {
+        this.expandThreshold = Math.max(1, expandThreshold);
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /** One search thread: own position, playout engine and path buffer. */
+    private final class Worker {
+        private final GoPosition root;
+        private final MctsNode rootNode;
+        private final GoPosition position;
+        private final Playout playout;
+        private MctsNode[] path = new MctsNode[64];
+
+        Worker(GoPosition root, MctsNode rootNode, long seed) {
+            this.root = root;
+            this.rootNode = rootNode;
+            this.position = new GoPosition(root.getCols(), root.getRows());
+            this.playout = new Playout(seed);
+        }
+
+        void run(AtomicLong started, long budget, long deadline) {
+            while (started.getAndIncrement() < budget && System.nanoTime() < deadline) {
+                if (Thread.currentThread().isInterrupted()) return;
+                iterate();
+            }
+        }
+
+        private void iterate() {
+            position.copyFrom(root);
+            MctsNode node = rootNode;
+            int depth = 0;
+            push(depth++, node);
+            node.addVirtualLoss(virtualLoss);
+
+            while (position.getPassCount() < 2) {
+                MctsNode[] children = node.children();
+                if (children == null) {
+                    // Visits before this thread's own in-flight one decide expansion
+                    if (node != rootNode && node.visits() - virtualLoss < expandThreshold) break;
+                    expand(node);
+                    children = node.children();
+                }
+                node = select(node, children);
+                position.play(node.move);
+                push(depth++, node);
+                node.addVirtualLoss(virtualLoss);
+            }
+
+            int score;
+            if (position.getPassCount() >= 2) {
+                position.calculateJapaneseScoring();
+                score = position.getBlackScore() - position.getWhiteScore();
+            } else {
+                score = playout.run(position);
+            }
+            boolean blackWins = score - komi > 0;
+
+            for (int i = 0; i < depth; i++) {
+                MctsNode n = path[i];
+                n.update(virtualLoss, (n.color == GoPosition.BLACK) == blackWins);
+                path[i] = null;
+            }
+        }
+
+        /** Children are every legal move that does not fill an own eye, plus pass. */
+        private void expand(MctsNode node) {
+            byte me = position.getToMove();
+            int empties = position.getEmptyCount();
+            MctsNode[] children = new MctsNode[empties + 1];
+            int n = 0;
+            for (int i = 0; i < empties; i++) {
+                int p = position.getEmptyPoint(i);
+                if (position.isLegal(p) && !Playout.isOwnEye(position, p, me)) {
+                    children[n++] = new MctsNode(p, me);
+                }
+            }
+            children[n++] = new MctsNode(GoPosition.PASS, me);
+            // Losing the race is fine: the other thread's children are equivalent
+            node.expand(java.util.Arrays.copyOf(children, n));
+        }
+
+        private MctsNode select(MctsNode parent, MctsNode[] children) {
+            double logParent = Math.log(Math.max(1, parent.visits()));
+            MctsNode best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (MctsNode child : children) {
+                int v = child.visits();
+                double value;
+                if (v == 0) {
+                    // Unvisited moves first, pass last among them
+                    value = child.isPass() ? 1e8 : 1e9;
+                } else {
+                    value = child.wins() / (double) v + exploration * Math.sqrt(logParent / v);
+                }
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private void push(int depth, MctsNode node) {
+            if (depth == path.length) {
+                path = java.util.Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = node;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.go.search;
+
+/**
+ * Outcome of one {@link OwnershipEstimator} run: for every intersection, how
+ * often each side owned it at the end of a playout, and which stones were
+ * judged dead. Points are {@code GoPosition} point indices.
+ */
+public final class Ownership {
+    private final int cols;
+    private final int rows;
+    private final int stride;
+    private final int[] blackOwned;
+    private final int[] whiteOwned;
+    private final int[] deadStones;
+    private final long playouts;
+    private final long elapsedNanos;
+
+    Ownership(int cols, int rows, int[] blackOwned, int[] whiteOwned, int[] deadStones, long playouts,
+              long elapsedNanos) {
+        this.cols = cols;
+        this.rows = rows;
+        this.stride = cols + 1;
+        this.blackOwned = blackOwned;
+        this.whiteOwned = whiteOwned;
+        this.deadStones = deadStones;
+        this.playouts = playouts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * From 1 (Black owned the point in every playout) to -1 (White did);
+     * 0 for an even split, a neutral point or no playouts at all.
+     */
+    public double get(int point) {
+        return playouts == 0 ? 0.0 : (blackOwned[point] - whiteOwned[point]) / (double) playouts;
+    }
+
+    public double get(int col, int row) {
+        return get((row + 1) * stride + col + 1);
+    }
+
+    /** Share of playouts, 0 to 1, that ended with {@code point} owned by Black. */
+    public double getBlackShare(int point) {
+        return playouts == 0 ? 0.0 : blackOwned[point] / (double) playouts;
+    }
+
+    /** Share of playouts, 0 to 1, that ended with {@code point} owned by White. */
+    public double getWhiteShare(int point) {
+        return playouts == 0 ? 0.0 : whiteOwned[point] / (double) playouts;
+    }
+
+    /** Points of the stones judged dead, whole chains at a time; empty when none are. */
+    public int[] getDeadStones() {
+        return deadStones.clone();
+    }
+
+    public boolean isDead(int point) {
+        for (int p : deadStones) {
+            if (p == point) return true;
+        }
+        return false;
+    }
+
+    public boolean isDead(int col, int row) {
+        return isDead((row + 1) * stride + col + 1);
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
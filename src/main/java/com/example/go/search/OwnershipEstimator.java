@@ -0,0 +1,229 @@
+package com.example.go.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.engine.Playout;
+
+/**
+ * Estimates who owns each intersection of a finished game by playing it
+ * out many times from the final position with {@link Playout} and counting
+ * the owner of every point at each playout's end: a stone's colour, or for
+ * an empty point the one colour around it. Chains whose own side kept their
+ * points in less than {@link #setDeadThreshold(double) the threshold} share
+ * of the playouts are judged dead, which is what
+ * {@link GoPosition#calculateJapaneseScoring(int[])} needs to score them.
+ *
+ * Threads run playouts independently, each on its own copy of the position
+ * with its own counters, and the counters are only summed at the end, so a
+ * run shares nothing but one playout counter until it is over.
+ */
+public class OwnershipEstimator implements AutoCloseable {
+    private final int threads;
+    private final ExecutorService pool;
+
+    private double deadThreshold = 0.5;
+    private long seed = System.nanoTime();
+
+    public OwnershipEstimator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public OwnershipEstimator(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one playout thread");
+        }
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ownership-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Plays {@code position} out until {@code maxPlayouts} playouts have run
+     * or {@code maxMillis} have passed, whichever comes first. A limit of zero
+     * or less is ignored, but at least one must be set. The side to move
+     * alternates between playouts, so neither side gets the first move every
+     * time. The clock is checked between playouts, so a run can go over by
+     * about one playout. The position is not modified.
+     */
+    public Ownership estimate(GoPosition position, long maxPlayouts, long maxMillis) {
+        if (maxPlayouts <= 0 && maxMillis <= 0) {
+            throw new IllegalArgumentException("Set a playout or time budget");
+        }
+        long start = System.nanoTime();
+        long deadline = maxMillis > 0 ? start + maxMillis * 1_000_000L : Long.MAX_VALUE;
+        long budget = maxPlayouts > 0 ? maxPlayouts : Long.MAX_VALUE;
+        AtomicLong started = new AtomicLong();
+
+        List<Worker> workers = new ArrayList<>(threads);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(position, seed + i * 0x9E3779B97F4A7C15L);
+            workers.add(worker);
+            futures.add(pool.submit(() -> worker.run(started, budget, deadline)));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(other -> other.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Playout worker failed", e.getCause());
+            }
+        }
+        seed += threads;
+
+        int size = workers.get(0).blackOwned.length;
+        int[] blackOwned = new int[size];
+        int[] whiteOwned = new int[size];
+        long playouts = 0;
+        for (Worker worker : workers) {
+            // After cancellation a worker may still be running; its counts are left out
+            if (!worker.done) continue;
+            for (int p = 0; p < size; p++) {
+                blackOwned[p] += worker.blackOwned[p];
+                whiteOwned[p] += worker.whiteOwned[p];
+            }
+            playouts += worker.playouts;
+        }
+        int[] dead = deadStones(position, blackOwned, whiteOwned, playouts);
+        return new Ownership(position.getCols(), position.getRows(), blackOwned, whiteOwned, dead, playouts,
+                System.nanoTime() - start);
+    }
+
+    /** Every chain whose own colour owned its points in less than the threshold share of playouts. */
+    private int[] deadStones(GoPosition position, int[] blackOwned, int[] whiteOwned, long playouts) {
+        if (playouts == 0) {
+            return new int[0];
+        }
+        int[] dead = new int[position.getStoneCount()];
+        int count = 0;
+        boolean[] seen = new boolean[blackOwned.length];
+        for (int row = 0; row < position.getRows(); row++) {
+            for (int col = 0; col < position.getCols(); col++) {
+                int p = position.point(col, row);
+                byte color = position.get(p);
+                if (color == GoPosition.EMPTY || seen[position.getChainHead(p)]) continue;
+                seen[position.getChainHead(p)] = true;
+
+                int[] owned = color == GoPosition.BLACK ? blackOwned : whiteOwned;
+                long sum = 0;
+                int s = p;
+                do {
+                    sum += owned[s];
+                    s = position.nextInChain(s);
+                } while (s != p);
+                if (sum < deadThreshold * playouts * position.getChainSize(p)) {
+                    do {
+                        dead[count++] = s;
+                        s = position.nextInChain(s);
+                    } while (s != p);
+                }
+            }
+        }
+        return java.util.Arrays.copyOf(dead, count);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public double getDeadThreshold() {
+        return deadThreshold;
+    }
+
+    /**
+     * Share of playouts, above 0 and at most 1, in which a chain's own colour
+     * must still own its points for it to count as alive.
+     */
+    public void setDeadThreshold(double deadThreshold) {
+        if (!(deadThreshold > 0 && deadThreshold <= 1)) {
+            throw new IllegalArgumentException("Dead threshold must be in (0, 1]");
+        }
+        this.deadThreshold = deadThreshold;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /** One playout thread: own start position, playout engine and ownership counts. */
+    private static final class Worker {
+        private final GoPosition start;
+        private final Playout playout;
+        private final byte firstToMove;
+        final int[] blackOwned;
+        final int[] whiteOwned;
+        long playouts;
+        volatile boolean done;
+
+        Worker(GoPosition position, long seed) {
+            this.start = new GoPosition(position.getCols(), position.getRows());
+            start.copyFrom(position);
+            // Playouts need neither the caller's territory tracking nor its two closing passes
+            start.setTerritoryTracking(false);
+            start.setPassCount(0);
+            this.playout = new Playout(seed);
+            this.firstToMove = position.getToMove();
+            int size = (position.getRows() + 2) * position.getStride() + 1;
+            this.blackOwned = new int[size];
+            this.whiteOwned = new int[size];
+        }
+
+        void run(AtomicLong started, long budget, long deadline) {
+            while (started.getAndIncrement() < budget && System.nanoTime() < deadline) {
+                if (Thread.currentThread().isInterrupted()) return;
+                start.setToMove(playouts % 2 == 0 ? firstToMove : GoPosition.opponent(firstToMove));
+                playout.run(start);
+                count(playout.getPosition());
+                playouts++;
+            }
+            done = true;
+        }
+
+        private void count(GoPosition end) {
+            int stride = end.getStride();
+            for (int row = 0; row < end.getRows(); row++) {
+                int p = end.point(0, row);
+                for (int col = 0; col < end.getCols(); col++, p++) {
+                    byte owner = end.get(p);
+                    if (owner == GoPosition.EMPTY) {
+                        owner = emptyOwner(end, p, stride);
+                    }
+                    if (owner == GoPosition.BLACK) blackOwned[p]++;
+                    else if (owner == GoPosition.WHITE) whiteOwned[p]++;
+                }
+            }
+        }
+
+        /** The one colour next to an empty point, or EMPTY when both or neither are. */
+        private static byte emptyOwner(GoPosition end, int p, int stride) {
+            byte owner = GoPosition.EMPTY;
+            for (int n = 0; n < 4; n++) {
+                int q = n == 0 ? p - 1 : n == 1 ? p + 1 : n == 2 ? p - stride : p + stride;
+                byte c = end.get(q);
+                if (c == GoPosition.BLACK || c == GoPosition.WHITE) {
+                    if (owner == GoPosition.EMPTY) owner = c;
+                    else if (owner != c) return GoPosition.EMPTY;
+                }
+            }
+            return owner;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.go.search;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Outcome of one search: the chosen move plus visit statistics for every
+ * root move, ordered from most to least visited.
+ */
+public final class SearchResult {
+    private final int[] moves;
+    private final int[] visits;
+    private final double[] winRates;
+    private final long playouts;
+    private final long elapsedNanos;
+
+    SearchResult(int[] moves, int[] visits, double[] winRates, long playouts, long elapsedNanos) {
+        this.moves = moves;
+        this.visits = visits;
+        this.winRates = winRates;
+        this.playouts = playouts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Most visited root move, or {@link GoPosition#PASS} when there is nothing to play. */
+    public int getBestMove() {
+        return moves.length == 0 ? GoPosition.PASS : moves[0];
+    }
+
+    /** Win rate of the best move for the side to move at the root. */
+    public double getBestWinRate() {
+        return winRates.length == 0 ? 0.0 : winRates[0];
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    public int getVisits(int i) {
+        return visits[i];
+    }
+
+    public double getWinRate(int i) {
+        return winRates[i];
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : playouts * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.go.search;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * Fixed-size transposition table keyed by a position's 64-bit Zobrist hash
+ * ({@link GoPosition#getHash()}), safe for many search threads without locks.
+ *
+ * The table is one {@code long[]} of (key, data) pairs grouped in buckets of
+ * four, so a bucket is one 64-byte cache line. Its size is the largest power
+ * of two that fits in the megabyte budget given to the constructor, and it
+ * never grows, so the table cannot take more heap than it was given.
+ *
+ * Entries are packed into one {@code long} (see {@link #pack}) and the key
+ * slot holds {@code key ^ data}. Reads and writes use opaque accesses, which
+ * are atomic per word but not across the pair; a reader that catches half
+ * of a concurrent write sees a key that does not verify and treats it as a
+ * miss, so no entry is ever returned for the wrong position.
+ *
+ * When a bucket is full the entry to replace is the one with the lowest
+ * depth, where every search generation it is behind the current one (see
+ * {@link #newSearch()}) counts as several plies less, so stale deep entries
+ * give way to fresh ones.
+ */
+public final class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    /** Largest budget accepted; the backing array is indexed by int. */
+    public static final int MAX_MEGABYTES = 8192;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int BUCKET = 4;
+    private static final int ENTRY_BYTES = 16;
+    private static final int AGE_BITS = 6;
+    private static final int AGE_MASK = (1 << AGE_BITS) - 1;
+    private static final int AGE_WEIGHT = 8;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Table size must be between 1 and " + MAX_MEGABYTES + " MB");
+        }
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        this.table = new long[(int) (entries * 2)];
+        this.bucketMask = (int) (entries / BUCKET) - 1;
+    }
+
+    // ---------- Entries ----------
+
+    /**
+     * Packs one entry: the best move (a point, or {@link GoPosition#PASS}),
+     * the search depth (0-255), a bound type and a 32-bit value, whose
+     * meaning (score, win rate in fixed point, ...) is up to the caller.
+     */
+    public static long pack(int move, int depth, int bound, int value) {
+        return (move & 0xFFFFL)
+                | (long) (depth & 0xFF) << 16
+                | (long) (bound & 3) << 30
+                | (long) value << 32;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 30) & 3;
+    }
+
+    public static int value(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> 24) & AGE_MASK;
+    }
+
+    // ---------- Table ----------
+
+    /**
+     * The packed entry stored for {@code key}, or 0 if there is none. Every
+     * stored entry has a non-zero bound, so 0 is never a valid entry.
+     */
+    public long probe(long key) {
+        int base = bucket(key);
+        for (int s = 0; s < BUCKET; s++) {
+            int i = base + 2 * s;
+            long data = (long) LONGS.getOpaque(table, i + 1);
+            long check = (long) LONGS.getOpaque(table, i);
+            if (data != 0 && (check ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores an entry for {@code key}. An existing entry for the same key
+     * from the current search is only overwritten by one at least as deep,
+     * or by an exact bound.
+     */
+    public void store(long key, int move, int depth, int bound, int value) {
+        if (bound < BOUND_EXACT || bound > BOUND_UPPER) {
+            throw new IllegalArgumentException("Unknown bound " + bound);
+        }
+        int now = age;
+        long data = pack(move, depth, bound, value) | (long) now << 24;
+        int base = bucket(key);
+
+        int victim = base;
+        int worst = Integer.MAX_VALUE;
+        for (int s = 0; s < BUCKET; s++) {
+            int i = base + 2 * s;
+            long old = (long) LONGS.getOpaque(table, i + 1);
+            long check = (long) LONGS.getOpaque(table, i);
+            if (old == 0) {
+                victim = i;
+                break;
+            }
+            if ((check ^ old) == key) {
+                if (age(old) == now && depth < depth(old) && bound != BOUND_EXACT) {
+                    return;
+                }
+                victim = i;
+                break;
+            }
+            int stale = (now - age(old)) & AGE_MASK;
+            int score = depth(old) - AGE_WEIGHT * stale;
+            if (score < worst) {
+                worst = score;
+                victim = i;
+            }
+        }
+        LONGS.setOpaque(table, victim + 1, data);
+        LONGS.setOpaque(table, victim, key ^ data);
+    }
+
+    /** Starts a new search generation, making older entries the first to be replaced. */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /** Empties the table. Not atomic with respect to concurrent stores. */
+    public void clear() {
+        java.util.Arrays.fill(table, 0);
+    }
+
+    /** Number of entries the table can hold. */
+    public int getCapacity() {
+        return table.length / 2;
+    }
+
+    public long getMemoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /** Per mille of a sample of slots holding an entry from the current search. */
+    public int getFillPermille() {
+        int sample = Math.min(1000, getCapacity());
+        int now = age;
+        int used = 0;
+        for (int e = 0; e < sample; e++) {
+            long data = (long) LONGS.getOpaque(table, 2 * e + 1);
+            if (data != 0 && age(data) == now) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    private int bucket(long key) {
+        // Low bits pick the bucket; the full key is still checked on every hit
+        return ((int) key & bucketMask) * BUCKET * 2;
+    }
+}
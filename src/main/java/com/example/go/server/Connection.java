@@ -0,0 +1,306 @@
+package com.example.go.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.InvalidMoveException;
+import com.example.go.journal.RecordedGame;
+
+/**
+ * One client of a {@link GameServer}: splits incoming bytes into command
+ * lines, sends each to its game, and writes the replies back in the order
+ * the commands arrived, however the games' workers interleave. When the
+ * games are journaled, a command that changes a game is answered only once
+ * its event is on disk.
+ *
+ * Reads happen on the connection's selector thread. Replies are written by
+ * whichever thread completes the head of the reply queue, and the selector
+ * finishes any write the socket could not take at once.
+ */
+final class Connection {
+    private static final int MAX_LINE = 1024;
+
+    /** A reply slot, filled in when its command has run. */
+    private static final class Reply {
+        volatile String text;
+    }
+
+    private final SocketChannel channel;
+    private final GameRegistry registry;
+    private SelectionKey key;
+
+    private final ByteBuffer in = ByteBuffer.allocate(4096);
+    private final byte[] line = new byte[MAX_LINE];
+    private int lineLength;
+
+    // Guarded by this
+    private final ArrayDeque<Reply> replies = new ArrayDeque<>();
+    private ByteBuffer out = ByteBuffer.allocate(4096);
+    private boolean closed;
+
+    Connection(SocketChannel channel, GameRegistry registry) {
+        this.channel = channel;
+        this.registry = registry;
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    void register(SelectionKey key) {
+        this.key = key;
+    }
+
+    /** Reads what the socket has; false once the client has gone. */
+    boolean read() throws IOException {
+        in.clear();
+        int n = channel.read(in);
+        if (n < 0) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            byte b = in.get(i);
+            if (b == '\n') {
+                command(new String(line, 0, lineLength, StandardCharsets.US_ASCII).trim());
+                lineLength = 0;
+            } else if (lineLength < MAX_LINE) {
+                line[lineLength++] = b;
+            }
+        }
+        // Replies answered during the read go out in one write
+        flush();
+        return true;
+    }
+
+    // ---------- Commands ----------
+
+    private void command(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        String[] args = text.split(" +");
+        Reply reply = new Reply();
+        synchronized (this) {
+            replies.add(reply);
+        }
+        String verb = args[0].toUpperCase();
+        try {
+            switch (verb) {
+                case "NEW": {
+                    int cols = args.length > 1 ? Integer.parseInt(args[1]) : 19;
+                    int rows = args.length > 2 ? Integer.parseInt(args[2]) : cols;
+                    if (cols < 1 || rows < 1 || cols > GoPosition.MAX_SIZE || rows > GoPosition.MAX_SIZE) {
+                        answer(reply, "ERR bad size");
+                    } else {
+                        GameSession game = registry.create(cols, rows);
+                        String ok = "OK " + game.getId();
+                        if (game.started().isDone() && !game.started().isCompletedExceptionally()) {
+                            answer(reply, ok);
+                        } else {
+                            completeWhenDurable(reply, game.started(), ok);
+                        }
+                    }
+                    return;
+                }
+                case "COUNT":
+                    answer(reply, "OK " + registry.size());
+                    return;
+                case "CLOSE": {
+                    GameSession game = registry.remove(Long.parseLong(args[1]));
+                    if (game == null) {
+                        answer(reply, "ERR unknown game");
+                    } else {
+                        execute(game, reply, g -> completeWhenDurable(reply, g.close(), "OK"));
+                    }
+                    return;
+                }
+                default:
+                    break;
+            }
+            if (args.length < 2) {
+                answer(reply, "ERR syntax");
+                return;
+            }
+            GameSession game = registry.get(Long.parseLong(args[1]));
+            if (game == null) {
+                answer(reply, "ERR unknown game");
+                return;
+            }
+            switch (verb) {
+                case "PLAY": {
+                    int col = Integer.parseInt(args[2]);
+                    int row = Integer.parseInt(args[3]);
+                    execute(game, reply, g -> play(reply, g, col, row));
+                    return;
+                }
+                case "PASS":
+                    execute(game, reply, g -> {
+                        if (g.isResigned()) {
+                            complete(reply, "ERR game over");
+                        } else {
+                            completeWhenDurable(reply, g.pass(), "OK");
+                        }
+                    });
+                    return;
+                case "UNDO":
+                    execute(game, reply, g -> {
+                        if (g.isResigned()) {
+                            complete(reply, "ERR game over");
+                        } else if (g.getMoveCount() == 0) {
+                            complete(reply, "ERR nothing to undo");
+                        } else {
+                            completeWhenDurable(reply, g.undo(), "OK");
+                        }
+                    });
+                    return;
+                case "RESIGN":
+                    execute(game, reply, g -> {
+                        if (g.isResigned()) {
+                            complete(reply, "ERR game over");
+                        } else {
+                            completeWhenDurable(reply, g.resign(), "OK");
+                        }
+                    });
+                    return;
+                case "SCORE":
+                    execute(game, reply, g -> {
+                        GoPosition position = g.getPosition();
+                        GameEvents.score(position);
+                        complete(reply, "OK " + position.getBlackScore() + " " + position.getWhiteScore());
+                    });
+                    return;
+                case "STATE":
+                    execute(game, reply, g -> {
+                        GoPosition position = g.getPosition();
+                        complete(reply, "OK " + (position.isBlackToMove() ? "B" : "W")
+                                + " " + g.getMoveCount()
+                                + " " + position.getCapturedByBlack() + " " + position.getCapturedByWhite());
+                    });
+                    return;
+                default:
+                    answer(reply, "ERR unknown command");
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            answer(reply, "ERR syntax");
+        }
+    }
+
+    /**
+     * Queues {@code command} on {@code game}, answering {@code ERR internal}
+     * if it throws, so the replies queued behind it are not held up for good.
+     */
+    private void execute(GameSession game, Reply reply, Consumer<RecordedGame> command) {
+        game.execute(g -> {
+            try {
+                command.accept(g);
+            } catch (RuntimeException e) {
+                complete(reply, "ERR internal");
+                // Left for the session to log
+                throw e;
+            }
+        });
+    }
+
+    private void play(Reply reply, RecordedGame game, int col, int row) {
+        if (game.isResigned()) {
+            complete(reply, "ERR game over");
+            return;
+        }
+        CompletableFuture<Void> event;
+        try {
+            event = game.play(col, row);
+        } catch (InvalidMoveException e) {
+            complete(reply, "ERR " + e.getMessage());
+            return;
+        }
+        completeWhenDurable(reply, event, "OK");
+    }
+
+    // ---------- Replies ----------
+
+    /** Fills a reply on the selector thread; {@link #read()} flushes once it has read everything. */
+    private static void answer(Reply reply, String text) {
+        reply.text = text;
+    }
+
+    /** Fills a reply from a game's worker and writes whatever is now ready. */
+    private void complete(Reply reply, String text) {
+        reply.text = text;
+        try {
+            flush();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /** Fills a reply with {@code text} once {@code event} is on disk, or with an error if it failed. */
+    private void completeWhenDurable(Reply reply, CompletableFuture<Void> event, String text) {
+        event.whenComplete((ignored, failure) -> complete(reply, failure == null ? text : "ERR journal write failed"));
+    }
+
+    /**
+     * Moves finished replies from the head of the queue to the socket. What
+     * the socket does not take now is left for the selector to write.
+     */
+    synchronized void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        Reply head;
+        while ((head = replies.peek()) != null && head.text != null) {
+            replies.poll();
+            append(head.text);
+        }
+        out.flip();
+        if (out.hasRemaining()) {
+            channel.write(out);
+        }
+        boolean pending = out.hasRemaining();
+        out.compact();
+        int ops = pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+            if (pending) {
+                key.selector().wakeup();
+            }
+        }
+    }
+
+    private void append(String text) {
+        int need = text.length() + 1;
+        if (out.remaining() < need) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + need));
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+        out.put((byte) '\n');
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        replies.clear();
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to tell the client
+        }
+    }
+}
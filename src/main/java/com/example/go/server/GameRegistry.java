@@ -0,0 +1,196 @@
+package com.example.go.server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.go.journal.GameJournal;
+import com.example.go.journal.GameState;
+import com.example.go.journal.RecordedGame;
+
+/**
+ * The games a {@link GameServer} hosts, by id. All sessions share one small
+ * pool of worker threads; see {@link GameSession} for how each game keeps a
+ * single writer on it.
+ *
+ * Given a {@link GameJournal}, every game's events are journaled, and
+ * {@link #snapshot()} compacts the journal. {@link #recover} builds a
+ * registry holding the games a previous run left in a journal directory.
+ */
+public class GameRegistry implements AutoCloseable {
+    private final ConcurrentHashMap<Long, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ExecutorService workers;
+    private final GameJournal journal;
+    // Keeps a game's creation and its entry in the map together across a snapshot's roll
+    private final Object snapshotLock = new Object();
+    private ScheduledExecutorService snapshots;
+    // Scheduled snapshots that failed, so a journal that stopped compacting shows up
+    private final AtomicLong failedSnapshots = new AtomicLong();
+    private volatile Exception lastSnapshotFailure;
+    private static final System.Logger LOG = System.getLogger(GameRegistry.class.getName());
+
+    public GameRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GameRegistry(int workerThreads) {
+        this(workerThreads, null);
+    }
+
+    /** A registry whose games are journaled in {@code journal}, if it is not null. */
+    public GameRegistry(int workerThreads, GameJournal journal) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("Need at least one worker thread");
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "go-game-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.journal = journal;
+    }
+
+    /**
+     * Opens the journal in {@code dir} and rebuilds the games it holds, which
+     * carry on where they stopped, ids included.
+     */
+    public static GameRegistry recover(Path dir, int workerThreads) throws IOException {
+        GameJournal.Recovery recovered = GameJournal.recover(dir);
+        GameRegistry registry = new GameRegistry(workerThreads, GameJournal.open(dir));
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        for (RecordedGame game : recovered.getGames().values()) {
+            game.attach(registry.journal);
+            registry.games.put(game.getId(), new GameSession(game, done, registry.workers));
+        }
+        registry.nextId.set(recovered.getNextId());
+        return registry;
+    }
+
+    /** Starts a new game on an empty {@code cols} x {@code rows} board. */
+    public GameSession create(int cols, int rows) {
+        long id = nextId.getAndIncrement();
+        RecordedGame game = RecordedGame.create(id, cols, rows);
+        synchronized (snapshotLock) {
+            GameSession session = new GameSession(game, game.start(journal), workers);
+            games.put(id, session);
+            return session;
+        }
+    }
+
+    /** The game with {@code id}, or null if there is none. */
+    public GameSession get(long id) {
+        return games.get(id);
+    }
+
+    /**
+     * Drops a game and returns it, or null if there was none; commands
+     * already queued for it still run.
+     */
+    public GameSession remove(long id) {
+        return games.remove(id);
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    // ---------- Snapshots ----------
+
+    /**
+     * Writes a snapshot of every game and drops the journal segments it
+     * covers. Games keep running meanwhile: each is captured by a command on
+     * its own mailbox, after the journal has moved to a fresh segment.
+     */
+    public void snapshot() throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Registry has no journal");
+        }
+        long first;
+        long next;
+        List<GameSession> sessions;
+        synchronized (snapshotLock) {
+            first = journal.roll();
+            next = nextId.get();
+            sessions = new ArrayList<>(games.values());
+        }
+        List<CompletableFuture<GameState>> captures = new ArrayList<>(sessions.size());
+        for (GameSession session : sessions) {
+            CompletableFuture<GameState> state = new CompletableFuture<>();
+            session.execute(game -> state.complete(game.capture()));
+            captures.add(state);
+        }
+        List<GameState> states = new ArrayList<>(captures.size());
+        for (CompletableFuture<GameState> state : captures) {
+            states.add(state.join());
+        }
+        journal.writeSnapshot(first, next, states);
+    }
+
+    /** Takes a {@link #snapshot()} every {@code period} until the registry closes. */
+    public synchronized void scheduleSnapshots(long period, TimeUnit unit) {
+        if (snapshots != null) {
+            throw new IllegalStateException("Snapshots are already scheduled");
+        }
+        snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "go-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                // The journal still holds everything; the next snapshot tries again. An
+                // exception let out of here would cancel every later run without a trace.
+                failedSnapshots.incrementAndGet();
+                lastSnapshotFailure = e;
+                LOG.log(System.Logger.Level.WARNING, "Snapshot failed", e);
+            }
+        }, period, period, unit);
+    }
+
+    /** Scheduled snapshots that have failed since the registry was made. */
+    public long getFailedSnapshots() {
+        return failedSnapshots.get();
+    }
+
+    /** Why the last failed scheduled snapshot failed, or null if none has. */
+    public Exception getLastSnapshotFailure() {
+        return lastSnapshotFailure;
+    }
+
+    /** Stops the workers after the commands already queued, then closes the journal. */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService scheduled;
+        synchronized (this) {
+            scheduled = snapshots;
+        }
+        try {
+            if (scheduled != null) {
+                scheduled.shutdown();
+                scheduled.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            workers.shutdown();
+            if (journal != null) {
+                workers.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.go.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.example.go.metrics.GameMetrics;
+
+/**
+ * Hosts many headless games for clients on a local TCP socket, speaking a
+ * line protocol (ASCII, one command per line, one reply line per command):
+ *
+ * <pre>
+ * NEW [cols [rows]]         OK &lt;game&gt;              (19x19 by default)
+ * PLAY &lt;game&gt; &lt;col&gt; &lt;row&gt;  OK | ERR &lt;reason&gt;    (0-based, from the top left)
+ * PASS &lt;game&gt;               OK
+ * UNDO &lt;game&gt;               OK | ERR nothing to undo
+ * RESIGN &lt;game&gt;             OK                        (the side to move resigns)
+ * SCORE &lt;game&gt;              OK &lt;black&gt; &lt;white&gt;    (Japanese, with prisoners)
+ * STATE &lt;game&gt;              OK &lt;B|W to move&gt; &lt;moves&gt; &lt;captured by black&gt; &lt;captured by white&gt;
+ * CLOSE &lt;game&gt;              OK | ERR unknown game
+ * COUNT                     OK &lt;games hosted&gt;
+ * </pre>
+ *
+ * Commands may be pipelined; replies come back in command order. Any
+ * connection may address any game. After a resign, PLAY, PASS, UNDO and
+ * RESIGN answer {@code ERR game over}. With a journal, commands that change
+ * a game are answered once their event is on disk.
+ *
+ * One thread accepts connections and hands them round-robin to a small
+ * pool of selector threads, which read and parse commands; the commands
+ * themselves run on the {@link GameRegistry}'s workers through each game's
+ * mailbox. Thread count is fixed by the pools, not by the number of games
+ * or clients, and a game between commands is only its position and an
+ * empty queue.
+ */
+public class GameServer implements AutoCloseable {
+    private static final System.Logger LOG = System.getLogger(GameServer.class.getName());
+
+    private final GameRegistry registry;
+    private final ServerSocketChannel server;
+    private final Selector acceptSelector;
+    private final Loop[] loops;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    /** Listens on the loopback address; port 0 picks a free port (see {@link #getPort()}). */
+    public GameServer(int port, int selectorThreads, GameRegistry registry) throws IOException {
+        if (selectorThreads < 1) {
+            throw new IllegalArgumentException("Need at least one selector thread");
+        }
+        this.registry = registry;
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.configureBlocking(false);
+        this.acceptSelector = Selector.open();
+        server.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+        this.loops = new Loop[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++) {
+            loops[i] = new Loop(i);
+            loops[i].thread.start();
+        }
+        this.acceptor = new Thread(this::accept, "go-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public GameRegistry getRegistry() {
+        return registry;
+    }
+
+    private void accept() {
+        int next = 0;
+        try {
+            while (running) {
+                acceptSelector.select();
+                acceptSelector.selectedKeys().clear();
+                SocketChannel client;
+                while ((client = server.accept()) != null) {
+                    client.configureBlocking(false);
+                    client.socket().setTcpNoDelay(true);
+                    loops[next].add(new Connection(client, registry));
+                    next = (next + 1) % loops.length;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOG.log(System.Logger.Level.ERROR, "Accepting connections failed", e);
+            }
+        }
+    }
+
+    /** One selector thread and the connections it reads. */
+    private final class Loop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final ConcurrentLinkedQueue<Connection> added = new ConcurrentLinkedQueue<>();
+
+        Loop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "go-server-selector-" + index);
+            thread.setDaemon(true);
+        }
+
+        void add(Connection connection) {
+            added.add(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    Connection c;
+                    while ((c = added.poll()) != null) {
+                        register(c);
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    LOG.log(System.Logger.Level.ERROR, "Selector " + thread.getName() + " failed", e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+        }
+
+        private void register(Connection c) {
+            try {
+                c.register(c.channel().register(selector, SelectionKey.OP_READ, c));
+            } catch (IOException e) {
+                c.close();
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            Connection c = (Connection) key.attachment();
+            try {
+                if (key.isValid() && key.isWritable()) {
+                    c.flush();
+                }
+                if (key.isValid() && key.isReadable() && !c.read()) {
+                    c.close();
+                }
+            } catch (IOException e) {
+                c.close();
+            } catch (RuntimeException e) {
+                // A bug or a shut-down worker pool costs this connection, not the whole loop
+                LOG.log(System.Logger.Level.WARNING, "Closing connection after an error", e);
+                c.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        acceptSelector.wakeup();
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+        }
+        server.close();
+    }
+
+    /**
+     * Runs a server until the process is stopped. Given a journal directory,
+     * it first recovers the games left there and snapshots once a minute.
+     * Usage: {@code GameServer [port] [selectorThreads] [workerThreads] [journalDir]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        GameMetrics.installIfRequested();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int selectors = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, cores / 2);
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : cores;
+        GameRegistry registry;
+        if (args.length > 3) {
+            registry = GameRegistry.recover(Paths.get(args[3]), workers);
+            registry.scheduleSnapshots(1, TimeUnit.MINUTES);
+            System.err.println("Recovered " + registry.size() + " games from " + args[3]);
+        } else {
+            registry = new GameRegistry(workers);
+        }
+        GameServer server = new GameServer(port, selectors, registry);
+        System.err.println("Serving games on 127.0.0.1:" + server.getPort());
+        server.acceptor.join();
+    }
+}
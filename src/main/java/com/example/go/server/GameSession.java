@@ -0,0 +1,90 @@
+package com.example.go.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.example.go.journal.RecordedGame;
+
+/**
+ * One headless game hosted by a {@link GameRegistry}. Commands for it are
+ * queued on a lock-free mailbox and run by whichever worker thread picks the
+ * session up, one at a time and in order, so the position has a single
+ * writer without any lock and a game with nothing to do costs no thread.
+ * When the registry keeps a journal, the game's events go to it as they
+ * happen; see {@link RecordedGame}.
+ */
+public final class GameSession {
+    // Commands run per turn on a worker before the session yields to other games
+    private static final int BATCH = 64;
+
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1;
+
+    private final RecordedGame game;
+    private final CompletableFuture<Void> started;
+    private final Executor workers;
+    private final ConcurrentLinkedQueue<Consumer<RecordedGame>> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    private static final System.Logger LOG = System.getLogger(GameSession.class.getName());
+
+    GameSession(RecordedGame game, CompletableFuture<Void> started, Executor workers) {
+        this.game = game;
+        this.started = started;
+        this.workers = workers;
+    }
+
+    public long getId() {
+        return game.getId();
+    }
+
+    /** Completes once the game's creation is on disk, or at once without a journal. */
+    public CompletableFuture<Void> started() {
+        return started;
+    }
+
+    /**
+     * Queues {@code command} to run against this game on a worker
+     * thread. Commands from any number of threads run one at a time in the
+     * order they were queued.
+     */
+    public void execute(Consumer<RecordedGame> command) {
+        mailbox.add(command);
+        schedule();
+    }
+
+    private void schedule() {
+        if (state.get() == IDLE && state.compareAndSet(IDLE, SCHEDULED)) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs a batch of commands. A command that throws is logged and the
+     * next one runs; whatever happens, the session goes back to idle, or
+     * it would never be scheduled again.
+     */
+    private void drain() {
+        try {
+            for (int n = 0; n < BATCH; n++) {
+                Consumer<RecordedGame> command = mailbox.poll();
+                if (command == null) {
+                    break;
+                }
+                try {
+                    command.accept(game);
+                } catch (RuntimeException e) {
+                    LOG.log(System.Logger.Level.WARNING, "Command for game " + getId() + " failed", e);
+                }
+            }
+        } finally {
+            state.set(IDLE);
+            // A command queued after the last poll but before the reset would otherwise wait
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
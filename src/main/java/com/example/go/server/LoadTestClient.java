@@ -0,0 +1,207 @@
+package com.example.go.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stand-in client for load testing a {@link GameServer}: opens a number of
+ * connections, starts its share of games on each, then plays random moves
+ * in every game round after round, pipelining a window of commands per
+ * connection. Illegal random moves are answered with ERR and count as
+ * replies like any other.
+ */
+public final class LoadTestClient {
+    // Commands in flight per connection before waiting for replies
+    private static final int WINDOW = 256;
+
+    private LoadTestClient() {
+    }
+
+    /** Totals of one load test run. */
+    public static final class Result {
+        private final int games;
+        private final long commands;
+        private final long okReplies;
+        private final long elapsedNanos;
+        private final long[] latencies;
+
+        Result(int games, long commands, long okReplies, long elapsedNanos, long[] latencies) {
+            this.games = games;
+            this.commands = commands;
+            this.okReplies = okReplies;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        /** Commands sent, each of which got a reply. */
+        public long getCommands() {
+            return commands;
+        }
+
+        public long getOkReplies() {
+            return okReplies;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getCommandsPerSecond() {
+            return commands * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        /** Round-trip time of the given percentile of move commands, in microseconds. */
+        public double getLatencyMicros(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int i = (int) Math.min(latencies.length - 1, Math.floor(percentile / 100 * latencies.length));
+            return latencies[i] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games, %d commands (%d OK) in %.2f s = %.0f commands/s, "
+                            + "round trip p50 %.0f us, p99 %.0f us",
+                    games, commands, okReplies, elapsedNanos / 1e9, getCommandsPerSecond(),
+                    getLatencyMicros(50), getLatencyMicros(99));
+        }
+    }
+
+    /**
+     * Starts {@code games} games of the given size spread over
+     * {@code connections} connections to the server on {@code port}, and
+     * sends {@code moves} random moves to every game.
+     */
+    public static Result run(int port, int games, int size, int connections, int moves, long seed)
+            throws IOException, InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<long[]>> parts = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < connections; c++) {
+                int share = games / connections + (c < games % connections ? 1 : 0);
+                long partSeed = seed + c;
+                parts.add(threads.submit(() -> drive(port, share, size, moves, partSeed)));
+            }
+            long commands = 0;
+            long ok = 0;
+            List<long[]> latencies = new ArrayList<>();
+            for (Future<long[]> part : parts) {
+                long[] r = part.get();
+                commands += r[0];
+                ok += r[1];
+                latencies.add(Arrays.copyOfRange(r, 2, r.length));
+            }
+            long elapsed = System.nanoTime() - start;
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(games, commands, ok, elapsed, all);
+        } catch (ExecutionException e) {
+            throw new IOException("Load test connection failed", e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /** One connection's share; returns commands, OK replies, then each move's round trip. */
+    private static long[] drive(int port, int games, int size, int moves, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 1 << 16);
+            long[] result = new long[2 + games * moves];
+            StringBuilder batch = new StringBuilder(WINDOW * 24);
+
+            long[] ids = new long[games];
+            for (int g = 0; g < games; g += WINDOW) {
+                int n = Math.min(WINDOW, games - g);
+                batch.setLength(0);
+                for (int i = 0; i < n; i++) {
+                    batch.append("NEW ").append(size).append('\n');
+                }
+                out.write(batch.toString().getBytes(StandardCharsets.US_ASCII));
+                for (int i = 0; i < n; i++) {
+                    String reply = in.readLine();
+                    if (reply == null || !reply.startsWith("OK ")) {
+                        throw new IOException("NEW failed: " + reply);
+                    }
+                    ids[g + i] = Long.parseLong(reply.substring(3));
+                }
+            }
+            result[0] = games;
+            result[1] = games;
+
+            int latency = 2;
+            long[] sent = new long[WINDOW];
+            for (int round = 0; round < moves; round++) {
+                for (int g = 0; g < games; g += WINDOW) {
+                    int n = Math.min(WINDOW, games - g);
+                    batch.setLength(0);
+                    for (int i = 0; i < n; i++) {
+                        batch.append("PLAY ").append(ids[g + i]).append(' ')
+                                .append(random.nextInt(size)).append(' ').append(random.nextInt(size)).append('\n');
+                    }
+                    long now = System.nanoTime();
+                    Arrays.fill(sent, 0, n, now);
+                    out.write(batch.toString().getBytes(StandardCharsets.US_ASCII));
+                    for (int i = 0; i < n; i++) {
+                        String reply = in.readLine();
+                        if (reply == null) {
+                            throw new IOException("Server closed the connection");
+                        }
+                        result[latency++] = System.nanoTime() - sent[i];
+                        result[0]++;
+                        if (reply.startsWith("OK")) {
+                            result[1]++;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Load-tests a running server, or one started in this JVM when no port
+     * is given.
+     * Usage: {@code LoadTestClient [games] [moves] [connections] [size] [port]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 19;
+        if (args.length > 4) {
+            System.out.println(run(Integer.parseInt(args[4]), games, size, connections, moves, 1));
+            return;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        try (GameRegistry registry = new GameRegistry(cores);
+             GameServer server = new GameServer(0, Math.max(1, cores / 2), registry)) {
+            System.out.println(run(server.getPort(), games, size, connections, moves, 1));
+            Runtime rt = Runtime.getRuntime();
+            System.gc();
+            System.out.printf("%d games hosted, heap in use %.1f MB%n",
+                    registry.size(), (rt.totalMemory() - rt.freeMemory()) / 1e6);
+        }
+    }
+}
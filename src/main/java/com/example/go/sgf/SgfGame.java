@@ -0,0 +1,158 @@
+package com.example.go.sgf;
+
+import com.example.go.engine.GoPosition;
+
+/**
+ * The main line of one SGF game: board size, game info, setup stones and
+ * the moves in order. Moves are kept in primitive arrays, one {@code int}
+ * per move ({@code row * cols + col}, or {@link #PASS}) plus one colour
+ * byte, so replaying a game allocates nothing per move.
+ */
+public final class SgfGame {
+    /** Move code for a pass. */
+    public static final int PASS = -1;
+
+    private final int cols;
+    private final int rows;
+    private final double komi;
+    private final int handicap;
+    private final String blackPlayer;
+    private final String whitePlayer;
+    private final String result;
+    private final int[] blackSetup;
+    private final int[] whiteSetup;
+    private final int[] moves;
+    private final byte[] colors;
+
+    public SgfGame(int cols, int rows, double komi, int handicap, String blackPlayer, String whitePlayer,
+                   String result, int[] blackSetup, int[] whiteSetup, int[] moves, byte[] colors) {
+        if (moves.length != colors.length) {
+            throw new IllegalArgumentException("Need one colour per move");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.komi = komi;
+        this.handicap = handicap;
+        this.blackPlayer = blackPlayer;
+        this.whitePlayer = whitePlayer;
+        this.result = result;
+        this.blackSetup = blackSetup;
+        this.whiteSetup = whiteSetup;
+        this.moves = moves;
+        this.colors = colors;
+    }
+
+    /**
+     * The moves played so far in {@code position}, from its start or last
+     * setup edit. Setup stones are not part of a position's history, so
+     * they are not included.
+     */
+    public static SgfGame from(GoPosition position, double komi, String result) {
+        int n = position.getMoveCount();
+        int[] moves = new int[n];
+        byte[] colors = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int p = position.getMove(i);
+            moves[i] = p == GoPosition.PASS ? PASS : position.row(p) * position.getCols() + position.col(p);
+            colors[i] = position.getMoveColor(i);
+        }
+        return new SgfGame(position.getCols(), position.getRows(), komi, 0, null, null, result,
+                new int[0], new int[0], moves, colors);
+    }
+
+    /**
+     * Resets {@code position}, places the setup stones and plays the moves,
+     * stopping at the first illegal one. Returns the number of moves played,
+     * which is {@link #getMoveCount()} unless the record breaks the rules.
+     */
+    public int replay(GoPosition position) {
+        if (position.getCols() != cols || position.getRows() != rows) {
+            throw new IllegalArgumentException("Game is " + cols + "x" + rows + " but the position is "
+                    + position.getCols() + "x" + position.getRows());
+        }
+        position.reset();
+        for (int m : blackSetup) {
+            position.setStone(m % cols, m / cols, GoPosition.BLACK);
+        }
+        for (int m : whiteSetup) {
+            position.setStone(m % cols, m / cols, GoPosition.WHITE);
+        }
+        for (int i = 0; i < moves.length; i++) {
+            if (position.getToMove() != colors[i]) {
+                position.setToMove(colors[i]);
+            }
+            int m = moves[i];
+            int p = m == PASS ? GoPosition.PASS : position.point(m % cols, m / cols);
+            if (!position.play(p)) {
+                return i;
+            }
+        }
+        return moves.length;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getKomi() {
+        return komi;
+    }
+
+    public int getHandicap() {
+        return handicap;
+    }
+
+    /** PB, or null when the record does not name the player. */
+    public String getBlackPlayer() {
+        return blackPlayer;
+    }
+
+    /** PW, or null when the record does not name the player. */
+    public String getWhitePlayer() {
+        return whitePlayer;
+    }
+
+    /** RE as written, e.g. "B+R" or "W+3.5", or null. */
+    public String getResult() {
+        return result;
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /** Move code of the i-th move: {@code row * cols + col}, or {@link #PASS}. */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    public byte getColor(int i) {
+        return colors[i];
+    }
+
+    public boolean isPass(int i) {
+        return moves[i] == PASS;
+    }
+
+    public int getCol(int i) {
+        return moves[i] % cols;
+    }
+
+    public int getRow(int i) {
+        return moves[i] / cols;
+    }
+
+    /** Black setup stones (AB) as move codes. */
+    public int[] getBlackSetup() {
+        return blackSetup.clone();
+    }
+
+    /** White setup stones (AW) as move codes. */
+    public int[] getWhiteSetup() {
+        return whiteSetup.clone();
+    }
+}
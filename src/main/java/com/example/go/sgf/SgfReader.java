@@ -0,0 +1,465 @@
+package com.example.go.sgf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.SgfFormatException;
+
+/**
+ * Streaming SGF parser. Games are read one at a time from a character
+ * stream, so a file holding many game trees (or a directory of files, via
+ * {@link #games(Path)}) is never held in memory as a whole.
+ *
+ * Only the main line is kept: the first child at every branch. Everything
+ * after the end of the main line up to the close of the game tree is
+ * skipped without being parsed into properties. Moves and setup points go
+ * into a reusable int buffer and are copied out once per game, so there is
+ * no per-move allocation.
+ *
+ * Recognised properties are SZ, KM, HA, PB, PW, RE, AB, AW, B and W; the
+ * rest are skipped. Malformed input raises {@link SgfFormatException} with
+ * the line it was found on.
+ */
+public final class SgfReader implements Closeable {
+    private static final int DEFAULT_SIZE = 19;
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+    private int line = 1;
+
+    private final StringBuilder text = new StringBuilder();
+    private int[] moves = new int[512];
+    private byte[] colors = new byte[512];
+    private int moveCount;
+    private int[] blackSetup = new int[16];
+    private int blackSetupCount;
+    private int[] whiteSetup = new int[16];
+    private int whiteSetupCount;
+
+    public SgfReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Every game in {@code path}: the games of one file, or of every
+     * {@code .sgf} file under a directory in path order. Files are opened one
+     * at a time as the stream reaches them; close the stream to release the
+     * one that is open. I/O errors surface as {@link UncheckedIOException}.
+     *
+     * A malformed game raises {@link SgfFormatException} naming its file,
+     * and the rest of that file is skipped. An iterator over the stream can
+     * carry on past it with the next file, so one damaged file does not end
+     * a walk over a whole corpus.
+     */
+    public static Stream<SgfGame> games(Path path) throws IOException {
+        List<Path> files;
+        if (!Files.isDirectory(path)) {
+            files = Collections.singletonList(path);
+        } else {
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk
+                        .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(".sgf"))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+        FileGames games = new FileGames(files);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(games,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(games::close);
+    }
+
+    /** The games of a list of files, reading one file at a time. */
+    private static final class FileGames implements Iterator<SgfGame> {
+        private final List<Path> files;
+        private int nextFile;
+        private Path file;
+        private SgfReader reader;
+        private SgfGame next;
+
+        FileGames(List<Path> files) throws IOException {
+            this.files = files;
+            // The first file is opened now, so a missing one fails the call rather than the stream
+            if (!files.isEmpty()) {
+                open();
+            }
+        }
+
+        private void open() throws IOException {
+            file = files.get(nextFile++);
+            reader = new SgfReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+
+        /** Closes the current file and opens the next, if any. */
+        private void advance() throws IOException {
+            SgfReader done = reader;
+            reader = null;
+            done.close();
+            if (nextFile < files.size()) {
+                open();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && reader != null) {
+                    SgfGame game;
+                    try {
+                        game = reader.next();
+                    } catch (SgfFormatException e) {
+                        // Past a damaged game tree the rest of the file cannot be trusted to line up
+                        Path damaged = file;
+                        advance();
+                        throw new SgfFormatException(damaged + ": " + e.getMessage());
+                    }
+                    if (game == null) {
+                        advance();
+                    } else {
+                        next = game;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public SgfGame next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SgfGame game = next;
+            next = null;
+            return game;
+        }
+
+        void close() {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    reader = null;
+                }
+            }
+        }
+    }
+
+    /** The next game tree's main line, or null at the end of the input. */
+    public SgfGame next() throws IOException {
+        int c;
+        while ((c = read()) != '(') {
+            if (c < 0) return null;
+        }
+
+        int cols = DEFAULT_SIZE;
+        int rows = DEFAULT_SIZE;
+        double komi = 0;
+        int handicap = 0;
+        String blackPlayer = null;
+        String whitePlayer = null;
+        String result = null;
+        moveCount = 0;
+        blackSetupCount = 0;
+        whiteSetupCount = 0;
+
+        // Up to the first ')' every '(' opens the first child, i.e. the main line
+        int depth = 1;
+        while (true) {
+            c = read();
+            if (c < 0) {
+                throw error("Unexpected end of input inside a game");
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                break;
+            } else if (c == ';' || Character.isWhitespace(c)) {
+                continue;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                // Older FF versions allow lower case letters in identifiers, which are to be ignored
+                String id = readIdentifier(c);
+                switch (id) {
+                    case "B":
+                    case "W":
+                        readMove(id.charAt(0) == 'B' ? GoPosition.BLACK : GoPosition.WHITE);
+                        break;
+                    case "AB":
+                    case "AW":
+                        readSetup(id.charAt(1) == 'B');
+                        break;
+                    case "SZ": {
+                        String size = readText();
+                        int colon = size.indexOf(':');
+                        cols = parseInt(colon < 0 ? size : size.substring(0, colon), "SZ");
+                        rows = colon < 0 ? cols : parseInt(size.substring(colon + 1), "SZ");
+                        if (cols < 1 || rows < 1 || cols > GoPosition.MAX_SIZE || rows > GoPosition.MAX_SIZE) {
+                            throw error("Unsupported board size " + size);
+                        }
+                        break;
+                    }
+                    case "KM":
+                        komi = parseDouble(readText(), "KM");
+                        break;
+                    case "HA":
+                        handicap = parseInt(readText(), "HA");
+                        break;
+                    case "PB":
+                        blackPlayer = readText();
+                        break;
+                    case "PW":
+                        whitePlayer = readText();
+                        break;
+                    case "RE":
+                        result = readText();
+                        break;
+                    default:
+                        skipValues();
+                }
+            } else {
+                throw error("Unexpected '" + (char) c + "'");
+            }
+        }
+        skipTree(depth);
+
+        return new SgfGame(cols, rows, komi, handicap, blackPlayer, whitePlayer, result,
+                toCodes(blackSetup, blackSetupCount, cols, rows),
+                toCodes(whiteSetup, whiteSetupCount, cols, rows),
+                toCodes(moves, moveCount, cols, rows),
+                java.util.Arrays.copyOf(colors, moveCount));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ---------- Properties ----------
+
+    /** Reads the rest of an identifier that starts with {@code first}; lower case letters are dropped. */
+    private String readIdentifier(int first) throws IOException {
+        text.setLength(0);
+        if (first >= 'A' && first <= 'Z') text.append((char) first);
+        int c;
+        while (((c = peek()) >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+            pos++;
+            if (c <= 'Z') text.append((char) c);
+        }
+        return text.toString();
+    }
+
+    private void readMove(byte color) throws IOException {
+        expectValue();
+        int a = read();
+        int move;
+        if (a == ']') {
+            move = SgfGame.PASS;
+        } else {
+            // Raw (col << 8 | row) for now; 'tt' is checked once the size is known
+            move = (coordinate(a) << 8) | coordinate(read());
+            if (read() != ']') {
+                throw error("Move value must be two letters");
+            }
+        }
+        if (moveCount == moves.length) {
+            moves = java.util.Arrays.copyOf(moves, moveCount * 2);
+            colors = java.util.Arrays.copyOf(colors, moveCount * 2);
+        }
+        moves[moveCount] = move;
+        colors[moveCount] = color;
+        moveCount++;
+        skipValues();
+    }
+
+    private void readSetup(boolean black) throws IOException {
+        while (skipSpaceBefore('[')) {
+            pos++;
+            int c0 = coordinate(read());
+            int r0 = coordinate(read());
+            int c1 = c0;
+            int r1 = r0;
+            int c = read();
+            if (c == ':') {
+                // Compressed point list: a rectangle from one corner to the other
+                c1 = coordinate(read());
+                r1 = coordinate(read());
+                c = read();
+            }
+            if (c != ']') {
+                throw error("Setup value must be a point or a rectangle");
+            }
+            for (int col = Math.min(c0, c1); col <= Math.max(c0, c1); col++) {
+                for (int row = Math.min(r0, r1); row <= Math.max(r0, r1); row++) {
+                    addSetup(black, (col << 8) | row);
+                }
+            }
+        }
+    }
+
+    private void addSetup(boolean black, int raw) {
+        if (black) {
+            if (blackSetupCount == blackSetup.length) {
+                blackSetup = java.util.Arrays.copyOf(blackSetup, blackSetupCount * 2);
+            }
+            blackSetup[blackSetupCount++] = raw;
+        } else {
+            if (whiteSetupCount == whiteSetup.length) {
+                whiteSetup = java.util.Arrays.copyOf(whiteSetup, whiteSetupCount * 2);
+            }
+            whiteSetup[whiteSetupCount++] = raw;
+        }
+    }
+
+    /** Turns raw (col << 8 | row) values into move codes; 'tt' on boards up to 19x19 is a pass. */
+    private int[] toCodes(int[] raw, int count, int cols, int rows) {
+        int[] codes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int r = raw[i];
+            if (r == SgfGame.PASS) {
+                codes[i] = SgfGame.PASS;
+                continue;
+            }
+            int col = r >>> 8;
+            int row = r & 0xFF;
+            if (col == 19 && row == 19 && cols <= 19 && rows <= 19) {
+                codes[i] = SgfGame.PASS;
+            } else if (col >= cols || row >= rows) {
+                throw error("Point " + (char) ('a' + col) + (char) ('a' + row) + " is off a "
+                        + cols + "x" + rows + " board");
+            } else {
+                codes[i] = row * cols + col;
+            }
+        }
+        return codes;
+    }
+
+    private int coordinate(int c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 26;
+        throw error("Bad coordinate " + (c < 0 ? "at end of input" : "'" + (char) c + "'"));
+    }
+
+    /** Reads one bracketed value as text, resolving escapes; any further values are skipped. */
+    private String readText() throws IOException {
+        expectValue();
+        text.setLength(0);
+        int c;
+        while ((c = read()) != ']') {
+            if (c < 0) throw error("Unterminated value");
+            if (c == '\\') {
+                c = read();
+                if (c < 0) throw error("Unterminated value");
+                // An escaped line break is a soft break and disappears
+                if (c == '\n' || c == '\r') continue;
+            }
+            text.append((char) c);
+        }
+        skipValues();
+        return text.toString().trim();
+    }
+
+    private void expectValue() throws IOException {
+        if (!skipSpaceBefore('[')) {
+            throw error("Property without a value");
+        }
+        pos++;
+    }
+
+    /** Skips every remaining bracketed value of the current property. */
+    private void skipValues() throws IOException {
+        while (skipSpaceBefore('[')) {
+            pos++;
+            skipValueBody();
+        }
+    }
+
+    private void skipValueBody() throws IOException {
+        int c;
+        while ((c = read()) != ']') {
+            if (c < 0) throw error("Unterminated value");
+            if (c == '\\' && read() < 0) throw error("Unterminated value");
+        }
+    }
+
+    /** Skips the rest of a game tree that is {@code depth} levels deep. */
+    private void skipTree(int depth) throws IOException {
+        while (depth > 0) {
+            int c = read();
+            if (c < 0) throw error("Unexpected end of input inside a game");
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == '[') skipValueBody();
+        }
+    }
+
+    private int parseInt(String s, String property) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw error("Bad " + property + " value '" + s + "'");
+        }
+    }
+
+    private double parseDouble(String s, String property) {
+        if (s.isEmpty()) return 0;
+        try {
+            return Double.parseDouble(s.trim());
+        } catch (NumberFormatException e) {
+            throw error("Bad " + property + " value '" + s + "'");
+        }
+    }
+
+    private SgfFormatException error(String message) {
+        return new SgfFormatException(message + " (line " + line + ")");
+    }
+
+    // ---------- Input ----------
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        char c = buf[pos++];
+        if (c == '\n') line++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos];
+    }
+
+    /** Skips whitespace and reports whether the next character is {@code c}, without consuming it. */
+    private boolean skipSpaceBefore(char c) throws IOException {
+        int next;
+        while ((next = peek()) >= 0 && Character.isWhitespace(next)) {
+            read();
+        }
+        return next == c;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
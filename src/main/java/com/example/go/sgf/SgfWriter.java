@@ -0,0 +1,105 @@
+package com.example.go.sgf;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.example.go.Board;
+import com.example.go.engine.GoPosition;
+
+/**
+ * Writes games as SGF (FF[4]), one game tree per {@link #write(SgfGame)}
+ * call, straight to the underlying writer. Only the main line is written,
+ * which is all {@link SgfGame} holds.
+ */
+public final class SgfWriter implements Closeable, Flushable {
+    private final Writer out;
+
+    public SgfWriter(Writer out) {
+        this.out = out;
+    }
+
+    /** Writes the moves played so far on {@code board}. */
+    public void write(Board board, double komi) throws IOException {
+        write(SgfGame.from(board.getPosition(), komi, null));
+    }
+
+    public void write(SgfGame game) throws IOException {
+        out.write("(;GM[1]FF[4]CA[UTF-8]SZ[");
+        out.write(Integer.toString(game.getCols()));
+        if (game.getRows() != game.getCols()) {
+            out.write(':');
+            out.write(Integer.toString(game.getRows()));
+        }
+        out.write(']');
+        out.write("KM[");
+        out.write(formatKomi(game.getKomi()));
+        out.write(']');
+        if (game.getHandicap() > 0) {
+            out.write("HA[");
+            out.write(Integer.toString(game.getHandicap()));
+            out.write(']');
+        }
+        writeText("PB", game.getBlackPlayer());
+        writeText("PW", game.getWhitePlayer());
+        writeText("RE", game.getResult());
+        writePoints("AB", game.getBlackSetup(), game.getCols());
+        writePoints("AW", game.getWhiteSetup(), game.getCols());
+
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            out.write(i % 10 == 0 ? "\n;" : ";");
+            out.write(game.getColor(i) == GoPosition.BLACK ? 'B' : 'W');
+            out.write('[');
+            if (!game.isPass(i)) {
+                out.write(letter(game.getCol(i)));
+                out.write(letter(game.getRow(i)));
+            }
+            out.write(']');
+        }
+        out.write(")\n");
+    }
+
+    private void writeText(String id, String value) throws IOException {
+        if (value == null) return;
+        out.write(id);
+        out.write('[');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ']' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write(']');
+    }
+
+    private void writePoints(String id, int[] points, int cols) throws IOException {
+        if (points.length == 0) return;
+        out.write(id);
+        for (int m : points) {
+            out.write('[');
+            out.write(letter(m % cols));
+            out.write(letter(m / cols));
+            out.write(']');
+        }
+    }
+
+    private static char letter(int coordinate) {
+        return (char) (coordinate < 26 ? 'a' + coordinate : 'A' + coordinate - 26);
+    }
+
+    private static String formatKomi(double komi) {
+        return komi == Math.rint(komi) ? Long.toString((long) komi) : Double.toString(komi);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.go.store;
+
+import static com.example.go.store.GameStoreFormat.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.sgf.SgfGame;
+
+/**
+ * Read-only view of a game store file (see {@link GameStoreFormat}), mapped
+ * into memory. Game {@code n} is found through the offset index and decoded
+ * straight from the mapping with absolute reads, so jumping to any game is
+ * O(1) and nothing is copied or allocated per game or per move.
+ *
+ * Absolute reads do not touch the buffer's position, so one store can be
+ * shared by any number of replay threads.
+ */
+public final class GameStore implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int games;
+    private final int index;
+
+    public GameStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException(file + " is over 2 GB; split the corpus into several stores");
+        }
+        if (size < FILE_HEADER) {
+            channel.close();
+            throw new IOException(file + " is not a game store");
+        }
+        this.map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if (map.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a game store");
+        }
+        if (map.getShort(4) != VERSION) {
+            channel.close();
+            throw new IOException(file + " has unsupported version " + map.getShort(4));
+        }
+        this.games = map.getInt(OFF_GAME_COUNT);
+        long indexOffset = map.getLong(OFF_INDEX);
+        if (games < 0 || indexOffset < FILE_HEADER || indexOffset + 8L * (games + 1) > size) {
+            channel.close();
+            throw new IOException(file + " has a damaged index");
+        }
+        this.index = (int) indexOffset;
+    }
+
+    public int getGameCount() {
+        return games;
+    }
+
+    private int base(int game) {
+        if (game < 0 || game >= games) {
+            throw new IndexOutOfBoundsException("Game " + game + " of " + games);
+        }
+        return (int) map.getLong(index + 8 * game);
+    }
+
+    public int getCols(int game) {
+        return map.get(base(game) + OFF_COLS) & 0xFF;
+    }
+
+    public int getRows(int game) {
+        return map.get(base(game) + OFF_ROWS) & 0xFF;
+    }
+
+    public double getKomi(int game) {
+        return map.getShort(base(game) + OFF_KOMI) / 2.0;
+    }
+
+    public int getHandicap(int game) {
+        return map.get(base(game) + OFF_HANDICAP) & 0xFF;
+    }
+
+    public int getMoveCount(int game) {
+        return map.getInt(base(game) + OFF_MOVE_COUNT);
+    }
+
+    /**
+     * Decodes the moves of {@code game} into the caller's arrays, in the
+     * same codes as {@link SgfGame#getMove(int)}, and returns how many there
+     * are. The arrays must hold at least {@link #getMoveCount(int)} entries.
+     */
+    public int readMoves(int game, int[] moves, byte[] colors) {
+        int b = base(game);
+        int points = (map.get(b + OFF_COLS) & 0xFF) * (map.get(b + OFF_ROWS) & 0xFF);
+        int width = map.get(b + OFF_WIDTH);
+        int count = map.getInt(b + OFF_MOVE_COUNT);
+        int at = movesStart(b);
+        int whiteBit = whiteBit(width);
+        for (int i = 0; i < count; i++) {
+            int code = width == 1 ? map.get(at + i) & 0xFF : map.getShort(at + 2 * i) & 0xFFFF;
+            colors[i] = (code & whiteBit) != 0 ? GoPosition.WHITE : GoPosition.BLACK;
+            code &= whiteBit - 1;
+            moves[i] = code == points ? SgfGame.PASS : code;
+        }
+        return count;
+    }
+
+    /**
+     * Sets up {@code position} and plays the moves of {@code game} like
+     * {@link SgfGame#replay(GoPosition)}: returns the number of moves played,
+     * stopping at the first illegal one. The position must have the game's size.
+     */
+    public int replay(int game, GoPosition position) {
+        int b = base(game);
+        int cols = map.get(b + OFF_COLS) & 0xFF;
+        int rows = map.get(b + OFF_ROWS) & 0xFF;
+        if (position.getCols() != cols || position.getRows() != rows) {
+            throw new IllegalArgumentException("Game is " + cols + "x" + rows + " but the position is "
+                    + position.getCols() + "x" + position.getRows());
+        }
+        int points = cols * rows;
+        int width = map.get(b + OFF_WIDTH);
+        int blackSetup = map.getShort(b + OFF_BLACK_SETUP) & 0xFFFF;
+        int whiteSetup = map.getShort(b + OFF_WHITE_SETUP) & 0xFFFF;
+        int count = map.getInt(b + OFF_MOVE_COUNT);
+
+        position.reset();
+        int at = b + GAME_HEADER;
+        for (int i = 0; i < blackSetup + whiteSetup; i++) {
+            int p = map.getShort(at + 2 * i) & 0xFFFF;
+            position.setStone(p % cols, p / cols, i < blackSetup ? GoPosition.BLACK : GoPosition.WHITE);
+        }
+
+        at = movesStart(b);
+        int whiteBit = whiteBit(width);
+        for (int i = 0; i < count; i++) {
+            int code = width == 1 ? map.get(at + i) & 0xFF : map.getShort(at + 2 * i) & 0xFFFF;
+            byte color = (code & whiteBit) != 0 ? GoPosition.WHITE : GoPosition.BLACK;
+            code &= whiteBit - 1;
+            if (position.getToMove() != color) {
+                position.setToMove(color);
+            }
+            int p = code == points ? GoPosition.PASS : position.point(code % cols, code / cols);
+            if (!position.play(p)) {
+                return i;
+            }
+        }
+        return count;
+    }
+
+    /** Builds an {@link SgfGame} for {@code game}; unlike the other accessors this allocates. */
+    public SgfGame getGame(int game) {
+        int b = base(game);
+        int cols = getCols(game);
+        int blackSetup = map.getShort(b + OFF_BLACK_SETUP) & 0xFFFF;
+        int whiteSetup = map.getShort(b + OFF_WHITE_SETUP) & 0xFFFF;
+        int[] black = new int[blackSetup];
+        int[] white = new int[whiteSetup];
+        for (int i = 0; i < blackSetup; i++) {
+            black[i] = map.getShort(b + GAME_HEADER + 2 * i) & 0xFFFF;
+        }
+        for (int i = 0; i < whiteSetup; i++) {
+            white[i] = map.getShort(b + GAME_HEADER + 2 * (blackSetup + i)) & 0xFFFF;
+        }
+        int count = getMoveCount(game);
+        int[] moves = new int[count];
+        byte[] colors = new byte[count];
+        readMoves(game, moves, colors);
+        return new SgfGame(cols, getRows(game), getKomi(game), getHandicap(game), null, null, null,
+                black, white, moves, colors);
+    }
+
+    private int movesStart(int b) {
+        int setup = (map.getShort(b + OFF_BLACK_SETUP) & 0xFFFF) + (map.getShort(b + OFF_WHITE_SETUP) & 0xFFFF);
+        return b + GAME_HEADER + 2 * setup;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
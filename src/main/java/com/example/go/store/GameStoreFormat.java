@@ -0,0 +1,64 @@
+package com.example.go.store;
+
+/**
+ * Layout of a game store file. All numbers are little endian.
+ *
+ * <pre>
+ * File header, 32 bytes
+ *   0  int    magic "GOGS"
+ *   4  short  version
+ *   6  short  reserved
+ *   8  int    game count
+ *  12  int    reserved
+ *  16  long   offset of the index
+ *  24  long   reserved
+ *
+ * Game records, back to back from offset 32. Each starts with a 16 byte header
+ *   0  byte   cols
+ *   1  byte   rows
+ *   2  short  komi in half points
+ *   4  byte   handicap
+ *   5  byte   bytes per move, 1 or 2
+ *   6  short  black setup stones
+ *   8  short  white setup stones
+ *  10  short  reserved
+ *  12  int    move count
+ * followed by the setup stones (2 bytes each, black first) and the moves.
+ *
+ * Index: game count + 1 longs, the offset of every record plus the end of the last.
+ * </pre>
+ *
+ * A move is {@code row * cols + col}, or {@code cols * rows} for a pass, with
+ * the top bit set when white played it. Boards of up to 127 points plus pass
+ * (11x11 and smaller) fit that in one byte, larger ones take two.
+ */
+final class GameStoreFormat {
+    static final int MAGIC = 'G' | 'O' << 8 | 'G' << 16 | 'S' << 24;
+    static final short VERSION = 1;
+    static final int FILE_HEADER = 32;
+    static final int GAME_HEADER = 16;
+
+    static final int OFF_GAME_COUNT = 8;
+    static final int OFF_INDEX = 16;
+
+    static final int OFF_COLS = 0;
+    static final int OFF_ROWS = 1;
+    static final int OFF_KOMI = 2;
+    static final int OFF_HANDICAP = 4;
+    static final int OFF_WIDTH = 5;
+    static final int OFF_BLACK_SETUP = 6;
+    static final int OFF_WHITE_SETUP = 8;
+    static final int OFF_MOVE_COUNT = 12;
+
+    private GameStoreFormat() {
+    }
+
+    /** Bytes per move for a board of {@code points} points. */
+    static int moveWidth(int points) {
+        return points <= 0x7F ? 1 : 2;
+    }
+
+    static int whiteBit(int width) {
+        return width == 1 ? 0x80 : 0x8000;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.go.store;
+
+import static com.example.go.store.GameStoreFormat.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.sgf.SgfGame;
+import com.example.go.sgf.SgfReader;
+
+/**
+ * Writes a game store (see {@link GameStoreFormat}) one game at a time.
+ * Records are written as they are added; only the offset index is kept in
+ * memory until {@link #close()} writes it and fills in the file header.
+ */
+public final class GameStoreWriter implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private long position = FILE_HEADER;
+    private long[] offsets = new long[1024];
+    private int games;
+
+    public GameStoreWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(FILE_HEADER);
+    }
+
+    /**
+     * Converts every game under an SGF file or directory into a new store.
+     * Returns the number of games written.
+     */
+    public static int convert(Path sgf, Path store) throws IOException {
+        try (Stream<SgfGame> games = SgfReader.games(sgf);
+             GameStoreWriter writer = new GameStoreWriter(store)) {
+            games.forEach(writer::addUnchecked);
+            return writer.games;
+        }
+    }
+
+    /** Usage: {@code GameStoreWriter <sgf-file-or-dir> <store-file>} */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: GameStoreWriter <sgf-file-or-dir> <store-file>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        int games = convert(java.nio.file.Paths.get(args[0]), java.nio.file.Paths.get(args[1]));
+        System.err.printf("%d games converted in %.1f s%n", games, (System.nanoTime() - start) / 1e9);
+    }
+
+    /** Adds the moves played so far in {@code position}, as {@link SgfGame#from} records them. */
+    public void add(GoPosition position, double komi) throws IOException {
+        add(SgfGame.from(position, komi, null));
+    }
+
+    public void add(SgfGame game) throws IOException {
+        int cols = game.getCols();
+        int rows = game.getRows();
+        int points = cols * rows;
+        int width = moveWidth(points);
+        int[] black = game.getBlackSetup();
+        int[] white = game.getWhiteSetup();
+        double halfKomi = game.getKomi() * 2;
+        if (halfKomi != Math.rint(halfKomi) || Math.abs(halfKomi) > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Komi must be a multiple of 0.5, got " + game.getKomi());
+        }
+        if (black.length > 0xFFFF || white.length > 0xFFFF || game.getHandicap() > 0xFF) {
+            throw new IllegalArgumentException("Too many setup or handicap stones");
+        }
+
+        if (games == offsets.length) {
+            offsets = java.util.Arrays.copyOf(offsets, games * 2);
+        }
+        offsets[games++] = position;
+
+        ensure(GAME_HEADER);
+        buf.put((byte) cols);
+        buf.put((byte) rows);
+        buf.putShort((short) halfKomi);
+        buf.put((byte) game.getHandicap());
+        buf.put((byte) width);
+        buf.putShort((short) black.length);
+        buf.putShort((short) white.length);
+        buf.putShort((short) 0);
+        buf.putInt(game.getMoveCount());
+        for (int p : black) {
+            ensure(2);
+            buf.putShort((short) p);
+        }
+        for (int p : white) {
+            ensure(2);
+            buf.putShort((short) p);
+        }
+        int whiteBit = whiteBit(width);
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            int code = game.isPass(i) ? points : game.getMove(i);
+            if (game.getColor(i) == GoPosition.WHITE) {
+                code |= whiteBit;
+            }
+            ensure(2);
+            if (width == 1) {
+                buf.put((byte) code);
+            } else {
+                buf.putShort((short) code);
+            }
+        }
+        position += GAME_HEADER + 2L * (black.length + white.length) + (long) width * game.getMoveCount();
+    }
+
+    private void addUnchecked(SgfGame game) {
+        try {
+            add(game);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    public int getGameCount() {
+        return games;
+    }
+
+    /** Writes the index and the file header, then closes the file. */
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = position;
+            for (int i = 0; i < games; i++) {
+                ensure(8);
+                buf.putLong(offsets[i]);
+            }
+            ensure(8);
+            buf.putLong(position);
+            drain();
+
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) 0);
+            header.putInt(games);
+            header.putInt(0);
+            header.putLong(indexOffset);
+            header.putLong(0);
+            header.flip();
+            channel.write(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+}
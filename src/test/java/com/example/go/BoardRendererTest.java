@@ -0,0 +1,78 @@
+package com.example.go;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import com.example.go.engine.GoPosition;
+
+public class BoardRendererTest {
+    private static final Color BACKGROUND = new Color(245, 222, 178);
+
+    private static BufferedImage render(BoardRenderer renderer, GoPosition position, int tile, double scale) {
+        int size = (int) Math.ceil(position.getCols() * tile * scale);
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        g.scale(scale, scale);
+        renderer.paint(g, GameSnapshot.of(position), tile, (int) (tile * 0.9), BACKGROUND);
+        g.dispose();
+        return target;
+    }
+
+    @Test
+    void drawsGridAndStonesAtTheirIntersections() {
+        GoPosition position = new GoPosition(9, 9);
+        position.setStone(2, 2, GoPosition.BLACK);
+        position.setStone(5, 3, GoPosition.WHITE);
+        BufferedImage image = render(new BoardRenderer(9, 9), position, 40, 1);
+
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(2 * 40 + 10, 2 * 40 + 5));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(5 * 40 + 10, 3 * 40 + 5));
+        // A grid line, and the board between lines
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(7 * 40, 7 * 40 + 20));
+        assertEquals(BACKGROUND.getRGB(), image.getRGB(7 * 40 + 20, 7 * 40 + 20));
+    }
+
+    @Test
+    void reusesLayersUntilTheSizeOrScaleChanges() {
+        BoardRenderer renderer = new BoardRenderer(19, 19);
+        BufferedImage grid = renderer.gridLayer(null, 30, 1, BACKGROUND);
+        BufferedImage black = renderer.stoneSprite(null, GoPosition.BLACK, 27, 1);
+        assertSame(grid, renderer.gridLayer(null, 30, 1, BACKGROUND));
+        assertSame(black, renderer.stoneSprite(null, GoPosition.BLACK, 27, 1));
+
+        BufferedImage hiDpi = renderer.gridLayer(null, 30, 2, BACKGROUND);
+        assertNotSame(grid, hiDpi);
+        assertEquals(2 * grid.getWidth(), hiDpi.getWidth());
+        assertNotSame(black, renderer.stoneSprite(null, GoPosition.BLACK, 36, 1));
+    }
+
+    @Test
+    void paintsOnlyStonesInsideTheClip() {
+        GoPosition position = new GoPosition(9, 9);
+        position.setStone(1, 1, GoPosition.BLACK);
+        position.setStone(6, 6, GoPosition.BLACK);
+        BufferedImage target = new BufferedImage(360, 360, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        g.setClip(BoardRenderer.stoneBounds(6, 6, 40, 36));
+        new BoardRenderer(9, 9).paint(g, GameSnapshot.of(position), 40, 36, BACKGROUND);
+        g.dispose();
+
+        assertEquals(Color.BLACK.getRGB(), target.getRGB(6 * 40 + 10, 6 * 40 + 5));
+        // Outside the clip nothing was drawn, not even the grid
+        assertEquals(0, target.getRGB(1 * 40 + 10, 1 * 40 + 5) & 0xFFFFFF);
+        assertEquals(0, target.getRGB(3 * 40, 3 * 40 + 20) & 0xFFFFFF);
+    }
+
+    @Test
+    void scaledPaintKeepsTheLayout() {
+        GoPosition position = new GoPosition(9, 9);
+        position.setStone(4, 4, GoPosition.BLACK);
+        BufferedImage image = render(new BoardRenderer(9, 9), position, 30, 2);
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(2 * (4 * 30 + 8), 2 * (4 * 30 + 3)));
+        assertEquals(BACKGROUND.getRGB(), image.getRGB(2 * (6 * 30 + 15), 2 * (6 * 30 + 15)));
+    }
+}
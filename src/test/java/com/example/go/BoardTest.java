@@ -3,8 +3,10 @@ package com.example.go;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.awt.Color;
-import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.search.OwnershipEstimator;
 
 public class BoardTest {
     private Board board;
@@ -17,38 +19,25 @@ public class BoardTest {
             assertEquals(size, rows[i].length(), "Each row must be " + size + " chars (row " + i + ")");
         }
 
-        try {
-            Field pieceArrayField = Board.class.getDeclaredField("pieceArray");
-            pieceArrayField.setAccessible(true);
-
-            Piece[][] arr = new Piece[size][size]; // [col][row]
-
-            for (int row = 0; row < size; row++) {
-                String line = rows[row];
-                for (int col = 0; col < size; col++) {
-                    char c = line.charAt(col);
-                    if (c == 'B') {
-                        arr[col][row] = new Piece(board, col, row, Color.BLACK, false);
-                    } else if (c == 'W') {
-                        arr[col][row] = new Piece(board, col, row, Color.WHITE, true);
-                    } else if (c != '.') {
-                        fail("Invalid char '" + c + "' at (" + col + "," + row + ")");
-                    }
+        // Size the board to the fixture so positions are not clipped to the default 9x9
+        board = new Board(size, size);
+        GoPosition position = board.getPosition();
+
+        for (int row = 0; row < size; row++) {
+            String line = rows[row];
+            for (int col = 0; col < size; col++) {
+                char c = line.charAt(col);
+                if (c == 'B') {
+                    position.setStone(col, row, GoPosition.BLACK);
+                } else if (c == 'W') {
+                    position.setStone(col, row, GoPosition.WHITE);
+                } else if (c != '.') {
+                    fail("Invalid char '" + c + "' at (" + col + "," + row + ")");
                 }
             }
-
-            pieceArrayField.set(board, arr);
-
-            Field capB = Board.class.getDeclaredField("capturedByBlack");
-            Field capW = Board.class.getDeclaredField("capturedByWhite");
-            capB.setAccessible(true);
-            capW.setAccessible(true);
-            capB.setInt(board, capturedByBlack);
-            capW.setInt(board, capturedByWhite);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Reflection failed loading board", e);
         }
+
+        position.setCaptures(capturedByBlack, capturedByWhite);
     }
 
     @BeforeEach
@@ -300,4 +289,75 @@ public class BoardTest {
         assertEquals(7, board.getBlackScore(), "Black = territory(4) + prisoners(3)");
         assertEquals(16, board.getWhiteScore(), "White = territory(7) + prisoners(9)");
     }
+
+    @Test
+    void twoPassesScoreEstimatedDeadStonesAsPrisoners() throws Exception {
+        String[] rows = {
+                "BBBBWWWWW",
+                "B..BW..WW",
+                "B.WBW.BWW", // a hopeless stone inside each box
+                "B..BW..WW",
+                "BBBBWWWWW",
+                "B.B.W.W.W",
+                "BBBBWWWWW",
+                "B.B.W.W.W",
+                "BBBBWWWWW"
+        };
+        loadBoardN(rows, 9, 0, 0);
+        passTwiceAndScore();
+        assertNull(board.getOwnership(), "estimation is off by default");
+        assertEquals(2, board.getBlackScore());
+        assertEquals(4, board.getWhiteScore());
+
+        loadBoardN(rows, 9, 0, 0);
+        GameSnapshot end;
+        try (OwnershipEstimator estimator = new OwnershipEstimator(2)) {
+            estimator.setSeed(3);
+            board.setDeadStoneEstimation(estimator, 300);
+            // Without a controller the passes run on the Swing thread, so they skip the estimate
+            passTwiceAndScore();
+            assertNull(board.getOwnership());
+            assertEquals(2, board.getBlackScore());
+
+            loadBoardN(rows, 9, 0, 0);
+            board.setDeadStoneEstimation(estimator, 300);
+            try (GameController controller = new GameController(board)) {
+                controller.pass();
+                end = controller.pass().get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertTrue(board.getOwnership().isDead(2, 2));
+        assertTrue(board.getOwnership().isDead(6, 2));
+        assertEquals(2 + 6 + 1, board.getBlackScore(), "box, eyes and the dead white stone");
+        assertEquals(4 + 6 + 1, board.getWhiteScore());
+
+        // The snapshot the view paints shows the estimate
+        assertEquals(2 + 6 + 1, end.getBlackScore());
+        assertTrue(end.isDead(2, 2));
+        assertTrue(end.isDead(6, 2));
+        assertFalse(end.isDead(0, 0));
+        assertEquals(2, end.getDeadStoneCount());
+    }
+
+    @Test
+    void movesMergeIntoOneDirtyRegion() throws Exception {
+        javax.swing.SwingUtilities.invokeAndWait(() -> {
+            // Lay the board out once so it has a tile size
+            board.setSize(800, 800);
+            java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(100, 100,
+                    java.awt.image.BufferedImage.TYPE_INT_RGB);
+            board.paint(image.getGraphics());
+            board.takeDirtyRegion();
+            play(2, 2);
+            play(6, 3);
+            play(4, 7);
+            java.awt.Rectangle dirty = board.takeDirtyRegion();
+            int tile = board.getTileSize();
+            assertTrue(dirty.contains(2 * tile, 2 * tile));
+            assertTrue(dirty.contains(6 * tile, 3 * tile));
+            assertTrue(dirty.contains(4 * tile, 7 * tile));
+            assertFalse(dirty.contains(8 * tile, 8 * tile));
+            assertNull(board.takeDirtyRegion());
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.go;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.InvalidMoveException;
+
+public class GameControllerTest {
+    private Board board;
+    private GameController controller;
+
+    @BeforeEach
+    void attach() {
+        board = new Board(9, 9);
+        controller = new GameController(board);
+    }
+
+    @AfterEach
+    void detach() {
+        controller.close();
+    }
+
+    @Test
+    void commandsRunInOrderAndPublishSnapshots() throws Exception {
+        controller.play(2, 2);
+        controller.play(6, 6);
+        GameSnapshot snapshot = controller.pass().get(5, TimeUnit.SECONDS);
+
+        assertEquals(GoPosition.BLACK, snapshot.getStone(2, 2));
+        assertEquals(GoPosition.WHITE, snapshot.getStone(6, 6));
+        assertEquals(1, snapshot.getPassCount());
+        assertEquals(3, snapshot.getMoveCount());
+        assertSame(snapshot, controller.getSnapshot());
+    }
+
+    @Test
+    void illegalMoveFailsTheFutureAndKeepsTheGame() throws Exception {
+        controller.play(4, 4).get(5, TimeUnit.SECONDS);
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> controller.play(4, 4).get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof InvalidMoveException);
+
+        GameSnapshot snapshot = controller.play(3, 3).get(5, TimeUnit.SECONDS);
+        assertEquals(GoPosition.WHITE, snapshot.getStone(3, 3));
+    }
+
+    @Test
+    void slowCommandsDoNotBlockTheSwingThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        CompletableFuture<GameSnapshot> thinking = controller.submit(b -> {
+            thread.set(Thread.currentThread().getName());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<GameSnapshot> move = controller.play(0, 0);
+
+        // The Swing thread still runs while the game thread is busy
+        SwingUtilities.invokeAndWait(() -> assertFalse(move.isDone()));
+        release.countDown();
+        move.get(5, TimeUnit.SECONDS);
+        assertTrue(thinking.isDone());
+        assertEquals("go-game", thread.get());
+    }
+
+    @Test
+    void listenersGetSnapshotsOnTheSwingThread() throws Exception {
+        CompletableFuture<Boolean> onEdt = new CompletableFuture<>();
+        controller.addSnapshotListener(s -> onEdt.complete(SwingUtilities.isEventDispatchThread()));
+        controller.score();
+        assertTrue(onEdt.get(5, TimeUnit.SECONDS));
+    }
+}
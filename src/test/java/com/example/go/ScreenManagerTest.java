@@ -0,0 +1,53 @@
+package com.example.go;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.go.engine.GoPosition;
+
+public class ScreenManagerTest {
+
+    @AfterEach
+    void closeGame() {
+        ScreenManager.closeController();
+    }
+
+    @Test
+    void gameFromTheMenuEstimatesDeadStones() {
+        Board board = new Board();
+        GameController controller = ScreenManager.startGame(board);
+        assertSame(controller, board.getController());
+        assertTrue(board.isDeadStoneEstimation());
+
+        // A new game gets a fresh estimator and controller
+        Board next = new Board();
+        assertNotSame(controller, ScreenManager.startGame(next));
+        assertTrue(next.isDeadStoneEstimation());
+    }
+
+    @Test
+    void resultSaysWhoWonAndHow() throws Exception {
+        Board board = new Board(5, 5);
+        GoPosition position = board.getPosition();
+        // One point of black territory at (2,2)
+        position.setStone(2, 1, GoPosition.BLACK);
+        position.setStone(1, 2, GoPosition.BLACK);
+        position.setStone(3, 2, GoPosition.BLACK);
+        position.setStone(2, 3, GoPosition.BLACK);
+        try (GameController controller = new GameController(board)) {
+            controller.pass();
+            GameSnapshot end = controller.pass().get(5, TimeUnit.SECONDS);
+            assertTrue(end.isGameOver());
+            assertEquals("Black 1, White 0: Black wins by 1.", ScreenManager.resultMessage(end));
+
+            controller.reset();
+            controller.play(0, 0);
+            GameSnapshot resigned = controller.resign().get(5, TimeUnit.SECONDS);
+            assertTrue(resigned.isGameOver());
+            assertEquals("White resigns. Black wins.", ScreenManager.resultMessage(resigned));
+            assertFalse(controller.reset().get(5, TimeUnit.SECONDS).isGameOver());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.go.batch;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.sgf.SgfGame;
+import com.example.go.sgf.SgfReader;
+import com.example.go.store.GameStore;
+import com.example.go.store.GameStoreWriter;
+
+public class BatchReplayTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdown();
+    }
+
+    private static List<SgfGame> randomGames(int count, long seed) {
+        Random random = new Random(seed);
+        List<SgfGame> games = new ArrayList<>();
+        for (int g = 0; g < count; g++) {
+            int size = g % 3 == 0 ? 9 : g % 3 == 1 ? 13 : 19;
+            GoPosition position = new GoPosition(size, size);
+            for (int move = 0; move < size * size; move++) {
+                if (!position.play(position.point(random.nextInt(size), random.nextInt(size)))) {
+                    position.pass();
+                }
+            }
+            games.add(SgfGame.from(position, 6.5, null));
+        }
+        return games;
+    }
+
+    @Test
+    void parallelResultsMatchSequentialReplay() {
+        List<SgfGame> games = randomGames(300, 1);
+        Map<Long, ReplayResult> results = new ConcurrentHashMap<>();
+
+        BatchStats stats = new BatchReplay(pool).run(games.stream(), r -> results.put(r.getGameIndex(), r));
+
+        assertEquals(300, stats.getGames());
+        assertEquals(0, stats.getIllegalGames());
+        assertEquals(300, results.size());
+        for (int i = 0; i < games.size(); i++) {
+            SgfGame game = games.get(i);
+            GoPosition position = new GoPosition(game.getCols(), game.getRows());
+            game.replay(position);
+            position.calculateJapaneseScoring();
+
+            ReplayResult r = results.get((long) i);
+            assertTrue(r.isLegal());
+            assertEquals(game.getMoveCount(), r.getMoveCount());
+            assertEquals(position.getBlackScore(), r.getBlackScore());
+            assertEquals(position.getWhiteScore(), r.getWhiteScore());
+            assertEquals(position.getCapturedByBlack(), r.getCapturedByBlack());
+            assertEquals(position.getCapturedByWhite(), r.getCapturedByWhite());
+        }
+    }
+
+    @Test
+    void reportsTheFirstIllegalMove() {
+        // Black plays on top of its own stone at move 2
+        SgfGame game = new SgfGame(9, 9, 6.5, 0, null, null, null, new int[0], new int[0],
+                new int[]{40, 41, 40, 42},
+                new byte[]{GoPosition.BLACK, GoPosition.WHITE, GoPosition.BLACK, GoPosition.WHITE});
+        List<ReplayResult> results = new ArrayList<>();
+
+        BatchStats stats = new BatchReplay(pool).run(List.of(game).stream(), results::add);
+
+        assertEquals(1, stats.getIllegalGames());
+        assertEquals(2, stats.getMoves());
+        assertFalse(results.get(0).isLegal());
+        assertEquals(2, results.get(0).getIllegalMove());
+    }
+
+    @Test
+    void csvSinkWritesOneLinePerGame() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvResultSink sink = new CsvResultSink(out)) {
+            new BatchReplay(pool).run(randomGames(50, 2).stream(), sink);
+        }
+        String[] lines = out.toString().split("\n");
+        assertEquals(51, lines.length);
+        assertEquals(CsvResultSink.HEADER, lines[0]);
+        assertEquals(9, lines[1].split(",").length);
+    }
+
+    @Test
+    void storeRunMatchesSgfRun(@TempDir Path dir) throws IOException {
+        List<SgfGame> games = randomGames(100, 4);
+        Path file = dir.resolve("games.gst");
+        try (GameStoreWriter writer = new GameStoreWriter(file)) {
+            for (SgfGame game : games) {
+                writer.add(game);
+            }
+        }
+        Map<Long, ReplayResult> fromSgf = new ConcurrentHashMap<>();
+        Map<Long, ReplayResult> fromStore = new ConcurrentHashMap<>();
+        new BatchReplay(pool).run(games.stream(), r -> fromSgf.put(r.getGameIndex(), r));
+        try (GameStore store = new GameStore(file)) {
+            BatchStats stats = new BatchReplay(pool).run(store, r -> fromStore.put(r.getGameIndex(), r));
+            assertEquals(100, stats.getGames());
+        }
+        for (long i = 0; i < 100; i++) {
+            assertEquals(fromSgf.get(i).getBlackScore(), fromStore.get(i).getBlackScore());
+            assertEquals(fromSgf.get(i).getWhiteScore(), fromStore.get(i).getWhiteScore());
+            assertEquals(fromSgf.get(i).getMoveCount(), fromStore.get(i).getMoveCount());
+        }
+    }
+
+    @Test
+    void sinkFailureStopsTheRun() {
+        assertThrows(IllegalStateException.class, () -> new BatchReplay(pool).run(randomGames(200, 3).stream(), r -> {
+            throw new IllegalStateException("disk full");
+        }));
+    }
+
+    @Test
+    void unreadableRecordIsReportedAndTheRunGoesOn(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("a.sgf"), "(;GM[1]SZ[9];B[cc];W[gg])".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("b.sgf"), "(;GM[1]SZ[9];B[cc]W)".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("c.sgf"), "(;GM[1]SZ[9];B[dd])".getBytes(StandardCharsets.UTF_8));
+        Map<Long, ReplayResult> results = new ConcurrentHashMap<>();
+        BatchStats stats;
+        try (Stream<SgfGame> games = SgfReader.games(dir)) {
+            stats = new BatchReplay(pool).run(games, r -> results.put(r.getGameIndex(), r));
+        }
+        assertEquals(3, stats.getGames());
+        assertEquals(1, stats.getUnreadableGames());
+        assertEquals(0, stats.getIllegalGames());
+        assertEquals(2, results.get(0L).getMoveCount());
+        assertFalse(results.get(1L).isReadable());
+        assertFalse(results.get(1L).isLegal());
+        assertTrue(results.get(1L).getError().contains("b.sgf"));
+        assertEquals(1, results.get(2L).getMoveCount());
+
+        StringWriter out = new StringWriter();
+        try (CsvResultSink sink = new CsvResultSink(out)) {
+            sink.accept(results.get(1L));
+        }
+        assertTrue(out.toString().split("\n")[1].endsWith("\""));
+    }
+
+    @Test
+    void readFailureLetsTheGamesInFlightFinishFirst() {
+        List<SgfGame> games = randomGames(300, 5);
+        Iterator<SgfGame> failing = new Iterator<SgfGame>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == 200) {
+                    throw new UncheckedIOException(new IOException("disk gone"));
+                }
+                return true;
+            }
+
+            @Override
+            public SgfGame next() {
+                return games.get(next++);
+            }
+        };
+        AtomicInteger delivered = new AtomicInteger();
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> new BatchReplay(pool).run(failing, r -> delivered.incrementAndGet()));
+        assertEquals("disk gone", e.getCause().getMessage());
+        // Every game read before the failure was replayed, and none is still running
+        assertEquals(200, delivered.get());
+        assertTrue(pool.awaitQuiescence(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(200, delivered.get());
+    }
+}
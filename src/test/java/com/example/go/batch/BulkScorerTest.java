@@ -0,0 +1,112 @@
+package com.example.go.batch;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.example.go.engine.GoPosition;
+
+public class BulkScorerTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void japaneseScoresMatchThePosition() {
+        int size = 9;
+        int count = 1000;
+        Random random = new Random(7);
+        byte[] stones = new byte[count * size * size];
+        int[] capturedByBlack = new int[count];
+        int[] capturedByWhite = new int[count];
+        int[] expectedBlack = new int[count];
+        int[] expectedWhite = new int[count];
+        GoPosition position = new GoPosition(size, size);
+        for (int i = 0; i < count; i++) {
+            position.reset();
+            int moves = random.nextInt(120);
+            for (int m = 0; m < moves; m++) {
+                position.play(position.point(random.nextInt(size), random.nextInt(size)));
+            }
+            BulkScorer.stonesOf(position, stones, i * size * size);
+            capturedByBlack[i] = position.getCapturedByBlack();
+            capturedByWhite[i] = position.getCapturedByWhite();
+            position.calculateJapaneseScoring();
+            expectedBlack[i] = position.getBlackScore();
+            expectedWhite[i] = position.getWhiteScore();
+        }
+
+        BulkScorer.Scores scores = new BulkScorer(pool).score(size, size, stones, capturedByBlack, capturedByWhite,
+                BulkScorer.Rule.JAPANESE);
+        assertEquals(count, scores.size());
+        assertArrayEquals(expectedBlack, scores.getBlack());
+        assertArrayEquals(expectedWhite, scores.getWhite());
+    }
+
+    @Test
+    void areaScoringCountsStonesAndEdgeRegions() {
+        // 5x3, a black wall down column 1 and a white wall down column 3:
+        // column 0 is black's, column 4 white's, column 2 is shared
+        byte[] stones = new byte[15];
+        for (int row = 0; row < 3; row++) {
+            stones[row * 5 + 1] = GoPosition.BLACK;
+            stones[row * 5 + 3] = GoPosition.WHITE;
+        }
+        BulkScorer scorer = new BulkScorer(pool);
+
+        BulkScorer.Scores area = scorer.score(5, 3, stones, new int[]{4}, null, BulkScorer.Rule.AREA);
+        assertEquals(6, area.getBlack()[0]);
+        assertEquals(6, area.getWhite()[0]);
+
+        // Edge regions are never territory under the Japanese rule; only prisoners count
+        BulkScorer.Scores japanese = scorer.score(5, 3, stones, new int[]{4}, null, BulkScorer.Rule.JAPANESE);
+        assertEquals(4, japanese.getBlack()[0]);
+        assertEquals(0, japanese.getWhite()[0]);
+    }
+
+    @Test
+    void parallelResultsMatchASingleThread() {
+        int size = 19;
+        int count = 5000;
+        Random random = new Random(3);
+        byte[] stones = new byte[count * size * size];
+        for (int i = 0; i < stones.length; i++) {
+            int r = random.nextInt(10);
+            stones[i] = r < 4 ? GoPosition.BLACK : r < 8 ? GoPosition.WHITE : GoPosition.EMPTY;
+        }
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (BulkScorer.Rule rule : BulkScorer.Rule.values()) {
+                BulkScorer.Scores parallel = new BulkScorer(pool).score(size, size, stones, null, null, rule);
+                BulkScorer.Scores sequential = new BulkScorer(single).score(size, size, stones, null, null, rule);
+                assertArrayEquals(sequential.getBlack(), parallel.getBlack());
+                assertArrayEquals(sequential.getWhite(), parallel.getWhite());
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        BulkScorer scorer = new BulkScorer(pool);
+        assertThrows(IllegalArgumentException.class,
+                () -> scorer.score(9, 9, new byte[80], null, null, BulkScorer.Rule.AREA));
+        assertThrows(IllegalArgumentException.class,
+                () -> scorer.score(9, 9, new byte[162], new int[1], null, BulkScorer.Rule.JAPANESE));
+        byte[] border = new byte[81];
+        border[40] = GoPosition.BORDER;
+        assertThrows(IllegalArgumentException.class,
+                () -> scorer.score(9, 9, border, null, null, BulkScorer.Rule.AREA));
+    }
+}
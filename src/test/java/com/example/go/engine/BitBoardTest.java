@@ -0,0 +1,78 @@
+package com.example.go.engine;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class BitBoardTest {
+
+    @Test
+    void capturesSuicideAndKoMatchGoPosition() {
+        int[] sizes = {5, 9, 13, 19};
+        Random random = new Random(3);
+        for (int size : sizes) {
+            for (int game = 0; game < 5; game++) {
+                GoPosition position = new GoPosition(size, size);
+                position.setSuperkoEnabled(false);
+                BitBoard bits = new BitBoard(size, size);
+                for (int move = 0; move < size * size * 2; move++) {
+                    int col = random.nextInt(size);
+                    int row = random.nextInt(size);
+                    boolean legal = position.play(position.point(col, row));
+                    assertEquals(legal, bits.play(col, row), "legality at (" + col + "," + row + ")");
+                    if (!legal) {
+                        position.pass();
+                        bits.pass();
+                    }
+                    assertSame(position, bits);
+                }
+            }
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        BitBoard a = new BitBoard(9, 9);
+        a.play(4, 4);
+        BitBoard b = new BitBoard(9, 9);
+        b.copyFrom(a);
+        b.play(3, 3);
+        assertEquals(1, a.getStoneCount());
+        assertEquals(2, b.getStoneCount());
+        assertEquals(GoPosition.WHITE, a.getToMove());
+        assertEquals(GoPosition.BLACK, b.getToMove());
+    }
+
+    @Test
+    void ofCopiesAPosition() {
+        GoPosition position = new GoPosition(7, 5);
+        position.setStone(0, 0, GoPosition.BLACK);
+        position.setStone(6, 4, GoPosition.WHITE);
+        position.setCaptures(2, 3);
+        position.setToMove(GoPosition.WHITE);
+        BitBoard bits = BitBoard.of(position);
+        assertSame(position, bits);
+        assertEquals(GoPosition.WHITE, bits.getToMove());
+    }
+
+    private void assertSame(GoPosition position, BitBoard bits) {
+        int size = position.getCols();
+        for (int row = 0; row < position.getRows(); row++) {
+            for (int col = 0; col < size; col++) {
+                int p = position.point(col, row);
+                assertEquals(position.get(p), bits.get(col, row));
+                if (position.get(p) != GoPosition.EMPTY) {
+                    assertEquals(position.getLiberties(p), bits.getLiberties(col, row));
+                    assertEquals(position.getChainSize(p), bits.getGroupSize(col, row));
+                }
+            }
+        }
+        assertEquals(position.getCapturedByBlack(), bits.getCapturedByBlack());
+        assertEquals(position.getCapturedByWhite(), bits.getCapturedByWhite());
+        position.calculateJapaneseScoring();
+        bits.calculateJapaneseScoring();
+        assertEquals(position.getBlackScore(), bits.getBlackScore());
+        assertEquals(position.getWhiteScore(), bits.getWhiteScore());
+    }
+}
@@ -0,0 +1,585 @@
+package com.example.go.engine;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import com.example.go.exception.InvalidMoveException;
+
+public class GoPositionTest {
+    private GoPosition position;
+
+    @BeforeEach
+    void initPosition() {
+        position = new GoPosition(9, 9);
+    }
+
+    // ---------- Helpers ----------
+    private void playPairs(int[]... moves) {
+        for (int[] m : moves) {
+            assertDoesNotThrow(() -> position.makeMove(m[0], m[1]),
+                    "Move should be legal: (" + m[0] + "," + m[1] + ")");
+        }
+    }
+
+    /** Load rows of 'B', 'W', '.' where row i is the i-th string. */
+    private void load(String... rows) {
+        position = new GoPosition(rows[0].length(), rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                char c = rows[row].charAt(col);
+                if (c == 'B') position.setStone(col, row, GoPosition.BLACK);
+                else if (c == 'W') position.setStone(col, row, GoPosition.WHITE);
+            }
+        }
+    }
+
+    @Test
+    void pointRoundTripsThroughColAndRow() {
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int p = position.point(col, row);
+                assertEquals(col, position.col(p));
+                assertEquals(row, position.row(p));
+                assertEquals(GoPosition.EMPTY, position.get(p));
+            }
+        }
+        assertEquals(GoPosition.BORDER, position.get(GoPosition.PASS));
+    }
+
+    @Test
+    void captureRemovesGroupAndCountsPrisoners() {
+        playPairs(
+                new int[]{1, 1}, new int[]{2, 1},
+                new int[]{1, 2}, new int[]{2, 2},
+                new int[]{2, 0}, new int[]{0, 0},
+                new int[]{3, 1}, new int[]{0, 1},
+                new int[]{3, 2}, new int[]{0, 2},
+                new int[]{2, 3}
+        );
+
+        assertEquals(GoPosition.EMPTY, position.getStone(2, 1));
+        assertEquals(GoPosition.EMPTY, position.getStone(2, 2));
+        assertEquals(2, position.getCapturedByBlack());
+        assertEquals(0, position.getCapturedByWhite());
+        assertFalse(position.isBlackToMove());
+    }
+
+    @Test
+    void suicideIsRejectedAndLeavesPositionUnchanged() {
+        load(
+                ".B...",
+                "B....",
+                ".....",
+                ".....",
+                "....."
+        );
+        position.setToMove(GoPosition.WHITE);
+
+        InvalidMoveException ex = assertThrows(InvalidMoveException.class, () -> position.makeMove(0, 0));
+        assertEquals("Suicide move not allowed", ex.getMessage());
+        assertEquals(GoPosition.EMPTY, position.getStone(0, 0));
+        assertFalse(position.isBlackToMove());
+    }
+
+    @Test
+    void captureIsNotSuicide() {
+        load(
+                ".BW..",
+                "BW...",
+                "W....",
+                ".....",
+                "....."
+        );
+        position.setToMove(GoPosition.WHITE);
+
+        assertFalse(position.wouldBeSuicide(position.point(0, 0), GoPosition.WHITE));
+        position.makeMove(0, 0);
+        assertEquals(GoPosition.EMPTY, position.getStone(1, 0));
+        assertEquals(GoPosition.EMPTY, position.getStone(0, 1));
+        assertEquals(2, position.getCapturedByWhite());
+    }
+
+    @Test
+    void occupiedAndOutOfBoundsMovesAreRejected() {
+        position.makeMove(4, 4);
+        assertThrows(InvalidMoveException.class, () -> position.makeMove(4, 4));
+        assertThrows(InvalidMoveException.class, () -> position.makeMove(-1, 0));
+        assertThrows(InvalidMoveException.class, () -> position.makeMove(9, 9));
+    }
+
+    @Test
+    void japaneseScoringIgnoresEdgeRegionsAndAddsPrisoners() {
+        load(
+                ".B.W.",
+                "BB.WW",
+                ".....",
+                ".BBB.",
+                ".B.B."
+        );
+        position.setCaptures(2, 1);
+
+        position.calculateJapaneseScoring();
+
+        // Every empty region here reaches the edge, so only prisoners count
+        assertEquals(2, position.getBlackScore());
+        assertEquals(1, position.getWhiteScore());
+    }
+
+    @Test
+    void japaneseScoringCountsEnclosedRegionsBySize() {
+        load(
+                "BBBBBBB",
+                "B..BWWW",
+                "BBBBW.W",
+                "WWWWWWW"
+        );
+
+        position.calculateJapaneseScoring();
+
+        assertEquals(2, position.getBlackScore());
+        assertEquals(1, position.getWhiteScore());
+    }
+
+    @Test
+    void deadStonesScoreAsPrisonersAndTheirPointsAsTerritory() {
+        load(
+                "BBBBBBB",
+                "B.W.BWW",
+                "BBBBW.W",
+                "WWWWWWW"
+        );
+        position.setCaptures(1, 0);
+        position.setTerritoryTracking(true);
+        long hash = position.getHash();
+
+        position.calculateJapaneseScoring();
+        assertEquals(1, position.getBlackScore(), "the white stone spoils the region while alive");
+
+        position.calculateJapaneseScoring(new int[]{position.point(2, 1)});
+        assertEquals(3 + 1 + 1, position.getBlackScore(), "three points and two prisoners");
+        assertEquals(1, position.getWhiteScore());
+        assertEquals(GoPosition.WHITE, position.getStone(2, 1), "the board is left as it was");
+        assertEquals(hash, position.getHash());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> position.calculateJapaneseScoring(new int[]{position.point(2, 1), position.point(1, 1)}));
+        assertEquals(GoPosition.WHITE, position.getStone(2, 1));
+        position.calculateJapaneseScoring();
+        assertEquals(1, position.getBlackScore());
+    }
+
+    @Test
+    void chainsMergeAndTrackLiberties() {
+        playPairs(
+                new int[]{3, 3}, new int[]{0, 0},
+                new int[]{5, 3}, new int[]{0, 8}
+        );
+        int left = position.point(3, 3);
+        int right = position.point(5, 3);
+        assertNotEquals(position.getChainHead(left), position.getChainHead(right));
+
+        playPairs(new int[]{4, 3});
+
+        assertEquals(position.getChainHead(left), position.getChainHead(right));
+        assertEquals(3, position.getChainSize(left));
+        assertEquals(8, position.getLiberties(left));
+        assertFalse(position.isInAtari(left));
+    }
+
+    @Test
+    void atariReportsTheLastLiberty() {
+        load(
+                ".....",
+                ".BW..",
+                "..B..",
+                ".....",
+                "....."
+        );
+        int white = position.point(2, 1);
+        assertFalse(position.isInAtari(white));
+
+        position.setToMove(GoPosition.BLACK);
+        position.makeMove(2, 0);
+
+        assertTrue(position.isInAtari(white));
+        assertEquals(position.point(3, 1), position.getAtariLiberty(white));
+    }
+
+    @Test
+    void libertySquareSumPassesIntOnTheLargestBoard() {
+        // One black chain with a hole on every odd intersection: each hole is a pseudo-liberty
+        // once per stone next to it, and their squared point indices add up far past 2^31
+        int size = GoPosition.MAX_SIZE;
+        GoPosition big = new GoPosition(size, size);
+        java.util.List<Integer> holes = new java.util.ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (row % 2 == 1 && col % 2 == 1) {
+                    holes.add(big.point(col, row));
+                } else {
+                    big.setStone(col, row, GoPosition.BLACK);
+                }
+            }
+        }
+        int chain = big.point(0, 0);
+        long expected = 0;
+        int stride = big.getStride();
+        for (int hole : holes) {
+            for (int n : new int[]{hole - 1, hole + 1, hole - stride, hole + stride}) {
+                if (big.get(n) == GoPosition.BLACK) {
+                    expected += (long) hole * hole;
+                }
+            }
+        }
+        assertTrue(expected > Integer.MAX_VALUE);
+        assertEquals(expected, big.getLibertySquareSum(chain));
+
+        // Filling all but one hole takes the sum back down past 2^31 and still ends exact
+        int last = holes.get(0);
+        for (int i = 1; i < holes.size(); i++) {
+            big.setToMove(GoPosition.BLACK);
+            assertTrue(big.play(holes.get(i)));
+        }
+        assertEquals(4L * last * last, big.getLibertySquareSum(chain));
+        assertTrue(big.isInAtari(chain));
+        assertEquals(last, big.getAtariLiberty(chain));
+    }
+
+    @Test
+    void incrementalChainsMatchFloodFillOverRandomGames() {
+        Random random = new Random(42);
+        for (int game = 0; game < 20; game++) {
+            position = new GoPosition(9, 9);
+            for (int move = 0; move < 150; move++) {
+                int col = random.nextInt(9);
+                int row = random.nextInt(9);
+                int p = position.point(col, row);
+                if (position.wouldBeSuicide(p, position.getToMove())) {
+                    position.pass();
+                    continue;
+                }
+                position.makeMove(col, row);
+                assertChainsConsistent();
+            }
+        }
+    }
+
+    private void assertChainsConsistent() {
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int p = position.point(col, row);
+                if (position.get(p) == GoPosition.EMPTY) continue;
+
+                int liberties = floodLiberties(col, row);
+                assertTrue(liberties > 0, "Stone left on board without liberties");
+                assertFalse(position.hasNoLiberties(p));
+                assertEquals(liberties, position.getLiberties(p));
+                assertEquals(liberties == 1, position.isInAtari(p));
+            }
+        }
+    }
+
+    /** Distinct liberties of the group at (col,row), computed from scratch. */
+    private int floodLiberties(int col, int row) {
+        byte color = position.getStone(col, row);
+        boolean[][] seen = new boolean[9][9];
+        boolean[][] liberty = new boolean[9][9];
+        java.util.ArrayDeque<int[]> queue = new java.util.ArrayDeque<>();
+        queue.add(new int[]{col, row});
+        seen[col][row] = true;
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int[] cur = queue.poll();
+            int[][] dirs = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+            for (int[] d : dirs) {
+                int nc = cur[0] + d[0];
+                int nr = cur[1] + d[1];
+                if (!position.isValidPosition(nc, nr)) continue;
+                byte c = position.getStone(nc, nr);
+                if (c == GoPosition.EMPTY && !liberty[nc][nr]) {
+                    liberty[nc][nr] = true;
+                    count++;
+                } else if (c == color && !seen[nc][nr]) {
+                    seen[nc][nr] = true;
+                    queue.add(new int[]{nc, nr});
+                }
+            }
+        }
+        return count;
+    }
+
+    // ---------- KO AND HASHING ----------
+    /** Black to play at (2,1) captures the white stone at (1,1) in a ko shape. */
+    private void loadKo() {
+        load(
+                ".BW..",
+                "BW.W.",
+                ".BW..",
+                ".....",
+                "....."
+        );
+        position.setToMove(GoPosition.BLACK);
+    }
+
+    @Test
+    void immediateKoRecaptureIsRejected() {
+        loadKo();
+        position.makeMove(2, 1);
+        assertEquals(GoPosition.EMPTY, position.getStone(1, 1));
+        assertEquals(position.point(1, 1), position.getKoPoint());
+
+        InvalidMoveException ex = assertThrows(InvalidMoveException.class, () -> position.makeMove(1, 1));
+        assertEquals("Ko rule violation", ex.getMessage());
+        assertFalse(position.isLegal(position.point(1, 1)));
+    }
+
+    @Test
+    void koCanBeRetakenAfterAThreatExchange() {
+        loadKo();
+        position.makeMove(2, 1);
+        position.makeMove(4, 4); // W threat
+        position.makeMove(4, 3); // B answers
+        assertTrue(position.isLegal(position.point(1, 1)));
+        position.makeMove(1, 1);
+        assertEquals(GoPosition.EMPTY, position.getStone(2, 1));
+    }
+
+    @Test
+    void positionalSuperkoRejectsRepeatedBoard() {
+        loadKo();
+        position.makeMove(2, 1);
+        position.pass();
+        position.pass();
+        // Simple ko has expired, but retaking would recreate the starting board
+        InvalidMoveException ex = assertThrows(InvalidMoveException.class, () -> position.makeMove(1, 1));
+        assertEquals("Superko rule violation", ex.getMessage());
+
+        position.setSuperkoEnabled(false);
+        assertDoesNotThrow(() -> position.makeMove(1, 1));
+    }
+
+    @Test
+    void hashDependsOnlyOnStonesAndSideToMove() {
+        GoPosition other = new GoPosition(9, 9);
+        position.makeMove(2, 2);
+        position.makeMove(6, 6);
+        position.makeMove(2, 6);
+        other.makeMove(2, 6);
+        other.makeMove(6, 6);
+        other.makeMove(2, 2);
+        assertEquals(position.getHash(), other.getHash());
+
+        other.pass();
+        assertNotEquals(position.getHash(), other.getHash());
+        assertEquals(position.getBoardHash(), other.getBoardHash());
+    }
+
+    @Test
+    void hashIsUpdatedOnCaptures() {
+        loadKo();
+        long before = position.getBoardHash();
+        long predicted = position.boardHashAfter(position.point(2, 1), GoPosition.BLACK);
+        position.makeMove(2, 1);
+        assertEquals(predicted, position.getBoardHash());
+
+        GoPosition fresh = new GoPosition(5, 5);
+        fresh.setStone(1, 0, GoPosition.BLACK);
+        fresh.setStone(2, 0, GoPosition.WHITE);
+        fresh.setStone(0, 1, GoPosition.BLACK);
+        fresh.setStone(2, 1, GoPosition.BLACK);
+        fresh.setStone(3, 1, GoPosition.WHITE);
+        fresh.setStone(1, 2, GoPosition.BLACK);
+        fresh.setStone(2, 2, GoPosition.WHITE);
+        assertEquals(fresh.getBoardHash(), position.getBoardHash());
+        assertNotEquals(before, position.getBoardHash());
+    }
+
+    // ---------- PLAY / UNDO ----------
+    @Test
+    void illegalPlayLeavesPositionUntouched() {
+        loadKo();
+        assertTrue(position.play(position.point(2, 1)));
+        long hash = position.getHash();
+        assertFalse(position.play(position.point(1, 1)), "ko recapture");
+        assertFalse(position.play(position.point(0, 1)), "occupied");
+        assertEquals(hash, position.getHash());
+        assertEquals(1, position.getMoveCount());
+    }
+
+    @Test
+    void undoRestoresCapturesKoAndHash() {
+        loadKo();
+        long hash = position.getHash();
+        position.play(position.point(2, 1));
+        assertEquals(1, position.getLastCaptureCount());
+        assertEquals(position.point(1, 1), position.getLastCaptured(0));
+
+        position.undo();
+
+        assertEquals(hash, position.getHash());
+        assertEquals(GoPosition.WHITE, position.getStone(1, 1));
+        assertEquals(GoPosition.EMPTY, position.getStone(2, 1));
+        assertEquals(0, position.getCapturedByBlack());
+        assertEquals(GoPosition.PASS, position.getKoPoint());
+        assertTrue(position.isBlackToMove());
+        assertTrue(position.isLegal(position.point(2, 1)));
+        assertFalse(position.canUndo());
+    }
+
+    @Test
+    void listenerHearsPlacedAndCapturedPoints() {
+        loadKo();
+        java.util.List<int[]> heard = new java.util.ArrayList<>();
+        int[] resets = new int[1];
+        position.setPositionListener(new PositionListener() {
+            @Override
+            public void pointsChanged(GoPosition changed, int[] points, int count) {
+                heard.add(java.util.Arrays.copyOf(points, count));
+            }
+
+            @Override
+            public void positionReset(GoPosition changed) {
+                resets[0]++;
+            }
+        });
+
+        position.play(position.point(2, 1));
+        position.pass();
+        position.undo();
+        position.undo();
+        assertEquals(2, heard.size());
+        assertArrayEquals(new int[]{position.point(2, 1), position.point(1, 1)}, heard.get(0));
+        assertArrayEquals(heard.get(0), heard.get(1));
+        // Undo reports once everything is restored
+        assertTrue(position.isBlackToMove());
+
+        position.setStone(0, 0, GoPosition.BLACK);
+        position.reset();
+        assertEquals(2, resets[0]);
+
+        position.setPositionListener(null);
+        position.play(position.point(4, 4));
+        assertEquals(2, heard.size());
+    }
+
+    @Test
+    void undoUnwindsRandomGamesExactly() {
+        Random random = new Random(7);
+        for (int game = 0; game < 10; game++) {
+            position = new GoPosition(9, 9);
+            int length = 200;
+            long[] hashes = new long[length];
+            byte[][] boards = new byte[length][];
+            int[] prisoners = new int[length];
+            for (int move = 0; move < length; move++) {
+                hashes[move] = position.getHash();
+                boards[move] = snapshot();
+                prisoners[move] = position.getCapturedByBlack() * 1000 + position.getCapturedByWhite();
+                int p = position.point(random.nextInt(9), random.nextInt(9));
+                if (!position.play(p)) {
+                    position.play(GoPosition.PASS);
+                }
+            }
+            for (int move = length - 1; move >= 0; move--) {
+                position.undo();
+                assertEquals(hashes[move], position.getHash());
+                assertArrayEquals(boards[move], snapshot());
+                assertEquals(prisoners[move], position.getCapturedByBlack() * 1000 + position.getCapturedByWhite());
+                assertChainsConsistent();
+            }
+        }
+    }
+
+    @Test
+    void trackedTerritoryMatchesFloodFillThroughPlayAndUndo() {
+        Random random = new Random(11);
+        GoPosition reference = new GoPosition(9, 9);
+        for (int game = 0; game < 20; game++) {
+            position = new GoPosition(9, 9);
+            position.setTerritoryTracking(true);
+            int length = 250;
+            for (int move = 0; move < length; move++) {
+                int p = position.point(random.nextInt(9), random.nextInt(9));
+                if (!position.play(p)) {
+                    position.play(GoPosition.PASS);
+                }
+                assertTerritoryMatches(reference);
+            }
+            for (int move = 0; move < length; move++) {
+                position.undo();
+                assertTerritoryMatches(reference);
+            }
+        }
+    }
+
+    @Test
+    void territoryTrackingSurvivesSetupAndCopy() {
+        load(".......",
+             ".BBB...",
+             ".B.B...",
+             ".BBB...",
+             "....WWW",
+             "....W.W",
+             "....WWW");
+        position.setTerritoryTracking(true);
+        assertEquals(1, position.getBlackTerritory());
+        assertEquals(1, position.getWhiteTerritory());
+        assertEquals(GoPosition.BLACK, position.getTerritoryOwner(position.point(2, 2)));
+        assertEquals(GoPosition.EMPTY, position.getTerritoryOwner(position.point(0, 0)));
+        assertEquals(31, position.getRegionSize(position.point(0, 0)));
+
+        // The corner is the only link between the two open areas
+        position.setStone(0, 0, GoPosition.WHITE);
+        assertEquals(15, position.getRegionSize(position.point(1, 0)));
+        assertEquals(15, position.getRegionSize(position.point(0, 1)));
+
+        GoPosition copy = new GoPosition(7, 7);
+        copy.copyFrom(position);
+        assertTrue(copy.isTerritoryTracking());
+        copy.makeMove(2, 2);
+        assertEquals(0, copy.getBlackTerritory());
+        assertEquals(1, position.getBlackTerritory(), "copy must not share region state");
+
+        position.setTerritoryTracking(false);
+        assertThrows(IllegalStateException.class, () -> position.getBlackTerritory());
+    }
+
+    private void assertTerritoryMatches(GoPosition reference) {
+        reference.copyFrom(position);
+        reference.setTerritoryTracking(false);
+        reference.calculateJapaneseScoring();
+        position.calculateJapaneseScoring();
+        assertEquals(reference.getBlackScore(), position.getBlackScore());
+        assertEquals(reference.getWhiteScore(), position.getWhiteScore());
+
+        // Region sizes against a plain flood fill from each empty point
+        for (int i = 0; i < position.getEmptyCount(); i++) {
+            int p = position.getEmptyPoint(i);
+            java.util.Set<Integer> region = new java.util.HashSet<>();
+            java.util.ArrayDeque<Integer> queue = new java.util.ArrayDeque<>();
+            region.add(p);
+            queue.add(p);
+            while (!queue.isEmpty()) {
+                int cur = queue.poll();
+                for (int d : new int[]{-1, 1, -position.getStride(), position.getStride()}) {
+                    if (position.get(cur + d) == GoPosition.EMPTY && region.add(cur + d)) {
+                        queue.add(cur + d);
+                    }
+                }
+            }
+            assertEquals(region.size(), position.getRegionSize(p));
+        }
+    }
+
+    private byte[] snapshot() {
+        byte[] stones = new byte[81];
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                stones[row * 9 + col] = position.getStone(col, row);
+            }
+        }
+        return stones;
+    }
+}
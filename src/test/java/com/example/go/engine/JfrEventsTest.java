@@ -0,0 +1,96 @@
+package com.example.go.engine;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEventsTest {
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(Runnable game) throws IOException {
+        Path file = dir.resolve("game.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.go.Move").withThreshold(Duration.ZERO);
+            recording.enable("com.example.go.SuicideCheck").withThreshold(Duration.ZERO);
+            recording.enable("com.example.go.Scoring").withThreshold(Duration.ZERO);
+            recording.start();
+            game.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.example.go."))
+                .collect(Collectors.toList());
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    void movesSuicideChecksAndScoringAreRecorded() throws IOException {
+        GoPosition position = new GoPosition(9, 9);
+        List<RecordedEvent> events = record(() -> {
+            // Black surrounds two white stones on the edge and takes them
+            position.makeMove(0, 1);
+            position.makeMove(0, 0);
+            position.makeMove(2, 0);
+            position.makeMove(1, 0);
+            position.makeMove(1, 2);
+            position.makeMove(8, 8);
+            position.makeMove(1, 1);
+            position.calculateJapaneseScoring();
+        });
+
+        List<RecordedEvent> moves = named(events, "com.example.go.Move");
+        assertEquals(7, moves.size());
+        RecordedEvent capture = moves.get(6);
+        assertEquals(1, capture.getInt("col"));
+        assertEquals(1, capture.getInt("row"));
+        assertEquals("B", capture.getString("color"));
+        assertEquals(7, capture.getInt("moveNumber"));
+        assertEquals(2, capture.getInt("capturedStones"));
+        assertEquals(1, capture.getInt("capturedGroups"));
+        assertEquals(2, capture.getInt("largestCapture"));
+        assertEquals(2, capture.getInt("mergedGroups"));
+        assertEquals(3, capture.getInt("groupSize"));
+
+        assertEquals(7, named(events, "com.example.go.SuicideCheck").size());
+
+        List<RecordedEvent> scoring = named(events, "com.example.go.Scoring");
+        assertEquals(1, scoring.size());
+        assertFalse(scoring.get(0).getBoolean("tracked"));
+        assertEquals(2, scoring.get(0).getInt("regions"));
+        assertEquals(position.getBoardHash(), scoring.get(0).getLong("boardHash"));
+    }
+
+    @Test
+    void trackedScoringReportsRegionCount() throws IOException {
+        GoPosition position = new GoPosition(5, 5);
+        position.setTerritoryTracking(true);
+        List<RecordedEvent> events = record(() -> {
+            // A black wall down column 2 splits the board in two
+            for (int row = 0; row < 5; row++) {
+                position.makeMove(2, row);
+                position.pass();
+            }
+            position.calculateJapaneseScoring();
+        });
+        RecordedEvent scoring = named(events, "com.example.go.Scoring").get(0);
+        assertTrue(scoring.getBoolean("tracked"));
+        assertEquals(2, scoring.getInt("regions"));
+        // Both halves touch the edge, which this rule never counts as territory
+        assertEquals(0, scoring.getInt("blackTerritory"));
+    }
+}
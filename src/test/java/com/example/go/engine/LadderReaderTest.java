@@ -0,0 +1,111 @@
+package com.example.go.engine;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LadderReaderTest {
+
+    private static GoPosition load(String... rows) {
+        GoPosition position = new GoPosition(rows[0].length(), rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                char c = rows[row].charAt(col);
+                if (c == 'B') position.setStone(col, row, GoPosition.BLACK);
+                else if (c == 'W') position.setStone(col, row, GoPosition.WHITE);
+            }
+        }
+        return position;
+    }
+
+    // White at (2,3) in atari; extending at (2,4) starts a ladder towards the lower right
+    private static final String[] LADDER = {
+            ".........",
+            ".........",
+            "..B......",
+            ".BWB.....",
+            ".B.......",
+            ".........",
+            ".........",
+            ".........",
+            "........."};
+
+    @Test
+    void ladderToTheEdgeIsCaptured() {
+        GoPosition position = load(LADDER);
+        LadderReader reader = new LadderReader();
+        assertEquals(LadderReader.Outcome.CAPTURED, reader.read(position, position.point(2, 3)));
+        assertTrue(reader.getNodes() > 10);
+    }
+
+    @Test
+    void breakerInThePathLetsThePreyOut() {
+        GoPosition position = load(LADDER);
+        position.setStone(6, 7, GoPosition.WHITE);
+        assertEquals(LadderReader.Outcome.ESCAPES, new LadderReader().read(position, position.point(2, 3)));
+    }
+
+    @Test
+    void capturingAnAttackerInAtariEscapes() {
+        // Extending at (2,3) leaves White on one liberty
+        GoPosition position = load(
+                ".......",
+                "..B....",
+                ".BWB...",
+                ".B.....",
+                "..B....",
+                ".......");
+        LadderReader reader = new LadderReader();
+        assertEquals(LadderReader.Outcome.CAPTURED, reader.read(position, position.point(2, 2)));
+
+        // Unless Black's (3,2) is itself in atari and White takes it at (3,3)
+        position.setStone(3, 1, GoPosition.WHITE);
+        position.setStone(4, 2, GoPosition.WHITE);
+        assertEquals(LadderReader.Outcome.ESCAPES, reader.read(position, position.point(2, 2)));
+    }
+
+    @Test
+    void positionIsLeftAsItWas() {
+        GoPosition position = load(LADDER);
+        position.setPatternTracking(true);
+        long hash = position.getHash();
+        int moves = position.getMoveCount();
+        byte toMove = position.getToMove();
+
+        new LadderReader().read(position, position.point(2, 3));
+        assertEquals(hash, position.getHash());
+        assertEquals(moves, position.getMoveCount());
+        assertEquals(toMove, position.getToMove());
+        assertEquals(5, position.getStoneCount());
+        assertEquals(PatternCode.of(position, position.point(2, 4)), position.getPatternCode(position.point(2, 4)));
+    }
+
+    @Test
+    void koForTheOtherSideDoesNotBlockTheRead() {
+        // White at (3,2) has just taken the ko at (2,2); Black may not retake, but White may connect there
+        GoPosition position = load(
+                ".......",
+                "..WB...",
+                ".WB.B..",
+                "..WB...",
+                ".......");
+        position.setToMove(GoPosition.WHITE);
+        assertTrue(position.play(position.point(3, 2)));
+        int ko = position.point(2, 2);
+        assertEquals(ko, position.getKoPoint());
+        assertEquals(GoPosition.BLACK, position.getToMove());
+
+        assertEquals(LadderReader.Outcome.ESCAPES, new LadderReader().read(position, position.point(3, 2)));
+        assertEquals(ko, position.getKoPoint());
+        assertEquals(GoPosition.BLACK, position.getToMove());
+    }
+
+    @Test
+    void budgetCutsLongReadsShort() {
+        GoPosition position = load(LADDER);
+        LadderReader reader = new LadderReader(5);
+        assertEquals(LadderReader.Outcome.UNDECIDED, reader.read(position, position.point(2, 3)));
+        assertEquals(5, reader.getNodes());
+        assertThrows(IllegalArgumentException.class, () -> reader.read(position, position.point(0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new LadderReader(0));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.go.engine;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class PatternCodeTest {
+
+    private static GoPosition load(String... rows) {
+        GoPosition position = new GoPosition(rows[0].length(), rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                char c = rows[row].charAt(col);
+                if (c == 'B') position.setStone(col, row, GoPosition.BLACK);
+                else if (c == 'W') position.setStone(col, row, GoPosition.WHITE);
+            }
+        }
+        return position;
+    }
+
+    private static void assertCodesMatch(GoPosition position) {
+        for (int i = 0; i < position.getEmptyCount(); i++) {
+            int p = position.getEmptyPoint(i);
+            assertEquals(PatternCode.of(position, p), position.getPatternCode(p),
+                    "code at (" + position.col(p) + "," + position.row(p) + ")");
+        }
+    }
+
+    @Test
+    void codeDescribesNeighboursAndAtari() {
+        GoPosition position = load(
+                ".W...",
+                "WB...",
+                ".....");
+        int code = PatternCode.of(position, position.point(0, 0));
+        assertEquals(GoPosition.BORDER, PatternCode.neighbour(code, 0));
+        assertEquals(GoPosition.BORDER, PatternCode.side(code, PatternCode.NORTH));
+        assertEquals(GoPosition.WHITE, PatternCode.side(code, PatternCode.EAST));
+        assertEquals(GoPosition.WHITE, PatternCode.side(code, PatternCode.SOUTH));
+        assertEquals(GoPosition.BLACK, PatternCode.neighbour(code, 7));
+        assertFalse(PatternCode.inAtari(code, PatternCode.EAST));
+
+        // The black stone has two liberties left; after one more white stone it is in atari
+        int below = PatternCode.of(position, position.point(1, 2));
+        assertFalse(PatternCode.inAtari(below, PatternCode.NORTH));
+        position.setStone(2, 1, GoPosition.WHITE);
+        below = PatternCode.of(position, position.point(1, 2));
+        assertTrue(PatternCode.inAtari(below, PatternCode.NORTH));
+
+        int swapped = PatternCode.swapColors(code);
+        assertEquals(GoPosition.BLACK, PatternCode.side(swapped, PatternCode.EAST));
+        assertEquals(GoPosition.WHITE, PatternCode.neighbour(swapped, 7));
+        assertEquals(GoPosition.BORDER, PatternCode.neighbour(swapped, 0));
+        assertEquals(code, PatternCode.swapColors(swapped));
+    }
+
+    @Test
+    void trackedCodesMatchRecomputationThroughPlayAndUndo() {
+        Random random = new Random(5);
+        for (int game = 0; game < 20; game++) {
+            GoPosition position = new GoPosition(9, 9);
+            position.setPatternTracking(true);
+            int length = 250;
+            for (int move = 0; move < length; move++) {
+                int p = position.point(random.nextInt(9), random.nextInt(9));
+                if (!position.play(p)) {
+                    position.play(GoPosition.PASS);
+                }
+                assertCodesMatch(position);
+            }
+            for (int move = 0; move < length; move++) {
+                position.undo();
+                assertCodesMatch(position);
+            }
+        }
+    }
+
+    @Test
+    void trackingSurvivesSetupCopyAndReset() {
+        GoPosition position = load(
+                ".....",
+                ".BW..",
+                ".....");
+        assertThrows(IllegalStateException.class, () -> position.getPatternCode(position.point(0, 0)));
+        position.setPatternTracking(true);
+        assertCodesMatch(position);
+
+        position.setStone(1, 0, GoPosition.WHITE);
+        assertCodesMatch(position);
+
+        GoPosition copy = new GoPosition(5, 3);
+        copy.copyFrom(position);
+        assertTrue(copy.isPatternTracking());
+        copy.makeMove(0, 1);
+        assertCodesMatch(copy);
+        assertCodesMatch(position);
+
+        // A quiet move lists its own point and those around it, not the far side of the board
+        position.clearPatternChanges();
+        position.makeMove(3, 1);
+        java.util.Set<Integer> listed = new java.util.HashSet<>();
+        for (int i = 0; i < position.getPatternChangeCount(); i++) {
+            listed.add(position.getPatternChange(i));
+        }
+        assertTrue(listed.contains(position.point(3, 1)));
+        assertTrue(listed.contains(position.point(4, 2)));
+        assertFalse(listed.contains(position.point(0, 2)));
+        assertEquals(listed.size(), position.getPatternChangeCount(), "each point listed once");
+
+        position.reset();
+        assertCodesMatch(position);
+        position.setPatternTracking(false);
+        assertFalse(position.isPatternTracking());
+    }
+}
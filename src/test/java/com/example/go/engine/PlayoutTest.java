@@ -0,0 +1,102 @@
+package com.example.go.engine;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlayoutTest {
+
+    @Test
+    void playoutEndsWithTwoPassesAndLeavesStartUntouched() {
+        GoPosition start = new GoPosition(9, 9);
+        start.makeMove(4, 4);
+        long hash = start.getHash();
+
+        Playout playout = new Playout(1);
+        int score = playout.run(start);
+
+        GoPosition end = playout.getPosition();
+        assertEquals(2, end.getPassCount());
+        assertEquals(end.getBlackScore() - end.getWhiteScore(), score);
+        assertEquals(hash, start.getHash());
+        assertEquals(1, start.getStoneCount());
+        assertTrue(playout.getLastMoveCount() > 0);
+    }
+
+    @Test
+    void finalPositionOnlyHasEyesLeft() {
+        Playout playout = new Playout(99);
+        playout.run(new GoPosition(9, 9));
+        GoPosition end = playout.getPosition();
+
+        // Neither side had a move left, so every empty point is an eye or illegal for both
+        for (int i = 0; i < end.getEmptyCount(); i++) {
+            int p = end.getEmptyPoint(i);
+            for (byte color = GoPosition.BLACK; color <= GoPosition.WHITE; color++) {
+                assertTrue(Playout.isOwnEye(end, p, color) || end.wouldBeSuicide(p, color)
+                        || p == end.getKoPoint());
+            }
+        }
+    }
+
+    @Test
+    void sameSeedPlaysSameGame() {
+        GoPosition start = new GoPosition(9, 9);
+        Playout a = new Playout(1234);
+        Playout b = new Playout(1234);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(a.run(start), b.run(start));
+            assertEquals(a.getPosition().getHash(), b.getPosition().getHash());
+        }
+    }
+
+    @Test
+    void patternWeightsSteerTheMoves() {
+        GoPosition start = new GoPosition(5, 5);
+        start.setStone(2, 2, GoPosition.WHITE);
+        start.setStone(1, 2, GoPosition.BLACK);
+        start.setStone(3, 2, GoPosition.BLACK);
+        start.setStone(2, 1, GoPosition.BLACK);
+
+        // Only captures are worth anything; the codes are seen from the mover's side
+        int[] weights = new int[PatternCode.COUNT];
+        for (int code = 0; code < PatternCode.COUNT; code++) {
+            for (int dir = PatternCode.NORTH; dir <= PatternCode.SOUTH; dir++) {
+                if (PatternCode.side(code, dir) == GoPosition.WHITE && PatternCode.inAtari(code, dir)) {
+                    weights[code] = 1;
+                }
+            }
+        }
+        Playout playout = new Playout(7);
+        playout.setPatternWeights(weights);
+        playout.run(start);
+
+        GoPosition end = playout.getPosition();
+        assertEquals(end.point(2, 3), end.getMove(start.getMoveCount()));
+        assertEquals(GoPosition.EMPTY, end.getStone(2, 2));
+        assertEquals(2, end.getPassCount());
+        assertThrows(IllegalArgumentException.class, () -> playout.setPatternWeights(new int[10]));
+    }
+
+    @Test
+    void ownEyeRecognisesFalseEyes() {
+        GoPosition pos = new GoPosition(5, 5);
+        String[] rows = {
+                ".B...",
+                "B.B..",
+                ".BW..",
+                ".....",
+                "....."
+        };
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 5; col++) {
+                char c = rows[row].charAt(col);
+                if (c == 'B') pos.setStone(col, row, GoPosition.BLACK);
+                if (c == 'W') pos.setStone(col, row, GoPosition.WHITE);
+            }
+        }
+        assertTrue(Playout.isOwnEye(pos, pos.point(0, 0), GoPosition.BLACK));
+        // One opponent diagonal is fine in the middle of the board
+        assertTrue(Playout.isOwnEye(pos, pos.point(1, 1), GoPosition.BLACK));
+        assertFalse(Playout.isOwnEye(pos, pos.point(1, 1), GoPosition.WHITE));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.go.gtp;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import com.example.go.engine.GoPosition;
+
+public class GtpEngineTest {
+    private GtpEngine engine;
+
+    @BeforeEach
+    void newEngine() {
+        engine = new GtpEngine(1);
+        engine.setSearchBudget(200, 0);
+    }
+
+    private String send(String line) {
+        assertTrue(engine.execute(line), "Expected a response to: " + line);
+        return engine.getResponse().toString();
+    }
+
+    @Test
+    void answersWithIdsAndSkipsCommentsAndBlankLines() {
+        assertEquals("=7 2\n\n", send("7 protocol_version"));
+        assertEquals("= true\n\n", send("known_command  genmove  # trailing comment"));
+        assertEquals("= false\n\n", send("known_command\tkgs-chat"));
+        assertEquals("?3 unknown command\n\n", send("3 frobnicate"));
+        assertFalse(engine.execute("   "));
+        assertFalse(engine.execute("# just a comment"));
+    }
+
+    @Test
+    void playUsesGtpCoordinatesAndRules() {
+        send("boardsize 9");
+        assertEquals("= \n\n", send("play black A9"));
+        GoPosition position = engine.getPosition();
+        assertEquals(GoPosition.BLACK, position.getStone(0, 0));
+        // I is skipped, so J is the ninth column; row 1 is the bottom
+        send("play w J1");
+        assertEquals(GoPosition.WHITE, position.getStone(8, 8));
+
+        assertEquals("? illegal move\n\n", send("play w A9"));
+        assertEquals("? syntax error\n\n", send("play w I5"));
+        assertEquals("? syntax error\n\n", send("play w A10"));
+        assertEquals("? syntax error\n\n", send("play green A1"));
+        // The same colour may play twice in a row, as the protocol allows
+        send("play w B9");
+        send("play w A8");
+        assertEquals(GoPosition.EMPTY, position.getStone(0, 0));
+        assertEquals(1, position.getCapturedByWhite());
+    }
+
+    @Test
+    void boardsizeUndoAndFinalScore() {
+        assertEquals("? unacceptable size\n\n", send("boardsize 26"));
+        send("boardsize 5");
+        send("komi 0.5");
+        // Black walls off the right two columns, which touch the edge and stay neutral
+        send("play b C1");
+        send("play b C2");
+        send("play b C3");
+        send("play b C4");
+        send("play b C5");
+        send("play w B2");
+        assertEquals("= W+0.5\n\n", send("final_score"));
+
+        send("undo");
+        assertEquals(GoPosition.EMPTY, engine.getPosition().getStone(1, 3));
+        send("komi -1");
+        assertEquals("= B+1\n\n", send("final_score"));
+        send("clear_board");
+        assertEquals("? cannot undo\n\n", send("undo"));
+    }
+
+    @Test
+    void genmoveReturnsALegalMoveAndPlaysIt() {
+        send("boardsize 7");
+        send("play b D4");
+        String response = send("genmove w");
+        assertTrue(response.matches("= ([A-HJ]\\d|pass)\n\n"), response);
+        assertEquals(2, engine.getPosition().getMoveCount());
+        assertEquals(GoPosition.BLACK, engine.getPosition().getToMove());
+    }
+
+    @Test
+    void showboardDrawsStonesAndPrisoners() {
+        send("boardsize 3");
+        send("play b A1");
+        send("play w C3");
+        assertEquals("= \n"
+                + "   A B C\n"
+                + " 3 . . O 3   Black (X) captured 0\n"
+                + " 2 . . . 2   White (O) captured 0\n"
+                + " 1 X . . 1\n"
+                + "   A B C\n\n", send("showboard"));
+    }
+
+    @Test
+    void runStopsAtQuit() throws IOException {
+        StringWriter out = new StringWriter();
+        engine.run(new StringReader("name\nquit\nname\n"), out);
+        assertEquals("= GO_Game_Engine\n\n= \n\n", out.toString());
+        assertTrue(engine.isQuit());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.go.journal;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.go.engine.GameEventListener;
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.InvalidMoveException;
+
+public class GameJournalTest {
+    @TempDir
+    Path dir;
+
+    private static CompletableFuture<Void> randomMove(RecordedGame game, Random random) {
+        int size = game.getPosition().getCols();
+        try {
+            return game.play(random.nextInt(size), random.nextInt(size));
+        } catch (InvalidMoveException e) {
+            return game.pass();
+        }
+    }
+
+    private static void assertSameGame(RecordedGame expected, RecordedGame actual) {
+        GoPosition e = expected.getPosition();
+        GoPosition a = actual.getPosition();
+        String game = "game " + expected.getId();
+        for (int row = 0; row < e.getRows(); row++) {
+            for (int col = 0; col < e.getCols(); col++) {
+                assertEquals(e.getStone(col, row), a.getStone(col, row), game + " at " + col + "," + row);
+            }
+        }
+        assertEquals(e.getToMove(), a.getToMove(), game);
+        assertEquals(e.getKoPoint(), a.getKoPoint(), game);
+        assertEquals(e.getPassCount(), a.getPassCount(), game);
+        assertEquals(e.getCapturedByBlack(), a.getCapturedByBlack(), game);
+        assertEquals(e.getCapturedByWhite(), a.getCapturedByWhite(), game);
+        assertEquals(e.getBoardHash(), a.getBoardHash(), game);
+        assertEquals(expected.getMoveCount(), actual.getMoveCount(), game);
+        assertEquals(expected.getSeq(), actual.getSeq(), game);
+        assertEquals(expected.isResigned(), actual.isResigned(), game);
+    }
+
+    @Test
+    void recoversFromSnapshotPlusJournalTail() throws IOException {
+        Random random = new Random(3);
+        List<RecordedGame> games = new ArrayList<>();
+        List<CompletableFuture<Void>> events = new ArrayList<>();
+        GameJournal journal = GameJournal.open(dir);
+        for (int id = 1; id <= 40; id++) {
+            RecordedGame game = RecordedGame.create(id, id % 2 == 0 ? 9 : 13, id % 2 == 0 ? 9 : 13);
+            events.add(game.start(journal));
+            for (int i = 0; i < 30; i++) {
+                events.add(randomMove(game, random));
+            }
+            games.add(game);
+        }
+        long first = journal.roll();
+        List<GameState> states = new ArrayList<>();
+        for (RecordedGame game : games) {
+            states.add(game.capture());
+        }
+        journal.writeSnapshot(first, 41, states);
+        assertFalse(Files.exists(JournalFormat.segment(dir, first - 1)), "Covered segment is dropped");
+
+        for (RecordedGame game : games) {
+            for (int i = 0; i < 10; i++) {
+                events.add(randomMove(game, random));
+            }
+            // Back past the snapshot, into the moves recovery replays
+            for (int i = 0; i < 15; i++) {
+                events.add(game.undo());
+            }
+        }
+        events.add(games.get(0).resign());
+        events.add(games.get(1).close());
+        CompletableFuture.allOf(events.toArray(new CompletableFuture[0])).join();
+        journal.close();
+
+        Map<Long, RecordedGame> recovered = GameJournal.recover(dir).getGames();
+        assertEquals(games.size() - 1, recovered.size());
+        assertFalse(recovered.containsKey(2L));
+        for (RecordedGame game : games) {
+            if (game.getId() != 2) {
+                assertSameGame(game, recovered.get(game.getId()));
+            }
+        }
+    }
+
+    @Test
+    void snapshotKeepsTheKoPoint() throws IOException {
+        RecordedGame game = RecordedGame.create(7, 5, 5);
+        game.start(null);
+        int[][] moves = {{1, 0}, {2, 0}, {0, 1}, {3, 1}, {1, 2}, {2, 2}, {4, 4}, {1, 1}, {2, 1}};
+        for (int[] move : moves) {
+            game.play(move[0], move[1]);
+        }
+        assertNotEquals(GoPosition.PASS, game.getPosition().getKoPoint());
+
+        GameJournal journal = GameJournal.open(dir);
+        journal.writeSnapshot(journal.roll(), 8, List.of(game.capture()));
+        journal.close();
+        RecordedGame restored = GameJournal.recover(dir).getGames().get(7L);
+        assertSameGame(game, restored);
+        assertThrows(InvalidMoveException.class, () -> restored.play(1, 1), "Retaking the ko at once");
+    }
+
+    @Test
+    void recoveredGameKeepsItsSuperkoHistoryAndReportsNoMoves() throws IOException {
+        RecordedGame game = RecordedGame.create(7, 5, 5);
+        GameJournal journal = GameJournal.open(dir);
+        game.start(journal);
+        int[][] moves = {{1, 0}, {2, 0}, {0, 1}, {3, 1}, {1, 2}, {2, 2}, {4, 4}, {1, 1}, {2, 1}};
+        for (int[] move : moves) {
+            game.play(move[0], move[1]);
+        }
+        journal.writeSnapshot(journal.roll(), 8, List.of(game.capture()));
+        // The ko expires, but retaking it would bring back the board from before black took
+        game.pass();
+        game.pass().join();
+        journal.close();
+
+        AtomicInteger reported = new AtomicInteger();
+        GameEventListener listener = new GameEventListener() {
+            @Override
+            public void movePlayed(GoPosition position, int point, byte color, int captured, long nanos) {
+                reported.incrementAndGet();
+            }
+        };
+        GameEvents.addListener(listener);
+        RecordedGame restored;
+        try {
+            restored = GameJournal.recover(dir).getGames().get(7L);
+        } finally {
+            GameEvents.removeListener(listener);
+        }
+        assertEquals(0, reported.get(), "Recovery replays without reporting moves");
+        assertSameGame(game, restored);
+        InvalidMoveException ex = assertThrows(InvalidMoveException.class, () -> restored.play(1, 1));
+        assertEquals("Superko rule violation", ex.getMessage());
+    }
+
+    @Test
+    void tornRecordEndsReplay() throws IOException {
+        RecordedGame game = RecordedGame.create(1, 9, 9);
+        GameJournal journal = GameJournal.open(dir);
+        game.start(journal);
+        game.play(2, 2);
+        game.play(3, 3);
+        game.play(4, 4).join();
+        long segment = journal.getSegment();
+        journal.close();
+
+        // A crash halfway through the last record
+        Path file = JournalFormat.segment(dir, segment);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - JournalFormat.RECORD / 2);
+        }
+        RecordedGame recovered = GameJournal.recover(dir).getGames().get(1L);
+        assertEquals(3, recovered.getSeq());
+        assertEquals(GoPosition.EMPTY, recovered.getPosition().getStone(4, 4));
+        assertEquals(GoPosition.WHITE, recovered.getPosition().getStone(3, 3));
+
+        // The next run appends to a new segment and replays both
+        try (GameJournal reopened = GameJournal.open(dir)) {
+            recovered.attach(reopened);
+            recovered.play(5, 5).join();
+        }
+        RecordedGame again = GameJournal.recover(dir).getGames().get(1L);
+        assertEquals(4, again.getSeq());
+        assertEquals(GoPosition.BLACK, again.getPosition().getStone(5, 5));
+    }
+
+    @Test
+    void concurrentAppendsShareForces() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        try (GameJournal journal = GameJournal.open(dir)) {
+            Thread[] writers = new Thread[threads];
+            List<List<CompletableFuture<Void>>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<CompletableFuture<Void>> mine = new ArrayList<>();
+                done.add(mine);
+                long game = t + 1;
+                writers[t] = new Thread(() -> {
+                    for (int seq = 1; seq <= perThread; seq++) {
+                        mine.add(journal.append(game, seq, GameJournal.PASS, GoPosition.BLACK, 0));
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            for (List<CompletableFuture<Void>> futures : done) {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            }
+            assertEquals(threads * perThread, journal.getRecordCount());
+            assertTrue(journal.getSyncCount() < journal.getRecordCount(),
+                    journal.getSyncCount() + " forces for " + journal.getRecordCount() + " records");
+        }
+    }
+}
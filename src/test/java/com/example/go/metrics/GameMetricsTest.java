@@ -0,0 +1,115 @@
+package com.example.go.metrics;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.example.go.engine.GameEventListener;
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.InvalidMoveException;
+
+public class GameMetricsTest {
+    /** Black captures a white stone in the corner, after one illegal try. */
+    private static void playCapture() {
+        GoPosition position = new GoPosition(9, 9);
+        position.makeMove(1, 0);
+        position.makeMove(0, 0);
+        assertThrows(InvalidMoveException.class, () -> position.makeMove(0, 0));
+        position.makeMove(0, 1);
+        GameEvents.passed(position, position.getToMove());
+        position.pass();
+        GameEvents.score(position);
+    }
+
+    @Test
+    void countsMovesCapturesRejectionsAndScoring() {
+        GameMetrics metrics = new GameMetrics();
+        GameEvents.addListener(metrics);
+        try {
+            playCapture();
+        } finally {
+            GameEvents.removeListener(metrics);
+        }
+        assertEquals(3, metrics.getMoves());
+        assertEquals(1, metrics.getCaptures());
+        assertEquals(1, metrics.getIllegalMoves());
+        assertEquals(1, metrics.getPasses());
+        assertEquals(1, metrics.getScorings());
+        assertEquals(3, metrics.getMoveLatency().getCount());
+        assertEquals(1, metrics.getScoringLatency().getCount());
+
+        // Nobody listening: nothing more is counted
+        playCapture();
+        assertEquals(3, metrics.getMoves());
+    }
+
+    @Test
+    void everyListenerHearsEachEvent() {
+        int[] rejected = new int[2];
+        GameEventListener first = new GameEventListener() {
+            @Override
+            public void moveRejected(GoPosition position, int col, int row, String reason) {
+                rejected[0]++;
+                assertEquals("Intersection already occupied", reason);
+            }
+        };
+        GameEventListener second = new GameEventListener() {
+            @Override
+            public void moveRejected(GoPosition position, int col, int row, String reason) {
+                rejected[1]++;
+            }
+        };
+        GameEvents.addListener(first);
+        GameEvents.addListener(second);
+        try {
+            playCapture();
+        } finally {
+            GameEvents.removeListener(first);
+            GameEvents.removeListener(second);
+        }
+        assertArrayEquals(new int[]{1, 1}, rejected);
+    }
+
+    @Test
+    void statsAreReadableOverJmx() throws Exception {
+        GameMetrics metrics = GameMetrics.install();
+        try {
+            metrics.reset();
+            playCapture();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(GameMetrics.OBJECT_NAME);
+            assertEquals(3L, server.getAttribute(name, "Moves"));
+            assertEquals(1L, server.getAttribute(name, "IllegalMoves"));
+            assertTrue((Double) server.getAttribute(name, "MoveLatencyP99Micros") > 0);
+        } finally {
+            GameMetrics.uninstall();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(GameMetrics.OBJECT_NAME)));
+    }
+
+    @Test
+    void histogramPercentilesAreWithinABucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 1e-9);
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50 " + p50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 " + p99);
+        for (int i = 0; i < 300; i++) {
+            long v = i * i * 37L;
+            assertTrue(LatencyHistogram.upperBound(LatencyHistogram.index(v)) >= v);
+        }
+        histogram.reset();
+        assertEquals(0, histogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.go.search;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.go.engine.GoPosition;
+
+public class MctsSearchTest {
+
+    @Test
+    void playoutBudgetIsSpentExactlyAcrossThreads() {
+        GoPosition root = new GoPosition(7, 7);
+        long hash = root.getHash();
+        try (MctsSearch search = new MctsSearch(4)) {
+            search.setSeed(1);
+            SearchResult result = search.search(root, 2000, 0);
+
+            assertEquals(2000, result.getPlayouts());
+            long childVisits = 0;
+            for (int i = 0; i < result.getMoveCount(); i++) {
+                childVisits += result.getVisits(i);
+                if (i > 0) {
+                    assertTrue(result.getVisits(i - 1) >= result.getVisits(i), "sorted by visits");
+                }
+            }
+            // The first iteration only expands the root
+            assertTrue(childVisits >= 1999 && childVisits <= 2000);
+            assertTrue(root.isLegal(result.getBestMove()));
+        }
+        assertEquals(hash, root.getHash(), "root must not be modified");
+    }
+
+    @Test
+    void timeBudgetStopsTheSearch() {
+        GoPosition root = new GoPosition(9, 9);
+        try (MctsSearch search = new MctsSearch(2)) {
+            long start = System.nanoTime();
+            SearchResult result = search.search(root, 0, 200);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(millis < 2000, "took " + millis + "ms");
+            assertTrue(result.getPlayouts() > 0);
+            assertTrue(result.getPlayoutsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void finishedGameOnlyOffersPass() {
+        GoPosition root = new GoPosition(5, 5);
+        root.pass();
+        root.pass();
+        try (MctsSearch search = new MctsSearch(1)) {
+            SearchResult result = search.search(root, 50, 0);
+            assertEquals(GoPosition.PASS, result.getBestMove());
+        }
+    }
+
+    @Test
+    void needsABudget() {
+        try (MctsSearch search = new MctsSearch(1)) {
+            assertThrows(IllegalArgumentException.class, () -> search.search(new GoPosition(5, 5), 0, 0));
+        }
+    }
+}
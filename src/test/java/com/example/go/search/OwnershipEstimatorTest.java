@@ -0,0 +1,103 @@
+package com.example.go.search;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import com.example.go.engine.GoPosition;
+
+public class OwnershipEstimatorTest {
+    /**
+     * Finished 9x9 game: both groups have several eyes, and each side has
+     * one hopeless stone inside the other's box.
+     */
+    static final String[] FINISHED = {
+            "BBBBWWWWW",
+            "B..BW..WW",
+            "B.WBW.BWW",
+            "B..BW..WW",
+            "BBBBWWWWW",
+            "B.B.W.W.W",
+            "BBBBWWWWW",
+            "B.B.W.W.W",
+            "BBBBWWWWW"
+    };
+
+    static GoPosition load(String[] rows) {
+        GoPosition position = new GoPosition(rows[0].length(), rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                char c = rows[row].charAt(col);
+                if (c == 'B') position.setStone(col, row, GoPosition.BLACK);
+                else if (c == 'W') position.setStone(col, row, GoPosition.WHITE);
+            }
+        }
+        position.pass();
+        position.pass();
+        return position;
+    }
+
+    @Test
+    void lonelyStonesInsideTheOtherSidesBoxAreDead() {
+        GoPosition position = load(FINISHED);
+        long hash = position.getHash();
+        try (OwnershipEstimator estimator = new OwnershipEstimator(4)) {
+            estimator.setSeed(1);
+            Ownership ownership = estimator.estimate(position, 2000, 0);
+
+            assertEquals(2000, ownership.getPlayouts());
+            int[] dead = ownership.getDeadStones();
+            Arrays.sort(dead);
+            assertArrayEquals(new int[]{position.point(2, 2), position.point(6, 2)}, dead);
+            assertTrue(ownership.isDead(2, 2));
+            assertFalse(ownership.isDead(0, 0));
+
+            assertTrue(ownership.get(1, 1) > 0.9, "inside Black's box");
+            assertTrue(ownership.get(5, 1) < -0.9, "inside White's box");
+            assertTrue(ownership.get(2, 2) > 0.9, "the dead white stone's point ends up Black's");
+            assertTrue(ownership.get(0, 0) > 0.9);
+            assertTrue(ownership.get(8, 8) < -0.9);
+        }
+        assertEquals(hash, position.getHash(), "the position must not be modified");
+        assertEquals(2, position.getPassCount());
+    }
+
+    @Test
+    void estimatedDeadStonesChangeTheScore() {
+        GoPosition position = load(FINISHED);
+        position.calculateJapaneseScoring();
+        // Alive, each stray stone spoils its box: only the one-point eyes count
+        assertEquals(2, position.getBlackScore());
+        assertEquals(4, position.getWhiteScore());
+
+        try (OwnershipEstimator estimator = new OwnershipEstimator(2)) {
+            estimator.setSeed(2);
+            position.calculateJapaneseScoring(estimator.estimate(position, 1000, 0).getDeadStones());
+        }
+        assertEquals(2 + 6 + 1, position.getBlackScore());
+        assertEquals(4 + 6 + 1, position.getWhiteScore());
+    }
+
+    @Test
+    void timeBudgetStopsTheEstimate() {
+        GoPosition position = new GoPosition(19, 19);
+        try (OwnershipEstimator estimator = new OwnershipEstimator(2)) {
+            long start = System.nanoTime();
+            Ownership ownership = estimator.estimate(position, 0, 200);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(millis < 1000, "took " + millis + " ms");
+            assertTrue(ownership.getPlayouts() > 0);
+            assertEquals(0, ownership.getDeadStones().length);
+        }
+    }
+
+    @Test
+    void thresholdMustBeAShare() {
+        try (OwnershipEstimator estimator = new OwnershipEstimator(1)) {
+            assertThrows(IllegalArgumentException.class, () -> estimator.setDeadThreshold(0));
+            assertThrows(IllegalArgumentException.class, () -> estimator.setDeadThreshold(1.5));
+            assertThrows(IllegalArgumentException.class, () -> estimator.estimate(new GoPosition(9, 9), 0, 0));
+        }
+    }
+}
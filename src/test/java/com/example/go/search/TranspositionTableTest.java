@@ -0,0 +1,115 @@
+package com.example.go.search;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.go.engine.GoPosition;
+
+public class TranspositionTableTest {
+
+    @Test
+    void storesAndFindsEntries() {
+        TranspositionTable tt = new TranspositionTable(1);
+        GoPosition position = new GoPosition(9, 9);
+        position.makeMove(4, 4);
+        long key = position.getHash();
+
+        assertEquals(0, tt.probe(key));
+        tt.store(key, position.point(3, 3), 12, TranspositionTable.BOUND_LOWER, -1234);
+
+        long entry = tt.probe(key);
+        assertEquals(position.point(3, 3), TranspositionTable.move(entry));
+        assertEquals(12, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+        assertEquals(-1234, TranspositionTable.value(entry));
+        assertEquals(0, tt.probe(key ^ 1));
+    }
+
+    @Test
+    void packingKeepsEveryField() {
+        long e = TranspositionTable.pack(GoPosition.PASS, 255, TranspositionTable.BOUND_UPPER, Integer.MIN_VALUE);
+        assertEquals(GoPosition.PASS, TranspositionTable.move(e));
+        assertEquals(255, TranspositionTable.depth(e));
+        assertEquals(TranspositionTable.BOUND_UPPER, TranspositionTable.bound(e));
+        assertEquals(Integer.MIN_VALUE, TranspositionTable.value(e));
+    }
+
+    @Test
+    void memoryIsCappedAtTheBudget() {
+        TranspositionTable tt = new TranspositionTable(3);
+        assertTrue(tt.getMemoryBytes() <= 3L * 1024 * 1024);
+        assertEquals(2L * 1024 * 1024, tt.getMemoryBytes(), "rounded down to a power of two");
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    void shallowerResultDoesNotReplaceDeeperOne() {
+        TranspositionTable tt = new TranspositionTable(1);
+        tt.store(42, 1, 10, TranspositionTable.BOUND_LOWER, 5);
+        tt.store(42, 2, 3, TranspositionTable.BOUND_LOWER, 6);
+        assertEquals(10, TranspositionTable.depth(tt.probe(42)));
+
+        tt.newSearch();
+        tt.store(42, 2, 3, TranspositionTable.BOUND_LOWER, 6);
+        assertEquals(3, TranspositionTable.depth(tt.probe(42)), "old generation gives way");
+    }
+
+    @Test
+    void fullBucketEvictsTheShallowestEntry() {
+        TranspositionTable tt = new TranspositionTable(1);
+        int buckets = tt.getCapacity() / 4;
+        // Same low bits, so all five keys land in one bucket
+        long[] keys = new long[5];
+        for (int i = 0; i < 5; i++) {
+            keys[i] = 7 + (long) (i + 1) * buckets;
+        }
+        int[] depths = {8, 2, 9, 5};
+        for (int i = 0; i < 4; i++) {
+            tt.store(keys[i], 0, depths[i], TranspositionTable.BOUND_EXACT, i);
+        }
+        tt.store(keys[4], 0, 6, TranspositionTable.BOUND_EXACT, 4);
+
+        assertEquals(0, tt.probe(keys[1]), "depth 2 entry is the victim");
+        assertNotEquals(0, tt.probe(keys[0]));
+        assertNotEquals(0, tt.probe(keys[4]));
+    }
+
+    @Test
+    void concurrentWritersNeverProduceAWrongHit() throws InterruptedException {
+        TranspositionTable tt = new TranspositionTable(1);
+        AtomicLong wrong = new AtomicLong();
+        AtomicLong hits = new AtomicLong();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 500_000; i++) {
+                    // A small key space so threads keep colliding on the same buckets
+                    long key = random.nextInt(200_000) * 0x9E3779B97F4A7C15L;
+                    int expected = (int) (key >>> 40);
+                    if (random.nextBoolean()) {
+                        tt.store(key, 0, random.nextInt(20), TranspositionTable.BOUND_EXACT, expected);
+                    } else {
+                        long entry = tt.probe(key);
+                        if (entry != 0) {
+                            hits.incrementAndGet();
+                            if (TranspositionTable.value(entry) != expected) {
+                                wrong.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(hits.get() > 0);
+        assertEquals(0, wrong.get());
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.go.server;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.go.engine.GameEventListener;
+import com.example.go.engine.GameEvents;
+import com.example.go.engine.GoPosition;
+import com.example.go.journal.GameJournal;
+
+public class GameServerTest {
+    private GameRegistry registry;
+    private GameServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        registry = new GameRegistry(2);
+        server = new GameServer(0, 2, registry);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        server.close();
+        registry.close();
+    }
+
+    private static String[] exchange(Socket socket, String... commands) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        // Everything is sent before any reply is read, so commands are pipelined
+        out.write((String.join("\n", commands) + "\n").getBytes(StandardCharsets.US_ASCII));
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        String[] replies = new String[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            replies[i] = in.readLine();
+        }
+        return replies;
+    }
+
+    @Test
+    void playsAGameOverTheLineProtocol() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            String[] replies = exchange(socket,
+                    "NEW 9",
+                    "PLAY 1 4 4",
+                    "PLAY 1 4 4",
+                    "PLAY 1 3 4",
+                    "PASS 1",
+                    "STATE 1",
+                    "UNDO 1",
+                    "SCORE 1",
+                    "PLAY 99 0 0",
+                    "JUMP 1",
+                    "PLAY 1 x",
+                    "COUNT",
+                    "CLOSE 1",
+                    "COUNT");
+            assertArrayEquals(new String[]{
+                    "OK 1",
+                    "OK",
+                    "ERR Intersection already occupied",
+                    "OK",
+                    "OK",
+                    "OK W 3 0 0",
+                    "OK",
+                    "OK 0 0",
+                    "ERR unknown game",
+                    "ERR unknown command",
+                    "ERR syntax",
+                    "OK 1",
+                    "OK",
+                    "OK 0"}, replies);
+        }
+    }
+
+    @Test
+    void pipelinedRepliesKeepCommandOrderAcrossGames() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            String[] commands = new String[2 + 400];
+            commands[0] = "NEW 9";
+            commands[1] = "NEW 9";
+            for (int i = 0; i < 400; i++) {
+                int game = 1 + i % 2;
+                int move = i / 2;
+                // Game 1 gets legal moves, game 2 the same point again and again
+                commands[2 + i] = game == 1 ? "PLAY 1 " + move % 9 + " " + move / 9 % 9 : "PLAY 2 0 0";
+            }
+            String[] replies = exchange(socket, commands);
+            assertEquals("OK", replies[2]);
+            assertEquals("OK", replies[3]);
+            for (int i = 3; i < 400; i += 2) {
+                assertEquals("ERR Intersection already occupied", replies[2 + i], "reply " + i);
+            }
+        }
+    }
+
+    @Test
+    void sessionRunsCommandsOneAtATimeInOrder() throws InterruptedException {
+        GameSession session = registry.create(9, 9);
+        AtomicBoolean overlap = new AtomicBoolean();
+        AtomicInteger running = new AtomicInteger();
+        int[] seen = new int[4];
+        boolean[] ordered = {true};
+        CountDownLatch done = new CountDownLatch(4 * 1000);
+        Thread[] submitters = new Thread[4];
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            submitters[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    int n = i;
+                    session.execute(position -> {
+                        if (running.incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                        // Plain fields: only safe because one command runs at a time
+                        if (seen[thread] != n) {
+                            ordered[0] = false;
+                        }
+                        seen[thread] = n + 1;
+                        running.decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            });
+            submitters[t].start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertFalse(overlap.get());
+        assertTrue(ordered[0]);
+    }
+
+    @Test
+    void commandThatThrowsIsAnsweredAndTheGameGoesOn() throws IOException {
+        GameEventListener broken = new GameEventListener() {
+            @Override
+            public void scored(GoPosition position, int blackScore, int whiteScore, long nanos) {
+                throw new IllegalStateException("broken listener");
+            }
+        };
+        GameEvents.addListener(broken);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            // A stuck session would leave every reply after it unanswered
+            socket.setSoTimeout(10_000);
+            String[] replies = exchange(socket, "NEW 9", "SCORE 1", "PLAY 1 4 4", "NEW 9", "STATE 1");
+            assertArrayEquals(new String[]{"OK 1", "ERR internal", "OK", "OK 2", "OK W 1 0 0"}, replies);
+        } finally {
+            GameEvents.removeListener(broken);
+        }
+    }
+
+    @Test
+    void errorOnOneConnectionClosesOnlyThatConnection() throws IOException {
+        GameRegistry stopped = new GameRegistry(1);
+        try (GameServer single = new GameServer(0, 1, stopped);
+             Socket failing = new Socket(InetAddress.getLoopbackAddress(), single.getPort());
+             Socket other = new Socket(InetAddress.getLoopbackAddress(), single.getPort())) {
+            failing.setSoTimeout(10_000);
+            other.setSoTimeout(10_000);
+            assertArrayEquals(new String[]{"OK 1"}, exchange(failing, "NEW 9"));
+            // With the workers gone, queueing a command on the game throws on the selector thread
+            stopped.close();
+            assertArrayEquals(new String[]{null}, exchange(failing, "PLAY 1 4 4"));
+            assertArrayEquals(new String[]{"OK 1"}, exchange(other, "COUNT"));
+        }
+    }
+
+    @Test
+    void loadTestClientGetsEveryReply() throws Exception {
+        LoadTestClient.Result result = LoadTestClient.run(server.getPort(), 300, 9, 4, 10, 7);
+        assertEquals(300, result.getGames());
+        assertEquals(300 * 11, result.getCommands());
+        assertTrue(result.getOkReplies() > 300);
+        assertEquals(300, registry.size());
+    }
+
+    @Test
+    void journaledGamesSurviveARestart(@TempDir Path dir) throws IOException {
+        String[] before;
+        try (GameRegistry journaled = new GameRegistry(2, GameJournal.open(dir));
+             GameServer first = new GameServer(0, 1, journaled)) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), first.getPort())) {
+                exchange(socket, "NEW 9", "NEW 9", "NEW 9", "PLAY 1 4 4", "PLAY 1 3 3", "PLAY 2 0 0");
+                journaled.snapshot();
+                before = exchange(socket, "PLAY 1 5 5", "UNDO 2", "RESIGN 2", "PLAY 2 1 1", "CLOSE 3",
+                        "STATE 1", "STATE 2");
+            }
+        }
+        assertArrayEquals(new String[]{"OK", "OK", "OK", "ERR game over", "OK", "OK W 3 0 0", "OK B 0 0 0"}, before);
+
+        try (GameRegistry recovered = GameRegistry.recover(dir, 2);
+             GameServer second = new GameServer(0, 1, recovered);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), second.getPort())) {
+            String[] after = exchange(socket, "COUNT", "STATE 1", "STATE 2", "PASS 2", "UNDO 1", "UNDO 1",
+                    "STATE 1", "NEW 9");
+            assertArrayEquals(new String[]{"OK 2", "OK W 3 0 0", "OK B 0 0 0", "ERR game over", "OK", "OK",
+                    "OK W 1 0 0", "OK 4"}, after);
+        }
+    }
+
+    @Test
+    void failedSnapshotsAreCountedAndRetried(@TempDir Path dir) throws Exception {
+        // A directory where the snapshot is written aside makes every snapshot fail
+        Files.createDirectories(dir.resolve("snapshot.tmp").resolve("in-the-way"));
+        try (GameRegistry journaled = new GameRegistry(1, GameJournal.open(dir))) {
+            journaled.create(9, 9);
+            journaled.scheduleSnapshots(10, TimeUnit.MILLISECONDS);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (journaled.getFailedSnapshots() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(journaled.getFailedSnapshots() >= 2, "keeps trying after a failure");
+            assertTrue(journaled.getLastSnapshotFailure() instanceof IOException);
+        }
+    }
+}
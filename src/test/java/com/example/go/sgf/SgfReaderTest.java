@@ -0,0 +1,143 @@
+package com.example.go.sgf;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.exception.SgfFormatException;
+
+public class SgfReaderTest {
+
+    private static SgfGame parse(String sgf) throws IOException {
+        try (SgfReader reader = new SgfReader(new StringReader(sgf))) {
+            return reader.next();
+        }
+    }
+
+    @Test
+    void readsGameInfoAndMainLine() throws IOException {
+        SgfGame game = parse("(;GM[1]FF[4]SZ[9]KM[6.5]PB[Black \\] Player]PW[White]RE[W+R]"
+                + "C[comment with ) and ( inside]"
+                + ";B[ee];W[cc]\n;B[];W[tt])");
+
+        assertEquals(9, game.getCols());
+        assertEquals(9, game.getRows());
+        assertEquals(6.5, game.getKomi());
+        assertEquals("Black ] Player", game.getBlackPlayer());
+        assertEquals("W+R", game.getResult());
+        assertEquals(4, game.getMoveCount());
+        assertEquals(4, game.getCol(0));
+        assertEquals(4, game.getRow(0));
+        assertEquals(GoPosition.WHITE, game.getColor(1));
+        assertEquals(2 * 9 + 2, game.getMove(1));
+        assertTrue(game.isPass(2));
+        assertTrue(game.isPass(3), "tt is a pass on small boards");
+    }
+
+    @Test
+    void keepsOnlyTheFirstVariation() throws IOException {
+        SgfGame game = parse("(;SZ[5];B[aa](;W[bb];B[cc](;W[dd])(;W[ee]))(;W[ab];B[ba]))");
+        assertEquals(4, game.getMoveCount());
+        assertEquals(3 * 5 + 3, game.getMove(3));
+    }
+
+    @Test
+    void readsSetupStonesAndRectangles() throws IOException {
+        SgfGame game = parse("(;SZ[19:13]HA[2]AB[aa:bb][dd]AW[sm];W[cc])");
+        assertEquals(19, game.getCols());
+        assertEquals(13, game.getRows());
+        assertEquals(2, game.getHandicap());
+        assertEquals(5, game.getBlackSetup().length);
+        assertEquals(1, game.getWhiteSetup().length);
+
+        GoPosition position = new GoPosition(19, 13);
+        assertEquals(1, game.replay(position));
+        assertEquals(GoPosition.BLACK, position.getStone(1, 1));
+        assertEquals(GoPosition.WHITE, position.getStone(18, 12));
+        assertEquals(GoPosition.WHITE, position.getStone(2, 2));
+    }
+
+    @Test
+    void readsManyGamesFromOneStream() throws IOException {
+        String sgf = "(;SZ[9];B[aa])\n(;SZ[13];B[bb];W[cc])\n";
+        try (SgfReader reader = new SgfReader(new StringReader(sgf))) {
+            assertEquals(1, reader.next().getMoveCount());
+            assertEquals(13, reader.next().getCols());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void writerRoundTripsRandomGames() throws IOException {
+        Random random = new Random(9);
+        GoPosition position = new GoPosition(9, 9);
+        for (int move = 0; move < 120; move++) {
+            if (!position.play(position.point(random.nextInt(9), random.nextInt(9)))) {
+                position.pass();
+            }
+        }
+        SgfGame game = SgfGame.from(position, 7.5, "B+2.5");
+
+        StringWriter out = new StringWriter();
+        try (SgfWriter writer = new SgfWriter(out)) {
+            writer.write(game);
+        }
+        SgfGame read = parse(out.toString());
+
+        assertEquals(game.getMoveCount(), read.getMoveCount());
+        assertEquals(7.5, read.getKomi());
+        assertEquals("B+2.5", read.getResult());
+        GoPosition replayed = new GoPosition(9, 9);
+        assertEquals(read.getMoveCount(), read.replay(replayed));
+        assertEquals(position.getHash(), replayed.getHash());
+    }
+
+    @Test
+    void streamsEveryFileInADirectory(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("a.sgf"), "(;SZ[9];B[aa])(;SZ[9];B[bb];W[cc])");
+        Files.createDirectory(dir.resolve("sub"));
+        Files.writeString(dir.resolve("sub").resolve("b.SGF"), "(;SZ[19];B[dd])");
+        Files.writeString(dir.resolve("notes.txt"), "not a game");
+
+        try (Stream<SgfGame> games = SgfReader.games(dir)) {
+            List<Integer> sizes = games.map(SgfGame::getCols).collect(Collectors.toList());
+            assertEquals(List.of(9, 9, 19), sizes);
+        }
+    }
+
+    @Test
+    void malformedInputReportsTheLine() {
+        SgfFormatException e = assertThrows(SgfFormatException.class,
+                () -> parse("(;SZ[9]\n;B[a!])"));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        assertThrows(SgfFormatException.class, () -> parse("(;SZ[9];B[aa]"));
+        assertThrows(SgfFormatException.class, () -> parse("(;SZ[5];B[jj])"));
+    }
+
+    @Test
+    void damagedFileIsSkippedAndTheWalkGoesOn(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("a.sgf"), "(;SZ[9];B[aa])");
+        Files.writeString(dir.resolve("b.sgf"), "(;SZ[9];B[a!])(;SZ[9];B[bb])");
+        Files.writeString(dir.resolve("c.sgf"), "(;SZ[13];B[cc])");
+
+        try (Stream<SgfGame> games = SgfReader.games(dir)) {
+            java.util.Iterator<SgfGame> it = games.iterator();
+            assertEquals(9, it.next().getCols());
+            SgfFormatException e = assertThrows(SgfFormatException.class, it::hasNext);
+            assertTrue(e.getMessage().contains("b.sgf"), e.getMessage());
+            assertEquals(13, it.next().getCols());
+            assertFalse(it.hasNext());
+        }
+    }
+}
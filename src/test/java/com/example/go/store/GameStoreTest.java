@@ -0,0 +1,132 @@
+package com.example.go.store;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.example.go.engine.GoPosition;
+import com.example.go.sgf.SgfGame;
+
+public class GameStoreTest {
+    @TempDir
+    Path dir;
+
+    private static List<SgfGame> randomGames(int count, long seed) {
+        Random random = new Random(seed);
+        int[] sizes = {5, 9, 11, 13, 19};
+        List<SgfGame> games = new ArrayList<>();
+        for (int g = 0; g < count; g++) {
+            int size = sizes[g % sizes.length];
+            GoPosition position = new GoPosition(size, size);
+            for (int move = 0; move < size * size; move++) {
+                if (!position.play(position.point(random.nextInt(size), random.nextInt(size)))) {
+                    position.pass();
+                }
+            }
+            games.add(SgfGame.from(position, g % 2 == 0 ? 6.5 : -3, null));
+        }
+        return games;
+    }
+
+    private Path write(List<SgfGame> games) throws IOException {
+        Path file = dir.resolve("games.gst");
+        try (GameStoreWriter writer = new GameStoreWriter(file)) {
+            for (SgfGame game : games) {
+                writer.add(game);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void roundTripsMovesAndHeaders() throws IOException {
+        List<SgfGame> games = randomGames(25, 1);
+        try (GameStore store = new GameStore(write(games))) {
+            assertEquals(25, store.getGameCount());
+            int[] moves = new int[1000];
+            byte[] colors = new byte[1000];
+            // Jump around rather than reading in order
+            for (int n = 24; n >= 0; n -= 3) {
+                SgfGame game = games.get(n);
+                assertEquals(game.getCols(), store.getCols(n));
+                assertEquals(game.getKomi(), store.getKomi(n));
+                assertEquals(game.getMoveCount(), store.readMoves(n, moves, colors));
+                for (int i = 0; i < game.getMoveCount(); i++) {
+                    assertEquals(game.getMove(i), moves[i]);
+                    assertEquals(game.getColor(i), colors[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void replayMatchesTheRecordedGame() throws IOException {
+        List<SgfGame> games = randomGames(10, 2);
+        try (GameStore store = new GameStore(write(games))) {
+            for (int n = 0; n < games.size(); n++) {
+                SgfGame game = games.get(n);
+                GoPosition expected = new GoPosition(game.getCols(), game.getRows());
+                game.replay(expected);
+                GoPosition actual = new GoPosition(game.getCols(), game.getRows());
+                assertEquals(game.getMoveCount(), store.replay(n, actual));
+                assertEquals(expected.getHash(), actual.getHash());
+                assertEquals(expected.getCapturedByBlack(), actual.getCapturedByBlack());
+            }
+        }
+    }
+
+    @Test
+    void keepsSetupStonesAndOneByteMovesOnSmallBoards() throws IOException {
+        SgfGame game = new SgfGame(9, 9, 0.5, 2, null, null, null,
+                new int[]{20, 60}, new int[]{40}, new int[]{0, SgfGame.PASS, 80},
+                new byte[]{GoPosition.WHITE, GoPosition.BLACK, GoPosition.WHITE});
+        Path file = write(List.of(game));
+        assertEquals(GameStoreFormat.FILE_HEADER + GameStoreFormat.GAME_HEADER + 3 * 2 + 3 + 2 * 8, Files.size(file));
+
+        try (GameStore store = new GameStore(file)) {
+            SgfGame read = store.getGame(0);
+            assertArrayEquals(new int[]{20, 60}, read.getBlackSetup());
+            assertArrayEquals(new int[]{40}, read.getWhiteSetup());
+            assertEquals(2, read.getHandicap());
+            assertTrue(read.isPass(1));
+            assertEquals(GoPosition.WHITE, read.getColor(2));
+
+            GoPosition position = new GoPosition(9, 9);
+            assertEquals(3, store.replay(0, position));
+            assertEquals(GoPosition.BLACK, position.getStone(2, 2));
+            assertEquals(GoPosition.WHITE, position.getStone(8, 8));
+        }
+    }
+
+    @Test
+    void convertsAnSgfDirectory() throws IOException {
+        Path sgf = Files.createDirectory(dir.resolve("sgf"));
+        Files.writeString(sgf.resolve("a.sgf"), "(;SZ[19]KM[7.5];B[pd];W[dp];B[])(;SZ[9];B[ee])");
+        Path store = dir.resolve("out.gst");
+
+        assertEquals(2, GameStoreWriter.convert(sgf, store));
+        try (GameStore games = new GameStore(store)) {
+            assertEquals(7.5, games.getKomi(0));
+            assertEquals(3, games.getMoveCount(0));
+            assertEquals(9, games.getCols(1));
+        }
+    }
+
+    @Test
+    void rejectsOtherFilesAndBadIndices() throws IOException {
+        Path junk = dir.resolve("junk.gst");
+        Files.write(junk, new byte[64]);
+        assertThrows(IOException.class, () -> new GameStore(junk));
+
+        try (GameStore store = new GameStore(write(randomGames(2, 3)))) {
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getMoveCount(2));
+        }
+    }
+}